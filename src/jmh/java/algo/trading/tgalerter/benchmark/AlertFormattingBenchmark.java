@@ -0,0 +1,101 @@
+package algo.trading.tgalerter.benchmark;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.template.AlertTemplates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.util.StringUtils;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares alert formatting with compiled templates against the former StringBuilder formatter that
+ * created a pretty printing writer and a zoned formatter per call. Run with {@code -prof gc} to see
+ * allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertFormattingBenchmark {
+  private static final DateTimeFormatter LEGACY_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private ObjectMapper objectMapper;
+  private AlertTemplates alertTemplates;
+  private StrategyEvent event;
+  private StrategyInfo strategyInfo;
+
+  /** Loads example event and compiles default templates. */
+  @Setup
+  @SneakyThrows
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    alertTemplates = new AlertTemplates(new AlertTemplateProperties(), objectMapper);
+    try (InputStream json = getClass().getResourceAsStream("/example/event.json")) {
+      event = objectMapper.readValue(json, StrategyEvent.class);
+    }
+    strategyInfo = objectMapper.readValue("{\"chatId\":\"666\"}", StrategyInfo.class);
+  }
+
+  /** Template engine rendering. */
+  @Benchmark
+  public String template() {
+    return alertTemplates.renderEvent(event, strategyInfo);
+  }
+
+  /** Former formatter of EventService. */
+  @Benchmark
+  @SneakyThrows
+  public String legacy() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("=== Strategy Event ===\n");
+    appendIfNotNull(sb, "Type", event.getType());
+    appendIfNotNull(sb, "Strategy ID", event.getStrategyId());
+    appendIfNotNull(sb, "Time", legacyFormatTime(event.getTime()));
+    appendIfNotNull(sb, "State", event.getState());
+    appendIfNotNull(sb, "Symbol", strategyInfo.getSymbol());
+    appendIfNotNull(sb, "Timeframe", strategyInfo.getTimeframe());
+    appendIfNotNull(sb, "Exchange", strategyInfo.getExchange());
+    if (StringUtils.isNotBlank(event.getMessage())) {
+      sb.append("\nMessage:\n").append(event.getMessage()).append("\n");
+    }
+    if (event.getOrder() != null) {
+      sb.append("\nOrder Details:\n")
+          .append(
+              objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(event.getOrder()));
+    }
+    return sb.toString();
+  }
+
+  private static String legacyFormatTime(Instant time) {
+    if (time == null) {
+      return "null";
+    }
+    return LEGACY_FORMATTER.withZone(ZoneId.systemDefault()).format(time);
+  }
+
+  private static void appendIfNotNull(StringBuilder sb, String label, Object value) {
+    if (value != null) {
+      sb.append(label).append(": ").append(value).append("\n");
+    }
+  }
+}
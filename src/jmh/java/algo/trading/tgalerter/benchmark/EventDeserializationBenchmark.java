@@ -0,0 +1,71 @@
+package algo.trading.tgalerter.benchmark;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.EventFilterProperties;
+import algo.trading.tgalerter.listener.EventMessageReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** Jackson deserialization of StrategyEvent from example/event.json, as done by the listener. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDeserializationBenchmark {
+  private ObjectMapper objectMapper;
+  private ObjectReader reader;
+  private byte[] body;
+  private EventMessageReader eventMessageReader;
+  private Message message;
+
+  /** Loads example event. */
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    reader = objectMapper.readerFor(StrategyEvent.class);
+    try (InputStream json = getClass().getResourceAsStream("/example/event.json")) {
+      body = json.readAllBytes();
+    }
+    eventMessageReader =
+        new EventMessageReader(
+            new EventFilterProperties(), objectMapper, new SimpleMeterRegistry());
+    message = new Message(body, new MessageProperties());
+  }
+
+  /** ObjectMapper lookup of deserializer per call. */
+  @Benchmark
+  public StrategyEvent objectMapper() throws IOException {
+    return objectMapper.readValue(body, StrategyEvent.class);
+  }
+
+  /** Reader bound to StrategyEvent. */
+  @Benchmark
+  public StrategyEvent objectReader() throws IOException {
+    return reader.readValue(body);
+  }
+
+  /** Listener reader, order kept as raw slice of the body. */
+  @Benchmark
+  public StrategyEvent eventMessageReader() {
+    return eventMessageReader.read(message);
+  }
+}
@@ -0,0 +1,72 @@
+package algo.trading.tgalerter.benchmark;
+
+import algo.trading.tgalerter.util.FormatUtil;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Helpers of {@link FormatUtil} used when building alert messages. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatUtilBenchmark {
+  private final StringBuilder buffer = new StringBuilder(64);
+  private Instant time;
+  private Exception exception;
+  private String longText;
+
+  /** Prepares inputs. */
+  @Setup
+  public void setUp() {
+    time = Instant.parse("2023-05-15T14:30:45Z");
+    exception = new IllegalStateException("Failed to execute market order");
+    longText = "Order details line\n".repeat(1000);
+  }
+
+  /** Time formatted to new string. */
+  @Benchmark
+  public String formatTime() {
+    return FormatUtil.formatTime(time);
+  }
+
+  /** Time formatted into reused buffer. */
+  @Benchmark
+  public StringBuilder appendTime() {
+    buffer.setLength(0);
+    FormatUtil.appendTime(buffer, time);
+    return buffer;
+  }
+
+  /** Labeled value appended into reused buffer. */
+  @Benchmark
+  public StringBuilder appendIfNotNull() {
+    buffer.setLength(0);
+    FormatUtil.appendIfNotNull(buffer, "Strategy ID", 12345L);
+    return buffer;
+  }
+
+  /** First lines of stack trace for error alerts. */
+  @Benchmark
+  public String firstLinesOfStackTrace() {
+    return FormatUtil.getFirstLinesOfStackTrace(exception, 10);
+  }
+
+  /** Text longer than Telegram limit split into messages. */
+  @Benchmark
+  public List<String> splitByLength() {
+    return FormatUtil.splitByLength(longText, 4096);
+  }
+}
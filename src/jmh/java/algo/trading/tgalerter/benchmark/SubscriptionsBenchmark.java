@@ -0,0 +1,92 @@
+package algo.trading.tgalerter.benchmark;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.tgalerter.service.MemoryEventSubscriptions;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Subscription lookups of {@link MemoryEventSubscriptions}, alone and with a concurrent writer
+ * toggling subscriptions of the same chats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionsBenchmark {
+  @Param({"1000"})
+  private int chats;
+
+  private MemoryEventSubscriptions subscriptions;
+  private String[] chatIds;
+  private long[] numericChatIds;
+
+  /** Unsubscribes every other chat from ACTION events. */
+  @Setup
+  public void setUp() {
+    subscriptions = new MemoryEventSubscriptions();
+    chatIds = new String[chats];
+    numericChatIds = new long[chats];
+    for (int i = 0; i < chats; i++) {
+      numericChatIds[i] = -1000000000L - i;
+      chatIds[i] = String.valueOf(numericChatIds[i]);
+      if (i % 2 == 0) {
+        subscriptions.unsubscribe(chatIds[i], EventType.ACTION);
+      }
+    }
+  }
+
+  /** Lookup without writers. */
+  @Benchmark
+  public boolean isSubscribed() {
+    return subscriptions.isSubscribed(randomChat(), EventType.ACTION);
+  }
+
+  /** Lookup by primitive chatId without writers. */
+  @Benchmark
+  public boolean isSubscribedLong() {
+    return subscriptions.isSubscribed(
+        numericChatIds[ThreadLocalRandom.current().nextInt(numericChatIds.length)],
+        EventType.ACTION);
+  }
+
+  /** Lookup while a writer changes subscriptions. */
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(3)
+  public boolean contendedIsSubscribed() {
+    return subscriptions.isSubscribed(randomChat(), EventType.ACTION);
+  }
+
+  /** Writer of contended group. */
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(1)
+  public void contendedToggle() {
+    String chatId = randomChat();
+    if (subscriptions.isSubscribed(chatId, EventType.ACTION)) {
+      subscriptions.unsubscribe(chatId, EventType.ACTION);
+    } else {
+      subscriptions.subscribe(chatId, EventType.ACTION);
+    }
+  }
+
+  private String randomChat() {
+    return chatIds[ThreadLocalRandom.current().nextInt(chatIds.length)];
+  }
+}
@@ -0,0 +1,255 @@
+package algo.trading.tgalerter.listener;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.config.CoalescingProperties;
+import algo.trading.tgalerter.config.DeduplicationProperties;
+import algo.trading.tgalerter.config.DispatchProperties;
+import algo.trading.tgalerter.config.EventFilterProperties;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import algo.trading.tgalerter.config.PriorityProperties;
+import algo.trading.tgalerter.config.RetryQueueProperties;
+import algo.trading.tgalerter.config.SubscriptionStoreProperties;
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import algo.trading.tgalerter.integration.OrchestratorCircuitBreaker;
+import algo.trading.tgalerter.integration.StrategyInfoBatchLoader;
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import algo.trading.tgalerter.integration.StrategyRoutingIndex;
+import algo.trading.tgalerter.integration.TradeOrchestratorIntegration;
+import algo.trading.tgalerter.service.AlertDeduplicator;
+import algo.trading.tgalerter.service.AlertRetryQueue;
+import algo.trading.tgalerter.service.EventService;
+import algo.trading.tgalerter.service.HandleErrorsService;
+import algo.trading.tgalerter.service.MemoryEventSubscriptions;
+import algo.trading.tgalerter.service.MessageCoalescer;
+import algo.trading.tgalerter.service.PriorityClassifier;
+import algo.trading.tgalerter.service.SubscriptionRules;
+import algo.trading.tgalerter.template.AlertTemplates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Processing of one strategy event from listener to bot, with orchestrator and Telegram replaced by
+ * in-memory stubs. Covers dispatch to partition, cached StrategyInfo lookup, subscription check and
+ * rendering. Deduplication is off for the delivered events, since the same event is sent every
+ * invocation, and measured separately on an event that was already alerted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPipelineBenchmark {
+  private StrategyListener listener;
+  private StrategyListener deduplicatingListener;
+  private EventDispatcher dispatcher;
+  private EventDispatcher deduplicatingDispatcher;
+  private MessageCoalescer coalescer;
+  private HandleErrorsService handleErrorsService;
+  private StrategyInfoBatchLoader loader;
+  private StrategyEvent event;
+  private StrategyEvent tick;
+  private Message eventMessage;
+  private Message tickMessage;
+
+  /** Wires listener with stub orchestrator and bot. */
+  @Setup
+  @SneakyThrows
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    try (InputStream json = getClass().getResourceAsStream("/example/event.json")) {
+      event = objectMapper.readValue(json, StrategyEvent.class);
+    }
+    event.setType(EventType.ACTION);
+    tick = StrategyEvent.builder().strategyId(event.getStrategyId()).type(EventType.TICK).build();
+    StrategyInfo strategyInfo = objectMapper.readValue("{\"chatId\":\"666\"}", StrategyInfo.class);
+
+    MemoryEventSubscriptions subscriptions = new MemoryEventSubscriptions();
+    AlertTemplateProperties templateProperties = new AlertTemplateProperties();
+    AlertTemplates alertTemplates = new AlertTemplates(templateProperties, objectMapper);
+    SubscriptionRules subscriptionRules =
+        new SubscriptionRules(new SubscriptionStoreProperties(), objectMapper);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TradingAlertBot bot =
+        new StubBot(subscriptions, templateProperties, subscriptionRules, meterRegistry);
+    IntegrationProperty integrationProperty = new IntegrationProperty();
+    integrationProperty.setOrchestrator(new IntegrationProperty.Orchestrator());
+    StandardEnvironment environment = new StandardEnvironment();
+    loader =
+        new StrategyInfoBatchLoader(
+            new StubOrchestrator(strategyInfo), integrationProperty, environment, meterRegistry);
+    StrategyRoutingIndex routingIndex =
+        new StrategyRoutingIndex(integrationProperty, meterRegistry);
+    StrategyInfoCache cache =
+        new StrategyInfoCache(loader, routingIndex, integrationProperty, meterRegistry);
+    RetryQueueProperties retryProperties = new RetryQueueProperties();
+    retryProperties.setEnabled(false);
+    coalescer = new MessageCoalescer(bot, new CoalescingProperties(), templateProperties);
+    PriorityProperties priorityProperties = new PriorityProperties();
+    PriorityClassifier priorityClassifier = new PriorityClassifier(priorityProperties);
+    DeduplicationProperties deduplicationProperties = new DeduplicationProperties();
+    deduplicationProperties.setEnabled(false);
+    AlertRetryQueue retryQueue = new AlertRetryQueue(bot, retryProperties, meterRegistry);
+    EventService eventService =
+        new EventService(
+            cache,
+            routingIndex,
+            bot,
+            alertTemplates,
+            subscriptions,
+            coalescer,
+            subscriptionRules,
+            retryQueue,
+            new AlertDeduplicator(deduplicationProperties, meterRegistry),
+            priorityClassifier,
+            meterRegistry);
+    EventService deduplicatingService =
+        new EventService(
+            cache,
+            routingIndex,
+            bot,
+            alertTemplates,
+            subscriptions,
+            coalescer,
+            subscriptionRules,
+            retryQueue,
+            new AlertDeduplicator(new DeduplicationProperties(), meterRegistry),
+            priorityClassifier,
+            meterRegistry);
+    handleErrorsService =
+        new HandleErrorsService(bot, new TelegramBotProperties(), alertTemplates, meterRegistry);
+    OrchestratorCircuitBreaker circuitBreaker =
+        new OrchestratorCircuitBreaker(integrationProperty, meterRegistry);
+    dispatcher =
+        new EventDispatcher(
+            eventService,
+            handleErrorsService,
+            new DispatchProperties(),
+            priorityClassifier,
+            priorityProperties,
+            circuitBreaker,
+            new RabbitProperties(),
+            meterRegistry);
+    deduplicatingDispatcher =
+        new EventDispatcher(
+            deduplicatingService,
+            handleErrorsService,
+            new DispatchProperties(),
+            priorityClassifier,
+            priorityProperties,
+            circuitBreaker,
+            new RabbitProperties(),
+            meterRegistry);
+    EventMessageReader reader =
+        new EventMessageReader(new EventFilterProperties(), objectMapper, meterRegistry);
+    listener = new StrategyListener(dispatcher, reader);
+    deduplicatingListener = new StrategyListener(deduplicatingDispatcher, reader);
+    // first delivery is alerted, later ones are duplicates
+    deduplicatingListener.processStrategyEvent(event).join();
+    tickMessage = new Message(objectMapper.writeValueAsBytes(tick), new MessageProperties());
+    tickMessage.getMessageProperties().setHeader("eventType", EventType.TICK.name());
+    eventMessage = new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+  }
+
+  /** Stops dispatcher, coalescer and loader threads. */
+  @TearDown
+  public void tearDown() {
+    ReflectionTestUtils.invokeMethod(dispatcher, "shutdown");
+    ReflectionTestUtils.invokeMethod(deduplicatingDispatcher, "shutdown");
+    ReflectionTestUtils.invokeMethod(coalescer, "shutdown");
+    ReflectionTestUtils.invokeMethod(handleErrorsService, "shutdown");
+    ReflectionTestUtils.invokeMethod(loader, "shutdown");
+  }
+
+  /** Event delivered to bot. */
+  @Benchmark
+  public void processEvent() {
+    listener.processStrategyEvent(event).join();
+  }
+
+  /** Raw message deserialized and delivered to bot. */
+  @Benchmark
+  public void processMessage() {
+    listener.processStrategyMessage(eventMessage).join();
+  }
+
+  /** Event already alerted within deduplication window, dropped before rendering. */
+  @Benchmark
+  public void processDuplicate() {
+    deduplicatingListener.processStrategyEvent(event).join();
+  }
+
+  /** TICK event dropped by listener. */
+  @Benchmark
+  public void processTick() {
+    listener.processStrategyEvent(tick).join();
+  }
+
+  /** Raw TICK message dropped by type header. */
+  @Benchmark
+  public void processTickMessage() {
+    listener.processStrategyMessage(tickMessage).join();
+  }
+
+  private static class StubOrchestrator extends TradeOrchestratorIntegration {
+    private final StrategyInfo strategyInfo;
+
+    private StubOrchestrator(StrategyInfo strategyInfo) {
+      super(null, null, null);
+      this.strategyInfo = strategyInfo;
+    }
+
+    @Override
+    public StrategyInfo getStrategyInfo(Long strategyId) {
+      return strategyInfo;
+    }
+  }
+
+  private static class StubBot extends TradingAlertBot {
+    private StubBot(
+        MemoryEventSubscriptions subscriptions,
+        AlertTemplateProperties templateProperties,
+        SubscriptionRules subscriptionRules,
+        MeterRegistry meterRegistry) {
+      super(
+          new TelegramBotProperties(),
+          subscriptions,
+          null,
+          templateProperties,
+          subscriptionRules,
+          meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> alertAsync(String message, String chatId, boolean urgent) {
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+}
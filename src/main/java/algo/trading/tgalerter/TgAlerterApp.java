@@ -1,16 +1,50 @@
 package algo.trading.tgalerter;
 
 import algo.trading.tgalerter.config.TelegramBotProperties;
+import java.util.Set;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.StringUtils;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
 
-/** Start spring application. */
-@SpringBootApplication
+/**
+ * Start spring application. Startup steps are buffered for the startup actuator endpoint only where
+ * ACTUATOR_EXPOSURE lists it, so other deployments do not keep the startup timeline in memory.
+ * Long polling starter is replaced by {@link algo.trading.tgalerter.bot.LongPollingUpdateReceiver},
+ * which registers the bot after startup.
+ */
+@SpringBootApplication(exclude = TelegramBotStarterConfiguration.class)
 @EnableConfigurationProperties(value = TelegramBotProperties.class)
 public class TgAlerterApp {
+  private static final int STARTUP_STEPS = 2048;
+  private static final String EXPOSURE =
+      "${management.endpoints.web.exposure.include:${ACTUATOR_EXPOSURE:}}";
+
   /** Main method for start application. */
   public static void main(String[] args) {
-    SpringApplication.run(TgAlerterApp.class, args);
+    SpringApplication application = new SpringApplication(TgAlerterApp.class);
+    if (isStartupExposed(args)) {
+      application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+    }
+    application.run(args);
+  }
+
+  /**
+   * Checks whether startup endpoint is exposed, before the application environment is prepared.
+   *
+   * @param args command line arguments
+   * @return true if web exposure of actuator endpoints includes startup
+   */
+  static boolean isStartupExposed(String... args) {
+    StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+    Set<String> exposure =
+        StringUtils.commaDelimitedListToSet(
+            StringUtils.trimAllWhitespace(environment.resolvePlaceholders(EXPOSURE)));
+    return exposure.contains("startup") || exposure.contains("*");
   }
 }
@@ -1,5 +1,6 @@
 package algo.trading.tgalerter.bot;
 
+import java.util.concurrent.CompletableFuture;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 /** Contract for alert notification service. */
@@ -10,4 +11,23 @@ public interface AlertBot {
    * @param message text content to send
    */
   void alert(String message, String chatId) throws TelegramApiException;
+
+  /**
+   * Sends alert message without blocking caller.
+   *
+   * @param message text content to send
+   * @param chatId target chat
+   * @return future completed when message is sent, or exceptionally when sending failed
+   */
+  CompletableFuture<Void> alertAsync(String message, String chatId);
+
+  /**
+   * Sends alert message without blocking caller.
+   *
+   * @param message text content to send
+   * @param chatId target chat
+   * @param urgent whether message is sent ahead of queued normal messages
+   * @return future completed when message is sent, or exceptionally when sending failed
+   */
+  CompletableFuture<Void> alertAsync(String message, String chatId, boolean urgent);
 }
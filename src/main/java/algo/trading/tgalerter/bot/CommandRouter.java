@@ -0,0 +1,152 @@
+package algo.trading.tgalerter.bot;
+
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+
+/**
+ * Routes text messages to command handlers. Commands are kept in a prefix trie, the longest
+ * command ending at a word boundary wins, so overlapping commands resolve the same way every time.
+ * Slash commands accept /command@username form, commands addressed to another bot are ignored.
+ * Words after the command are passed to handler as arguments. Every chat has its own token bucket,
+ * commands over the limit are dropped.
+ */
+@Slf4j
+class CommandRouter {
+  private static final String METRIC = "alerter.telegram.commands";
+
+  /** Routing result. */
+  enum Outcome {
+    HANDLED,
+    THROTTLED,
+    IGNORED
+  }
+
+  /**
+   * Parsed command.
+   *
+   * @param message message containing command
+   * @param name registered command text
+   * @param args words following command
+   */
+  record Command(Message message, String name, List<String> args) {}
+
+  private final Node root = new Node();
+  private final String username;
+  private final TelegramBotProperties.CommandRateLimit limits;
+  private final Cache<Long, TokenBucket> buckets;
+  private final Counter handledCounter;
+  private final Counter throttledCounter;
+
+  CommandRouter(TelegramBotProperties properties, MeterRegistry meterRegistry) {
+    this.username = properties.getUsername();
+    this.limits = properties.getCommandRateLimit();
+    this.buckets = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).build();
+    this.handledCounter = commandCounter("handled", meterRegistry);
+    this.throttledCounter = commandCounter("throttled", meterRegistry);
+  }
+
+  /** Registers handler for command or exact button text. */
+  void register(String name, Consumer<Command> handler) {
+    Node node = root;
+    for (int i = 0; i < name.length(); i++) {
+      node = node.children.computeIfAbsent(name.charAt(i), c -> new Node());
+    }
+    if (node.handler != null) {
+      throw new IllegalStateException("Duplicate command: " + name);
+    }
+    node.name = name;
+    node.handler = handler;
+  }
+
+  /** Finds command in message text and runs its handler. */
+  Outcome route(Message message) {
+    String text = message.getText();
+    Node match = null;
+    int end = 0;
+    Node node = root;
+    for (int i = 0; i < text.length() && node != null; i++) {
+      node = node.children.get(text.charAt(i));
+      if (node != null && node.handler != null && isBoundary(node.name, text, i + 1)) {
+        match = node;
+        end = i + 1;
+      }
+    }
+    if (match == null) {
+      return Outcome.IGNORED;
+    }
+    if (end < text.length() && text.charAt(end) == '@') {
+      int mentionEnd = wordEnd(text, end);
+      if (username != null
+          && !username.isEmpty()
+          && !username.equalsIgnoreCase(text.substring(end + 1, mentionEnd))) {
+        return Outcome.IGNORED;
+      }
+      end = mentionEnd;
+    }
+    if (!tryAcquire(message.getChatId())) {
+      log.debug("Command throttled: {}, chatId: {}", match.name, message.getChatId());
+      throttledCounter.increment();
+      return Outcome.THROTTLED;
+    }
+    String rest = text.substring(end).trim();
+    List<String> args = rest.isEmpty() ? List.of() : List.of(rest.split("\\s+"));
+    match.handler.accept(new Command(message, match.name, args));
+    handledCounter.increment();
+    return Outcome.HANDLED;
+  }
+
+  private boolean tryAcquire(Long chatId) {
+    TokenBucket bucket =
+        buckets.get(
+            chatId,
+            id ->
+                new TokenBucket(
+                    limits.getPerChatPerSecond(), limits.getPerChatBurst(), System.nanoTime()));
+    synchronized (bucket) {
+      long now = System.nanoTime();
+      if (bucket.nanosUntilAvailable(now) > 0) {
+        return false;
+      }
+      bucket.take(now);
+      return true;
+    }
+  }
+
+  private static boolean isBoundary(String name, String text, int position) {
+    if (position == text.length() || Character.isWhitespace(text.charAt(position))) {
+      return true;
+    }
+    return text.charAt(position) == '@' && name.startsWith("/");
+  }
+
+  private static int wordEnd(String text, int from) {
+    int i = from;
+    while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static Counter commandCounter(String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder(METRIC)
+        .description("Routed bot commands")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private static class Node {
+    private final Map<Character, Node> children = new HashMap<>();
+    private String name;
+    private Consumer<Command> handler;
+  }
+}
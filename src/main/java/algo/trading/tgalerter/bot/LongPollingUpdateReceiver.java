@@ -0,0 +1,103 @@
+package algo.trading.tgalerter.bot;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+/**
+ * Receives updates with getUpdates long polling, the default update mode. Polling waits while
+ * update queue is full. The bot is registered in background once application is ready, since
+ * registration calls Bot API, so neither startup waits for Telegram nor a failed registration stops
+ * alerts. Failed registration is retried.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    value = "telegram.bot.update-mode",
+    havingValue = "long_polling",
+    matchIfMissing = true)
+public class LongPollingUpdateReceiver {
+  private static final long RETRY_DELAY_SECONDS = 10;
+
+  private final TradingAlertBot tradingAlertBot;
+  private final UpdateExecutor updateExecutor;
+  private final ScheduledExecutorService registrar;
+  private volatile TelegramBotsLongPollingApplication application;
+
+  /**
+   * Creates receiver.
+   *
+   * @param tradingAlertBot bot providing token
+   * @param updateExecutor executor handling updates
+   */
+  public LongPollingUpdateReceiver(TradingAlertBot tradingAlertBot, UpdateExecutor updateExecutor) {
+    this.tradingAlertBot = tradingAlertBot;
+    this.updateExecutor = updateExecutor;
+    this.registrar =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("telegram-polling-registrar-"));
+  }
+
+  /** Starts long polling in background. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void register() {
+    registrar.execute(this::tryRegister);
+  }
+
+  @PreDestroy
+  void shutdown() throws Exception {
+    registrar.shutdownNow();
+    registrar.awaitTermination(10, TimeUnit.SECONDS);
+    if (application != null) {
+      application.close();
+    }
+  }
+
+  private void tryRegister() {
+    String token = tradingAlertBot.getBotToken();
+    try {
+      if (application == null) {
+        application = new TelegramBotsLongPollingApplication();
+      }
+      application.registerBot(token, this::consume);
+      log.info("Long polling started");
+    } catch (TelegramApiException | RuntimeException e) {
+      // unchecked errors would end the registrar task and leave the bot without updates
+      log.error("Can not start long polling, retry in {} s", RETRY_DELAY_SECONDS, e);
+      unregister(token);
+      registrar.schedule(this::tryRegister, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+
+  private void unregister(String token) {
+    if (application == null) {
+      return;
+    }
+    try {
+      application.unregisterBot(token);
+    } catch (TelegramApiException | RuntimeException e) {
+      log.debug("Can not unregister bot: {}", e.getMessage());
+    }
+  }
+
+  private void consume(List<Update> updates) {
+    try {
+      for (Update update : updates) {
+        updateExecutor.submit(update);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,413 @@
+package algo.trading.tgalerter.bot;
+
+import algo.trading.tgalerter.config.PriorityProperties;
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.service.PriorityClassifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+/**
+ * Sends outbound Telegram messages within Bot API rate limits. Every chat has its own token bucket
+ * and the whole bot shares a global one. Chats with pending messages are served round-robin, so a
+ * chat with a long backlog does not delay other chats. Messages of one chat are sent one at a time
+ * in submission order, except urgent messages which are sent before normal messages of their chat.
+ * Chats with urgent messages are served before other chats. On 429 response the chat is paused
+ * for retry_after and the message is resent. Messages are sent with asynchronous client calls, the
+ * number of unanswered requests is bounded. When the queue is full the submitting thread waits for
+ * free space up to queueTimeout, so a burst slows down event processing instead of losing alerts.
+ */
+@Slf4j
+@Component
+public class OutboundScheduler {
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final TelegramClient client;
+  private final TelegramBotProperties.RateLimit limits;
+  private final int urgentCapacity;
+  private final Semaphore inFlight;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final Map<String, ChatLane> lanes = new HashMap<>();
+  private final ArrayDeque<ChatLane> ready = new ArrayDeque<>();
+  private final ArrayDeque<ChatLane> readyUrgent = new ArrayDeque<>();
+  private final TokenBucket globalBucket;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Timer waitTimer;
+  private final Timer urgentWaitTimer;
+  private final Counter throttledCounter;
+  private final Thread schedulerThread;
+  private long sweptAt;
+  private volatile boolean running = true;
+
+  /**
+   * Creates scheduler and starts its thread.
+   *
+   * @param client Telegram client used to send messages, created on first send
+   * @param properties bot configuration with rate limits
+   * @param priorityProperties queue slots reserved for urgent messages
+   * @param meterRegistry registry for queue metrics
+   */
+  public OutboundScheduler(
+      @Lazy TelegramClient client,
+      TelegramBotProperties properties,
+      PriorityProperties priorityProperties,
+      MeterRegistry meterRegistry) {
+    this.client = client;
+    this.limits = properties.getRateLimit();
+    this.urgentCapacity = limits.getQueueCapacity() + priorityProperties.getOutboundReserve();
+    this.inFlight = new Semaphore(limits.getMaxInFlight());
+    long now = System.nanoTime();
+    this.globalBucket =
+        new TokenBucket(limits.getGlobalPerSecond(), limits.getGlobalBurst(), now);
+    this.sweptAt = now;
+    Gauge.builder("alerter.telegram.queue.size", queued, AtomicInteger::get)
+        .description("Outbound messages waiting for rate limit")
+        .register(meterRegistry);
+    this.waitTimer = waitTimer(PriorityClassifier.NORMAL, meterRegistry);
+    this.urgentWaitTimer = waitTimer(PriorityClassifier.HIGH, meterRegistry);
+    this.throttledCounter =
+        Counter.builder("alerter.telegram.throttled")
+            .description("Responses with 429 Too Many Requests")
+            .register(meterRegistry);
+    this.schedulerThread =
+        new CustomizableThreadFactory("telegram-scheduler-").newThread(this::run);
+    schedulerThread.start();
+  }
+
+  /**
+   * Queues message for sending.
+   *
+   * @param message message to send
+   * @return future completed when message is sent, or exceptionally when sending failed
+   */
+  public CompletableFuture<Void> submit(SendMessage message) {
+    return submit(message, false);
+  }
+
+  /**
+   * Queues message for sending, waits up to queueTimeout while the queue is full.
+   *
+   * @param message message to send
+   * @param urgent whether message is sent ahead of normal messages
+   * @return future completed when message is sent, or exceptionally when sending failed or the
+   *     queue stayed full
+   */
+  public CompletableFuture<Void> submit(SendMessage message, boolean urgent) {
+    Outbound outbound = new Outbound(message, urgent, System.nanoTime());
+    int capacity = urgent ? urgentCapacity : limits.getQueueCapacity();
+    long wait = limits.getQueueTimeout().toNanos();
+    lock.lock();
+    try {
+      while (running && queued.get() >= capacity) {
+        if (wait <= 0) {
+          outbound.result.completeExceptionally(
+              new RejectedExecutionException("Outbound queue is full"));
+          return outbound.result;
+        }
+        try {
+          wait = notFull.awaitNanos(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          outbound.result.completeExceptionally(
+              new RejectedExecutionException("Interrupted while outbound queue is full"));
+          return outbound.result;
+        }
+      }
+      if (!running) {
+        outbound.result.completeExceptionally(new RejectedExecutionException("Scheduler stopped"));
+        return outbound.result;
+      }
+      ChatLane lane = lanes.computeIfAbsent(message.getChatId(), this::newLane);
+      lane.queue(outbound).addLast(outbound);
+      queued.incrementAndGet();
+      schedule(lane);
+    } finally {
+      lock.unlock();
+    }
+    return outbound.result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    List<Outbound> dropped = new ArrayList<>();
+    lock.lock();
+    try {
+      running = false;
+      lanes
+          .values()
+          .forEach(
+              lane -> {
+                dropped.addAll(lane.urgent);
+                dropped.addAll(lane.pending);
+              });
+      lanes.clear();
+      ready.clear();
+      readyUrgent.clear();
+      queued.set(0);
+      changed.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    log.info("Stopping outbound scheduler, dropped messages: {}", dropped.size());
+    dropped.forEach(
+        outbound ->
+            outbound.result.completeExceptionally(
+                new RejectedExecutionException("Scheduler stopped")));
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        inFlight.acquire();
+        Dispatch next = awaitNext();
+        if (next == null) {
+          inFlight.release();
+        } else {
+          send(next);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        log.error("Outbound scheduler failed", e);
+      }
+    }
+  }
+
+  private Dispatch awaitNext() throws InterruptedException {
+    lock.lock();
+    try {
+      while (running) {
+        long now = System.nanoTime();
+        sweep(now);
+        long wait = globalBucket.nanosUntilAvailable(now);
+        if (wait == 0) {
+          ChatLane lane = nextReady(readyUrgent, now);
+          if (lane == null) {
+            lane = nextReady(ready, now);
+          }
+          if (lane != null) {
+            return dispatch(lane, now);
+          }
+          wait = Math.min(minWait(readyUrgent, now), minWait(ready, now));
+        }
+        if (wait == Long.MAX_VALUE) {
+          changed.awaitNanos(SWEEP_INTERVAL_NANOS);
+        } else {
+          changed.awaitNanos(wait);
+        }
+      }
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Takes the first lane of ready deque whose bucket has a token, skipped lanes are rotated. */
+  private static ChatLane nextReady(ArrayDeque<ChatLane> lanes, long now) {
+    for (int i = lanes.size(); i > 0; i--) {
+      ChatLane lane = lanes.pollFirst();
+      if (lane.bucket.nanosUntilAvailable(now) == 0) {
+        return lane;
+      }
+      lanes.addLast(lane);
+    }
+    return null;
+  }
+
+  private static long minWait(ArrayDeque<ChatLane> lanes, long now) {
+    long wait = Long.MAX_VALUE;
+    for (ChatLane lane : lanes) {
+      wait = Math.min(wait, lane.bucket.nanosUntilAvailable(now));
+    }
+    return wait;
+  }
+
+  private Dispatch dispatch(ChatLane lane, long now) {
+    lane.scheduled = false;
+    lane.inFlight = true;
+    lane.bucket.take(now);
+    globalBucket.take(now);
+    queued.decrementAndGet();
+    notFull.signal();
+    Outbound outbound =
+        lane.urgent.isEmpty() ? lane.pending.pollFirst() : lane.urgent.pollFirst();
+    (outbound.urgent ? urgentWaitTimer : waitTimer)
+        .record(now - outbound.enqueuedAt, TimeUnit.NANOSECONDS);
+    return new Dispatch(lane, outbound);
+  }
+
+  private void send(Dispatch dispatch) {
+    CompletableFuture<?> response;
+    try {
+      response = client.executeAsync(dispatch.outbound.message);
+    } catch (Exception e) {
+      response = CompletableFuture.failedFuture(e);
+    }
+    response.whenComplete(
+        (r, e) -> {
+          inFlight.release();
+          onSent(dispatch, e instanceof CompletionException ? e.getCause() : e);
+        });
+  }
+
+  private void onSent(Dispatch dispatch, Throwable error) {
+    final ChatLane lane = dispatch.lane;
+    final Outbound outbound = dispatch.outbound;
+    Duration retryAfter = retryAfter(error);
+    boolean retry = retryAfter != null && outbound.attempts < limits.getMaxRetries();
+    lock.lock();
+    try {
+      lane.inFlight = false;
+      if (retry && running) {
+        outbound.attempts++;
+        lane.bucket.pauseUntil(System.nanoTime() + retryAfter.toNanos());
+        lane.queue(outbound).addFirst(outbound);
+        queued.incrementAndGet();
+      }
+      schedule(lane);
+    } finally {
+      lock.unlock();
+    }
+    if (retryAfter != null) {
+      throttledCounter.increment();
+      log.warn(
+          "Too many requests for chatId: {}, retry after: {}, attempt: {}",
+          lane.chatId,
+          retryAfter,
+          outbound.attempts);
+    }
+    if (error == null) {
+      outbound.result.complete(null);
+    } else if (!retry || !running) {
+      outbound.result.completeExceptionally(error);
+    }
+  }
+
+  private void schedule(ChatLane lane) {
+    if (lane.inFlight) {
+      return;
+    }
+    if (!lane.urgent.isEmpty()) {
+      if (lane.scheduled && !lane.scheduledUrgent) {
+        // promote lane that waits among normal ones
+        ready.remove(lane);
+        lane.scheduled = false;
+      }
+      if (!lane.scheduled) {
+        lane.scheduled = true;
+        lane.scheduledUrgent = true;
+        readyUrgent.addLast(lane);
+        changed.signal();
+      }
+    } else if (!lane.scheduled && !lane.pending.isEmpty()) {
+      lane.scheduled = true;
+      lane.scheduledUrgent = false;
+      ready.addLast(lane);
+      changed.signal();
+    }
+  }
+
+  private void sweep(long now) {
+    if (now - sweptAt < SWEEP_INTERVAL_NANOS) {
+      return;
+    }
+    sweptAt = now;
+    lanes
+        .values()
+        .removeIf(
+            lane ->
+                !lane.inFlight
+                    && lane.pending.isEmpty()
+                    && lane.urgent.isEmpty()
+                    && lane.bucket.isIdle(now));
+  }
+
+  private Duration retryAfter(Throwable error) {
+    if (!(error instanceof TelegramApiRequestException requestException)
+        || requestException.getErrorCode() == null
+        || requestException.getErrorCode() != TOO_MANY_REQUESTS) {
+      return null;
+    }
+    if (requestException.getParameters() == null
+        || requestException.getParameters().getRetryAfter() == null) {
+      return limits.getDefaultRetryAfter();
+    }
+    return Duration.ofSeconds(requestException.getParameters().getRetryAfter());
+  }
+
+  private static Timer waitTimer(String priority, MeterRegistry meterRegistry) {
+    return Timer.builder("alerter.telegram.queue.wait")
+        .description("Time outbound message waited for rate limit")
+        .tag("priority", priority)
+        .register(meterRegistry);
+  }
+
+  private ChatLane newLane(String chatId) {
+    return new ChatLane(
+        chatId,
+        new TokenBucket(limits.getPerChatPerSecond(), limits.getPerChatBurst(), System.nanoTime()));
+  }
+
+  private static class ChatLane {
+    private final String chatId;
+    private final TokenBucket bucket;
+    private final ArrayDeque<Outbound> pending = new ArrayDeque<>();
+    private final ArrayDeque<Outbound> urgent = new ArrayDeque<>();
+    private boolean inFlight;
+    private boolean scheduled;
+    private boolean scheduledUrgent;
+
+    private ChatLane(String chatId, TokenBucket bucket) {
+      this.chatId = chatId;
+      this.bucket = bucket;
+    }
+
+    private ArrayDeque<Outbound> queue(Outbound outbound) {
+      return outbound.urgent ? urgent : pending;
+    }
+  }
+
+  private static class Outbound {
+    private final SendMessage message;
+    private final boolean urgent;
+    private final long enqueuedAt;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private int attempts;
+
+    private Outbound(SendMessage message, boolean urgent, long enqueuedAt) {
+      this.message = message;
+      this.urgent = urgent;
+      this.enqueuedAt = enqueuedAt;
+    }
+  }
+
+  private record Dispatch(ChatLane lane, Outbound outbound) {}
+}
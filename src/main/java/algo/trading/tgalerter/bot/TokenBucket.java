@@ -0,0 +1,59 @@
+package algo.trading.tgalerter.bot;
+
+/**
+ * Token bucket rate limiter working on nanoTime timestamps. Not thread safe, callers synchronize
+ * access.
+ */
+class TokenBucket {
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final double tokensPerNano;
+  private final double capacity;
+  private double tokens;
+  private long refilledAt;
+  private long pausedUntil;
+
+  TokenBucket(double tokensPerSecond, int capacity, long now) {
+    this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+    this.capacity = capacity;
+    this.tokens = capacity;
+    this.refilledAt = now;
+    this.pausedUntil = now;
+  }
+
+  /** Returns nanos to wait until one token is available, 0 if available now. */
+  long nanosUntilAvailable(long now) {
+    refill(now);
+    long pause = pausedUntil - now;
+    long refill = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    return Math.max(0, Math.max(pause, refill));
+  }
+
+  /** Takes one token, caller checks availability first. */
+  void take(long now) {
+    refill(now);
+    tokens -= 1;
+  }
+
+  /** Blocks bucket until given nanoTime and drops accumulated tokens. */
+  void pauseUntil(long until) {
+    if (until - pausedUntil > 0) {
+      pausedUntil = until;
+      tokens = Math.min(tokens, 1);
+    }
+  }
+
+  /** Returns true if bucket is full and not paused, so it can be forgotten. */
+  boolean isIdle(long now) {
+    refill(now);
+    return tokens >= capacity && pausedUntil - now <= 0;
+  }
+
+  private void refill(long now) {
+    long elapsed = now - refilledAt;
+    if (elapsed > 0) {
+      tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+      refilledAt = now;
+    }
+  }
+}
@@ -1,20 +1,26 @@
 package algo.trading.tgalerter.bot;
 
 import algo.trading.common.dto.EventType;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
 import algo.trading.tgalerter.config.TelegramBotProperties;
 import algo.trading.tgalerter.exceptions.FailBotStartingException;
 import algo.trading.tgalerter.service.EventSubscriptionManager;
+import algo.trading.tgalerter.service.SubscriptionRule;
+import algo.trading.tgalerter.service.SubscriptionRules;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
-import org.telegram.telegrambots.longpolling.interfaces.LongPollingUpdateConsumer;
-import org.telegram.telegrambots.longpolling.starter.SpringLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
@@ -22,48 +28,93 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMar
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.meta.generics.TelegramClient;
 
-/** Telegram bot implementation for sending trading alerts. */
+/**
+ * Telegram bot implementation for sending trading alerts. Updates are delivered by {@link
+ * LongPollingUpdateReceiver} or {@link WebhookUpdateController} depending on update mode and
+ * handled by {@link UpdateExecutor}, commands are dispatched by {@link CommandRouter}. Time from
+ * JVM start to the first delivered alert is exposed in alerter.startup.first.alert.
+ */
 @Slf4j
 @Component
-public class TradingAlertBot implements AlertBot, SpringLongPollingBot {
+public class TradingAlertBot implements AlertBot {
   private static final String GET_CHAT_ID_BUTTON = "Get chatId";
   private static final String UNSUBSCRIBE_FROM_ACTION_EVENTS_BUTTON =
       "Unsubscribe from ACTION events";
   private static final String SUBSCRIBE_TO_ACTION_EVENTS_BUTTON = "Subscribe to ACTION events";
 
-  private final TelegramClient client;
+  private final OutboundScheduler outboundScheduler;
   private final TelegramBotProperties properties;
-  private final Map<String, Consumer<Message>> commandHandlers;
+  private final AlertTemplateProperties alertTemplateProperties;
+  private final CommandRouter commandRouter;
   private final EventSubscriptionManager eventSubscriptionManager;
+  private final SubscriptionRules subscriptionRules;
+  private final Timer sentTimer;
+  private final Timer failedTimer;
+  private final AtomicLong firstAlertUptime = new AtomicLong(-1);
 
   /**
    * Initializes bot with configuration properties.
    *
    * @param properties bot configuration (token, chatId)
+   * @param outboundScheduler rate limited sender of outbound messages
+   * @param alertTemplateProperties alert markup settings
+   * @param subscriptionRules subscription rules managed by commands
+   * @param meterRegistry registry for alert delivery metrics
    */
   @Autowired
   public TradingAlertBot(
-      TelegramBotProperties properties, EventSubscriptionManager eventSubscriptionManager) {
+      TelegramBotProperties properties,
+      EventSubscriptionManager eventSubscriptionManager,
+      OutboundScheduler outboundScheduler,
+      AlertTemplateProperties alertTemplateProperties,
+      SubscriptionRules subscriptionRules,
+      MeterRegistry meterRegistry) {
     this.properties = properties;
-    client = new OkHttpTelegramClient(properties.getToken());
-    this.commandHandlers = new HashMap<>();
+    this.subscriptionRules = subscriptionRules;
+    this.alertTemplateProperties = alertTemplateProperties;
+    this.outboundScheduler = outboundScheduler;
+    this.commandRouter = new CommandRouter(properties, meterRegistry);
     initializeCommandHandlers();
     this.eventSubscriptionManager = eventSubscriptionManager;
+    this.sentTimer = alertTimer("success", meterRegistry);
+    this.failedTimer = alertTimer("error", meterRegistry);
+    TimeGauge.builder(
+            "alerter.startup.first.alert",
+            firstAlertUptime,
+            TimeUnit.MILLISECONDS,
+            uptime -> uptime.get() < 0 ? Double.NaN : uptime.get())
+        .description("Time from JVM start to delivery of the first alert")
+        .register(meterRegistry);
+  }
+
+  private static Timer alertTimer(String outcome, MeterRegistry meterRegistry) {
+    return Timer.builder("alerter.telegram.alert")
+        .description("Time from alert submission to delivery, including rate limit wait")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
   }
 
   private void initializeCommandHandlers() {
-    commandHandlers.put("/getchatid", this::handleGetChatIdCommand);
-    commandHandlers.put("/unsubscribe_action_events", this::handleUnsubscribeActionEventsCommand);
-    commandHandlers.put("/subscribe_action_events", this::handleSubscribeActionEventsCommand);
-    commandHandlers.put("/menu", this::showMenu);
-
-    // Button text handlers (exact matches)
-    commandHandlers.put(GET_CHAT_ID_BUTTON, this::handleGetChatIdCommand);
-    commandHandlers.put(
+    commandRouter.register("/getchatid", this::handleGetChatIdCommand);
+    commandRouter.register(
+        "/unsubscribe_action_events", this::handleUnsubscribeActionEventsCommand);
+    commandRouter.register("/subscribe_action_events", this::handleSubscribeActionEventsCommand);
+    commandRouter.register("/menu", this::showMenu);
+    commandRouter.register("/mute_strategy", command -> handleStrategyRuleCommand(command, true));
+    commandRouter.register(
+        "/unmute_strategy", command -> handleStrategyRuleCommand(command, false));
+    commandRouter.register("/mute_symbol", command -> handleSymbolRuleCommand(command, true));
+    commandRouter.register("/unmute_symbol", command -> handleSymbolRuleCommand(command, false));
+    commandRouter.register("/min_pnl", this::handleMinPnlCommand);
+    commandRouter.register("/rules", this::handleRulesCommand);
+    commandRouter.register("/clear_rules", this::handleClearRulesCommand);
+
+    // Button text handlers
+    commandRouter.register(GET_CHAT_ID_BUTTON, this::handleGetChatIdCommand);
+    commandRouter.register(
         SUBSCRIBE_TO_ACTION_EVENTS_BUTTON, this::handleSubscribeActionEventsCommand);
-    commandHandlers.put(
+    commandRouter.register(
         UNSUBSCRIBE_FROM_ACTION_EVENTS_BUTTON, this::handleUnsubscribeActionEventsCommand);
   }
 
@@ -73,7 +124,6 @@ public class TradingAlertBot implements AlertBot, SpringLongPollingBot {
    * @return validated bot token
    * @throws FailBotStartingException if token is empty
    */
-  @Override
   public String getBotToken() {
     String token = properties.getToken();
     if (token == null || token.isEmpty()) {
@@ -83,30 +133,20 @@ public class TradingAlertBot implements AlertBot, SpringLongPollingBot {
     return token;
   }
 
-  /** GetUpdatesConsumer realized. */
-  @Override
-  public LongPollingUpdateConsumer getUpdatesConsumer() {
-    return updates -> updates.forEach(this::processUpdate);
-  }
-
-  private void processUpdate(Update update) {
+  /**
+   * Handles incoming update, text messages are dispatched to command handlers.
+   *
+   * @param update Telegram update
+   */
+  public void processUpdate(Update update) {
     if (!update.hasMessage() || !update.getMessage().hasText()) {
       return;
     }
-    Message message = update.getMessage();
-    String text = message.getText();
-    Consumer<Message> handler = commandHandlers.get(text);
-    if (handler != null) {
-      handler.accept(message);
-      return;
-    }
-    commandHandlers.entrySet().stream()
-        .filter(entry -> text.startsWith(entry.getKey()))
-        .findFirst()
-        .ifPresent(entry -> entry.getValue().accept(message));
+    commandRouter.route(update.getMessage());
   }
 
-  private void handleGetChatIdCommand(Message message) {
+  private void handleGetChatIdCommand(CommandRouter.Command command) {
+    Message message = command.message();
     Long chatId = message.getChatId();
     try {
       sendMessage(message.getChatId(), "Your Chat ID: " + message.getChatId());
@@ -116,11 +156,12 @@ public class TradingAlertBot implements AlertBot, SpringLongPollingBot {
     }
   }
 
-  private void handleUnsubscribeActionEventsCommand(Message message) {
+  private void handleUnsubscribeActionEventsCommand(CommandRouter.Command command) {
+    Message message = command.message();
     Long chatId = message.getChatId();
     try {
       log.debug("Unsubscribe action events for chatId: {}", chatId);
-      eventSubscriptionManager.unsubscribe(chatId.toString(), EventType.ACTION);
+      eventSubscriptionManager.unsubscribe(chatId, EventType.ACTION);
       sendMessage(message.getChatId(), "Unsubscribed from ACTION events");
       log.debug("Action events unsubscribed for chatId: {}", chatId);
     } catch (Exception e) {
@@ -128,11 +169,12 @@ public class TradingAlertBot implements AlertBot, SpringLongPollingBot {
     }
   }
 
-  private void handleSubscribeActionEventsCommand(Message message) {
+  private void handleSubscribeActionEventsCommand(CommandRouter.Command command) {
+    Message message = command.message();
     Long chatId = message.getChatId();
     try {
       log.debug("Subscribe action events for chatId: {}", chatId);
-      eventSubscriptionManager.subscribe(chatId.toString(), EventType.ACTION);
+      eventSubscriptionManager.subscribe(chatId, EventType.ACTION);
       sendMessage(message.getChatId(), "Subscribed to ACTION events");
       log.debug("Action events subscribed for chatId: {}", chatId);
     } catch (Exception e) {
@@ -140,80 +182,222 @@ public class TradingAlertBot implements AlertBot, SpringLongPollingBot {
     }
   }
 
-  private void showMenu(Message message) {
+  private void handleStrategyRuleCommand(CommandRouter.Command command, boolean mute) {
+    Message message = command.message();
+    List<String> args = command.args();
+    try {
+      if (args.isEmpty() || args.size() > 2) {
+        throw new IllegalArgumentException("expected strategy ID and optional event type");
+      }
+      SubscriptionRule rule =
+          SubscriptionRule.muteStrategy(Long.parseLong(args.get(0)), eventTypeArg(args, 1));
+      changeRule(message, rule, mute);
+    } catch (IllegalArgumentException e) {
+      sendMessage(
+          message.getChatId(),
+          "Usage: " + command.name() + " <strategyId> [ACTION|ORDER|ERROR], " + e.getMessage());
+    }
+  }
+
+  private void handleSymbolRuleCommand(CommandRouter.Command command, boolean mute) {
+    Message message = command.message();
+    List<String> args = command.args();
     try {
-      // Create keyboard rows
-      List<KeyboardRow> keyboard = new ArrayList<>();
-
-      // First row with two buttons
-      KeyboardRow row1 = new KeyboardRow();
-      row1.add(new KeyboardButton(GET_CHAT_ID_BUTTON));
-      row1.add(new KeyboardButton(SUBSCRIBE_TO_ACTION_EVENTS_BUTTON));
-      keyboard.add(row1);
-
-      // Second row with one button
-      KeyboardRow row2 = new KeyboardRow();
-      row2.add(new KeyboardButton(UNSUBSCRIBE_FROM_ACTION_EVENTS_BUTTON));
-      keyboard.add(row2);
-
-      // Create and configure keyboard markup
-      ReplyKeyboardMarkup menu =
-          ReplyKeyboardMarkup.builder()
-              .keyboard(keyboard)
-              .resizeKeyboard(true) // Make buttons smaller to fit
-              .oneTimeKeyboard(false) // Keep keyboard visible after use
-              .build();
-
-      // Create and send menu message
-      SendMessage menuMessage =
-          SendMessage.builder()
-              .chatId(message.getChatId().toString())
-              .text("Choose action:")
-              .replyMarkup(menu)
-              .build();
-
-      client.execute(menuMessage);
-    } catch (TelegramApiException e) {
-      log.error("Failed to show menu", e);
+      if (args.isEmpty() || args.size() > 2) {
+        throw new IllegalArgumentException("expected symbol and optional event type");
+      }
+      changeRule(message, SubscriptionRule.muteSymbol(args.get(0), eventTypeArg(args, 1)), mute);
+    } catch (IllegalArgumentException e) {
+      sendMessage(
+          message.getChatId(),
+          "Usage: " + command.name() + " <symbol> [ACTION|ORDER|ERROR], " + e.getMessage());
     }
   }
 
+  private void handleMinPnlCommand(CommandRouter.Command command) {
+    Message message = command.message();
+    String chatId = message.getChatId().toString();
+    List<String> args = command.args();
+    try {
+      if (args.size() != 1) {
+        throw new IllegalArgumentException("expected threshold");
+      }
+      SubscriptionRule rule =
+          "off".equalsIgnoreCase(args.get(0))
+              ? null
+              : SubscriptionRule.minPnl(new BigDecimal(args.get(0)), EventType.ORDER);
+      subscriptionRules.replaceAll(chatId, SubscriptionRule.Kind.MIN_PNL, rule);
+      if (rule == null) {
+        sendMessage(message.getChatId(), "Min PnL filter removed");
+      } else {
+        sendMessage(message.getChatId(), "Added rule: " + rule.describe());
+      }
+    } catch (IllegalArgumentException e) {
+      sendMessage(message.getChatId(), "Usage: /min_pnl <value>|off, " + e.getMessage());
+    }
+  }
+
+  private void handleRulesCommand(CommandRouter.Command command) {
+    Message message = command.message();
+    List<SubscriptionRule> rules = subscriptionRules.getRules(message.getChatId().toString());
+    if (rules.isEmpty()) {
+      sendMessage(message.getChatId(), "No rules");
+      return;
+    }
+    StringBuilder sb = new StringBuilder("Rules:");
+    rules.forEach(rule -> sb.append("\n- ").append(rule.describe()));
+    sendMessage(message.getChatId(), sb.toString());
+  }
+
+  private void handleClearRulesCommand(CommandRouter.Command command) {
+    Message message = command.message();
+    int removed = subscriptionRules.removeAll(message.getChatId().toString(), null);
+    sendMessage(message.getChatId(), "Removed rules: " + removed);
+  }
+
+  private void changeRule(Message message, SubscriptionRule rule, boolean add) {
+    String chatId = message.getChatId().toString();
+    log.debug("Change rule: {}, add: {}, chatId: {}", rule, add, chatId);
+    if (add) {
+      boolean added = subscriptionRules.add(chatId, rule);
+      sendMessage(chatId, (added ? "Added rule: " : "Rule already exists: ") + rule.describe());
+    } else {
+      boolean removed = subscriptionRules.remove(chatId, rule);
+      sendMessage(chatId, (removed ? "Removed rule: " : "No such rule: ") + rule.describe());
+    }
+  }
+
+  private static EventType eventTypeArg(List<String> args, int position) {
+    return args.size() > position ? EventType.valueOf(args.get(position).toUpperCase()) : null;
+  }
+
+  private void showMenu(CommandRouter.Command command) {
+    // Create keyboard rows
+    List<KeyboardRow> keyboard = new ArrayList<>();
+
+    // First row with two buttons
+    KeyboardRow row1 = new KeyboardRow();
+    row1.add(new KeyboardButton(GET_CHAT_ID_BUTTON));
+    row1.add(new KeyboardButton(SUBSCRIBE_TO_ACTION_EVENTS_BUTTON));
+    keyboard.add(row1);
+
+    // Second row with one button
+    KeyboardRow row2 = new KeyboardRow();
+    row2.add(new KeyboardButton(UNSUBSCRIBE_FROM_ACTION_EVENTS_BUTTON));
+    keyboard.add(row2);
+
+    // Create and configure keyboard markup
+    ReplyKeyboardMarkup menu =
+        ReplyKeyboardMarkup.builder()
+            .keyboard(keyboard)
+            .resizeKeyboard(true) // Make buttons smaller to fit
+            .oneTimeKeyboard(false) // Keep keyboard visible after use
+            .build();
+
+    // Send menu message
+    sendMessage(command.message().getChatId(), "Choose action:", menu);
+  }
+
   /**
-   * Sends alert message to configured chat.
+   * Sends alert message to configured chat. Waits until outbound scheduler delivers message within
+   * Telegram rate limits.
    *
    * @param message text to send
    */
   @Override
   public void alert(String message, String chatId) throws TelegramApiException {
     try {
-      log.debug("Sending alert message: {}, to chatId: {}", message, chatId);
-      client.execute(createSendMessage(message, chatId));
-    } catch (TelegramApiException exception) {
-      log.error(exception.getMessage());
+      alertAsync(message, chatId).join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof TelegramApiException telegramApiException) {
+        throw telegramApiException;
+      }
       throw exception;
     }
   }
 
+  /**
+   * Queues alert message to configured chat.
+   *
+   * @param message text to send
+   * @param chatId target chat
+   * @return future completed when message is sent
+   */
+  @Override
+  public CompletableFuture<Void> alertAsync(String message, String chatId) {
+    return alertAsync(message, chatId, false);
+  }
+
+  /**
+   * Queues alert message to configured chat.
+   *
+   * @param message text to send
+   * @param chatId target chat
+   * @param urgent whether message is sent ahead of queued normal messages
+   * @return future completed when message is sent
+   */
+  @Override
+  public CompletableFuture<Void> alertAsync(String message, String chatId, boolean urgent) {
+    log.debug("Sending alert message: {}, to chatId: {}, urgent: {}", message, chatId, urgent);
+    long start = System.nanoTime();
+    return outboundScheduler
+        .submit(createSendMessage(message, chatId), urgent)
+        .whenComplete(
+            (v, e) -> {
+              long elapsed = System.nanoTime() - start;
+              if (e != null) {
+                failedTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                log.error(e.getMessage());
+              } else {
+                sentTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                recordFirstAlert();
+              }
+            });
+  }
+
+  private void recordFirstAlert() {
+    if (firstAlertUptime.get() >= 0) {
+      return;
+    }
+    long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+    if (firstAlertUptime.compareAndSet(-1, uptime)) {
+      log.info("First alert delivered {} ms after JVM start", uptime);
+    }
+  }
+
   private SendMessage createSendMessage(String message, String chatId) {
-    return SendMessage.builder().chatId(chatId).text(message).build();
+    return SendMessage.builder()
+        .chatId(chatId)
+        .text(message)
+        .parseMode(alertTemplateProperties.getMarkup().getParseMode())
+        .build();
   }
 
   private void sendMessage(Long chatId, String text) {
+    sendMessage(chatId.toString(), text, null);
+  }
+
+  private void sendMessage(String chatId, String text) {
     sendMessage(chatId, text, null);
   }
 
   private void sendMessage(Long chatId, String text, ReplyKeyboardMarkup keyboard) {
-    try {
-      SendMessage.SendMessageBuilder builder =
-          SendMessage.builder().chatId(chatId.toString()).text(text);
+    sendMessage(chatId.toString(), text, keyboard);
+  }
 
-      if (keyboard != null) {
-        builder.replyMarkup(keyboard);
-      }
+  private void sendMessage(String chatId, String text, ReplyKeyboardMarkup keyboard) {
+    SendMessage.SendMessageBuilder builder = SendMessage.builder().chatId(chatId).text(text);
 
-      client.execute(builder.build());
-    } catch (TelegramApiException e) {
-      log.error("Message send failed", e);
+    if (keyboard != null) {
+      builder.replyMarkup(keyboard);
     }
+
+    outboundScheduler
+        .submit(builder.build())
+        .exceptionally(
+            e -> {
+              log.error("Message send failed", e);
+              return null;
+            });
   }
 }
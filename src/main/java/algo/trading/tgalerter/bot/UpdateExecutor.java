@@ -0,0 +1,123 @@
+package algo.trading.tgalerter.bot;
+
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.util.ThreadUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Handles incoming updates on a thread pool. Updates of different chats are handled in parallel,
+ * updates of one chat are handled one at a time in arrival order. The number of waiting updates is
+ * bounded.
+ */
+@Slf4j
+@Component
+public class UpdateExecutor {
+  private final TradingAlertBot tradingAlertBot;
+  private final ExecutorService executor;
+  private final Semaphore capacity;
+  private final int queueCapacity;
+  private final Map<Long, CompletableFuture<Void>> lastUpdates = new ConcurrentHashMap<>();
+
+  /**
+   * Creates executor and its threads.
+   *
+   * @param tradingAlertBot bot handling updates
+   * @param properties bot configuration with update handling settings
+   * @param environment used to decide whether virtual threads are enabled
+   * @param meterRegistry registry for queue metrics
+   */
+  public UpdateExecutor(
+      TradingAlertBot tradingAlertBot,
+      TelegramBotProperties properties,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    this.tradingAlertBot = tradingAlertBot;
+    this.queueCapacity = properties.getUpdates().getQueueCapacity();
+    this.capacity = new Semaphore(queueCapacity);
+    this.executor =
+        Executors.newFixedThreadPool(
+            properties.getUpdates().getThreads(),
+            ThreadUtil.threadFactory(environment, "telegram-update-"));
+    Gauge.builder("alerter.telegram.updates.pending", this, UpdateExecutor::pending)
+        .description("Updates waiting for handling")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Queues update, waits while queue is full.
+   *
+   * @param update Telegram update
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void submit(Update update) throws InterruptedException {
+    capacity.acquire();
+    enqueue(update);
+  }
+
+  /**
+   * Queues update if queue has space.
+   *
+   * @param update Telegram update
+   * @return false if queue is full
+   */
+  public boolean trySubmit(Update update) {
+    if (!capacity.tryAcquire()) {
+      return false;
+    }
+    enqueue(update);
+    return true;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void enqueue(Update update) {
+    Long chatId = update.hasMessage() ? update.getMessage().getChatId() : null;
+    if (chatId == null) {
+      CompletableFuture.runAsync(() -> handle(update), executor);
+      return;
+    }
+    CompletableFuture<Void> handled =
+        lastUpdates.compute(
+            chatId,
+            (id, previous) ->
+                previous == null
+                    ? CompletableFuture.runAsync(() -> handle(update), executor)
+                    : previous.thenRunAsync(() -> handle(update), executor));
+    handled.whenComplete((v, e) -> lastUpdates.remove(chatId, handled));
+  }
+
+  private void handle(Update update) {
+    try {
+      tradingAlertBot.processUpdate(update);
+    } catch (Exception e) {
+      log.error("Update handling failed: {}", update.getUpdateId(), e);
+    } finally {
+      capacity.release();
+    }
+  }
+
+  private int pending() {
+    return queueCapacity - capacity.availablePermits();
+  }
+}
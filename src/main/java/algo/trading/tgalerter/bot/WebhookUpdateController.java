@@ -0,0 +1,163 @@
+package algo.trading.tgalerter.bot;
+
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.exceptions.FailBotStartingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+/**
+ * Receives updates posted by Bot API to webhook. Secret token is required, requests without it are
+ * rejected, redelivered updates are dropped by update_id. Updates are handled by {@link
+ * UpdateExecutor}, when its queue is full the update is answered with 503 and Bot API delivers it
+ * again later.
+ * Can be tried locally by posting an Update JSON to the webhook path.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(value = "telegram.bot.update-mode", havingValue = "webhook")
+public class WebhookUpdateController {
+  /** Header carrying secret token set with setWebhook. */
+  public static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+  private static final String UPDATES_METRIC = "alerter.telegram.updates";
+  private static final Object SEEN = new Object();
+
+  private final UpdateExecutor updateExecutor;
+  private final TelegramClient telegramClient;
+  private final TelegramBotProperties.Webhook properties;
+  private final byte[] secretToken;
+  private final Map<Integer, Object> seenUpdates;
+  private final Counter unauthorizedCounter;
+  private final Counter duplicateCounter;
+  private final Counter rejectedCounter;
+  private final Counter acceptedCounter;
+
+  /**
+   * Creates controller.
+   *
+   * @param updateExecutor executor handling updates
+   * @param telegramClient client used to register webhook, created when application is ready
+   * @param properties bot configuration with webhook settings
+   * @param meterRegistry registry for update metrics
+   * @throws FailBotStartingException if secret token is not set
+   */
+  public WebhookUpdateController(
+      UpdateExecutor updateExecutor,
+      @Lazy TelegramClient telegramClient,
+      TelegramBotProperties properties,
+      MeterRegistry meterRegistry) {
+    this.updateExecutor = updateExecutor;
+    this.telegramClient = telegramClient;
+    this.properties = properties.getWebhook();
+    String secret = this.properties.getSecretToken();
+    if (secret == null || secret.isEmpty()) {
+      // webhook path is public, without secret anyone could post updates as any user
+      throw new FailBotStartingException("Webhook secret token is empty");
+    }
+    this.secretToken = secret.getBytes(StandardCharsets.UTF_8);
+    int deduplicationSize = this.properties.getDeduplicationSize();
+    this.seenUpdates =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, Object> eldest) {
+            return size() > deduplicationSize;
+          }
+        };
+    this.unauthorizedCounter = updatesCounter("unauthorized", meterRegistry);
+    this.duplicateCounter = updatesCounter("duplicate", meterRegistry);
+    this.rejectedCounter = updatesCounter("rejected", meterRegistry);
+    this.acceptedCounter = updatesCounter("accepted", meterRegistry);
+  }
+
+  /**
+   * Accepts update posted by Bot API.
+   *
+   * @param secret secret token header
+   * @param update Telegram update
+   * @return 200 if update was accepted or already seen, 401 for wrong secret, 503 when overloaded
+   */
+  @PostMapping("${telegram.bot.webhook.path:/telegram/webhook}")
+  public ResponseEntity<Void> onUpdate(
+      @RequestHeader(value = SECRET_TOKEN_HEADER, required = false) String secret,
+      @RequestBody Update update) {
+    if (!isAuthorized(secret)) {
+      unauthorizedCounter.increment();
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    Integer updateId = update.getUpdateId();
+    if (updateId != null && !markSeen(updateId)) {
+      log.debug("Drop duplicate update: {}", updateId);
+      duplicateCounter.increment();
+      return ResponseEntity.ok().build();
+    }
+    if (!updateExecutor.trySubmit(update)) {
+      if (updateId != null) {
+        forget(updateId);
+      }
+      rejectedCounter.increment();
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+    acceptedCounter.increment();
+    return ResponseEntity.ok().build();
+  }
+
+  /** Registers webhook with Bot API when public url is configured. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void registerWebhook() {
+    if (properties.getUrl() == null || properties.getUrl().isEmpty()) {
+      log.info("Webhook url is not set, webhook has to be registered manually");
+      return;
+    }
+    String url = properties.getUrl() + properties.getPath();
+    try {
+      telegramClient.execute(
+          SetWebhook.builder().url(url).secretToken(properties.getSecretToken()).build());
+      log.info("Registered webhook: {}", url);
+    } catch (TelegramApiException e) {
+      log.error("Webhook registration failed: {}", url, e);
+    }
+  }
+
+  private boolean isAuthorized(String secret) {
+    return secret != null
+        && MessageDigest.isEqual(secretToken, secret.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private boolean markSeen(Integer updateId) {
+    synchronized (seenUpdates) {
+      return seenUpdates.put(updateId, SEEN) == null;
+    }
+  }
+
+  private void forget(Integer updateId) {
+    synchronized (seenUpdates) {
+      seenUpdates.remove(updateId);
+    }
+  }
+
+  private static Counter updatesCounter(String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder(UPDATES_METRIC)
+        .description("Updates posted to webhook")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
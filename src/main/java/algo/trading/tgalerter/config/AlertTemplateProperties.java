@@ -0,0 +1,29 @@
+package algo.trading.tgalerter.config;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.tgalerter.template.Markup;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for alert message templates. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "alert")
+public class AlertTemplateProperties {
+  /** Markup of rendered messages, template values are escaped accordingly. */
+  private Markup markup = Markup.NONE;
+
+  /** Template for event types without own template, built-in default if empty. */
+  private String eventTemplate;
+
+  /** Templates per event type. */
+  private Map<EventType, String> eventTemplates = new HashMap<>();
+
+  /** Template for error reports, built-in default if empty. */
+  private String errorTemplate;
+}
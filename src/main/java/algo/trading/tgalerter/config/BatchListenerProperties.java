@@ -0,0 +1,43 @@
+package algo.trading.tgalerter.config;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for batch consumption of strategy events. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "listener.batch")
+public class BatchListenerProperties {
+  /** Whether strategy events are consumed in batches instead of one by one. */
+  private boolean enabled = false;
+
+  /** Max events in one batch. */
+  private int size = 100;
+
+  /** Time to wait for batch to fill up before an incomplete batch is processed. */
+  private Duration receiveTimeout = Duration.ofMillis(200);
+
+  /** Whether failed events are requeued, otherwise they are rejected after error report. */
+  private boolean requeueFailed = false;
+
+  /**
+   * Max redeliveries of a failed event when failed events are requeued, the event is rejected
+   * (dead-lettered if queue has dead letter exchange) after that. Counted by x-delivery-count of
+   * quorum queues, on classic queues failures are counted by the replica in a bounded cache.
+   */
+  private int maxRedeliveries = 3;
+
+  /** Max failed events of classic queues whose failures are counted, the oldest are evicted. */
+  private int redeliveryCacheSize = 10_000;
+
+  /**
+   * Max time to wait for events of a batch to be processed, extended by the time the rate limit
+   * of the busiest chat of the batch needs to send its alerts. Events not processed by then are
+   * handled as failed.
+   */
+  private Duration processingTimeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,23 @@
+package algo.trading.tgalerter.config;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for coalescing alerts of one chat into digest messages. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "coalescing")
+public class CoalescingProperties {
+  /** Whether alerts are buffered per chat and sent as digest. */
+  private boolean enabled = false;
+
+  /** Time window counted from the first buffered alert of a chat. */
+  private Duration window = Duration.ofMillis(2000);
+
+  /** Max alerts in one digest, full digest is sent before window ends. */
+  private int maxEvents = 20;
+}
@@ -0,0 +1,30 @@
+package algo.trading.tgalerter.config;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/** Configuration properties for dropping redelivered events before their alert is sent. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "deduplication")
+public class DeduplicationProperties {
+  /** Whether events already alerted within window are dropped. */
+  private boolean enabled = true;
+
+  /** How long fingerprint of alerted event is remembered. */
+  private Duration window = Duration.ofMinutes(10);
+
+  /** Number of window slices, the oldest slice is forgotten at once. */
+  private int slices = 10;
+
+  /**
+   * Memory for fingerprints, 16 bytes per remembered event. A slice that fills up ends early, so
+   * under heavy load window gets shorter instead of memory growing.
+   */
+  private DataSize memoryBudget = DataSize.ofMegabytes(2);
+}
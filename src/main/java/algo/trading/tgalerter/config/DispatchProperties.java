@@ -0,0 +1,32 @@
+package algo.trading.tgalerter.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for partitioned event dispatch. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "dispatch")
+public class DispatchProperties {
+  /** Number of partitions, events of one strategy always go to the same partition. */
+  private int partitions = 16;
+
+  /** Max events waiting in one partition before the consumer is blocked. */
+  private int queueCapacity = 100;
+
+  /**
+   * Whether partition workers run on virtual threads, requires Java 21 and is ignored on older
+   * JVMs. Only the dispatcher is affected, spring.threads.virtual.enabled would switch every Spring
+   * executor.
+   */
+  private boolean virtualThreads = false;
+
+  /**
+   * Max events parked while orchestrator circuit is open, parked events stay unacknowledged and
+   * are processed again once the circuit closes. Capped at half of the listener prefetch.
+   */
+  private int parkingCapacity = 100;
+}
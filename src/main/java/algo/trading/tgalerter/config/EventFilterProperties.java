@@ -0,0 +1,36 @@
+package algo.trading.tgalerter.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for dropping TICK events before deserialization. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "listener.filter")
+public class EventFilterProperties {
+  /** AMQP header carrying event type name, checked first. */
+  private String typeHeader = "eventType";
+
+  /** AMQP header carrying strategy id, checked before the body when routing to partitions. */
+  private String strategyIdHeader = "strategyId";
+
+  /** Whether the last dot separated segment of routing key is event type name. */
+  private boolean typeInRoutingKey = false;
+
+  /** Broker side filtering. */
+  private Binding binding = new Binding();
+
+  /** Nested config for headers exchange binding that lets only non TICK events into queue. */
+  @Data
+  @NoArgsConstructor
+  public static class Binding {
+    /** Whether exchange and bindings are declared on startup. */
+    private boolean enabled = false;
+
+    /** Headers exchange events are published to, matched on type header. */
+    private String exchange;
+  }
+}
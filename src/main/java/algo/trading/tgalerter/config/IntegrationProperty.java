@@ -1,5 +1,6 @@
 package algo.trading.tgalerter.config;
 
+import java.time.Duration;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -19,5 +20,119 @@ public class IntegrationProperty {
   @NoArgsConstructor
   public static class Orchestrator {
     private String url;
+    private Cache cache = new Cache();
+    private Batch batch = new Batch();
+    private Http http = new Http();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+  }
+
+  /** Nested config for StrategyInfo cache. */
+  @Data
+  @NoArgsConstructor
+  public static class Cache {
+    /** Max number of cached strategies. */
+    private long maximumSize = 10_000;
+
+    /** Entry lifetime after load, expired entries are loaded synchronously. */
+    private Duration expireAfterWrite = Duration.ofMinutes(30);
+
+    /** Entry age after which it is reloaded in background on next access. */
+    private Duration refreshAfterWrite = Duration.ofMinutes(5);
+
+    /** Max number of strategies in strategyId to chatId routing index. */
+    private long routingMaximumSize = 100_000;
+
+    /**
+     * Lifetime of routing index entry after the strategy was loaded. Entries older than
+     * expireAfterWrite are not used for routing, only as stale fallback while orchestrator is
+     * unavailable.
+     */
+    private Duration routingExpireAfterWrite = Duration.ofHours(6);
+
+    /** Invalidation of cached strategies on change notifications. */
+    private Invalidation invalidation = new Invalidation();
+  }
+
+  /** Nested config for change notifications of strategies. */
+  @Data
+  @NoArgsConstructor
+  public static class Invalidation {
+    /** Whether change notifications are consumed. */
+    private boolean enabled = false;
+
+    /**
+     * Fanout exchange orchestrator publishes changed strategies to, every replica binds its own
+     * queue.
+     */
+    private String exchange;
+  }
+
+  /** Nested config for batching of StrategyInfo requests. */
+  @Data
+  @NoArgsConstructor
+  public static class Batch {
+    /** Whether concurrent lookups are collected and resolved with bulk requests. */
+    private boolean enabled = true;
+
+    /** Time lookups are collected for, counted from the first one. */
+    private Duration window = Duration.ofMillis(5);
+
+    /** Max strategies in one bulk request, full batch is sent before window ends. */
+    private int maxSize = 100;
+
+    /** Time bulk endpoint is not called after it turned out to be unavailable. */
+    private Duration bulkRetryAfter = Duration.ofMinutes(10);
+
+    /** Threads sending lookup requests, bounds concurrent orchestrator requests of batches. */
+    private int threads = 16;
+  }
+
+  /** Nested config for HTTP client of Orchestrator service. */
+  @Data
+  @NoArgsConstructor
+  public static class Http {
+    /** Timeout of establishing connection. */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /** Timeout of waiting for response data. */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /** Timeout of waiting for free pooled connection. */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    /** Max pooled connections. */
+    private int maxConnections = 50;
+
+    /** Max pooled connections to one host. */
+    private int maxConnectionsPerRoute = 20;
+
+    /** Time after which idle pooled connections are closed. */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+  }
+
+  /** Nested config for circuit breaker and bulkhead around Orchestrator calls. */
+  @Data
+  @NoArgsConstructor
+  public static class CircuitBreaker {
+    /** Whether failing orchestrator calls open the circuit. */
+    private boolean enabled = true;
+
+    /** Percentage of failed calls in the sliding window opening the circuit. */
+    private int failureRateThreshold = 50;
+
+    /** Number of last calls failure rate is calculated over. */
+    private int slidingWindowSize = 20;
+
+    /** Calls needed in the window before failure rate is evaluated. */
+    private int minimumCalls = 10;
+
+    /** Time calls are rejected after circuit was opened. */
+    private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+    /** Trial calls allowed in half-open state, all have to succeed to close the circuit. */
+    private int permittedCallsInHalfOpenState = 3;
+
+    /** Max concurrent calls, further calls are rejected right away. */
+    private int maxConcurrentCalls = 16;
   }
 }
@@ -0,0 +1,64 @@
+package algo.trading.tgalerter.config;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for partitioned deployment, where several replicas share event
+ * processing. Events are forwarded from the strategy event queue to partition queues by strategyId,
+ * every partition is consumed by one replica at a time.
+ */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "partitioning")
+public class PartitioningProperties {
+  /** Whether partitioned mode is enabled. */
+  private boolean enabled = false;
+
+  /** Number of partition queues, must be the same on all replicas. */
+  private int partitions = 8;
+
+  /** Id of this replica, random if empty. */
+  private String memberId;
+
+  /** Direct exchange partition queues are bound to by partition number. */
+  private String exchange;
+
+  /** Partition queue name prefix, queue of partition N is named prefix.N. */
+  private String queuePrefix;
+
+  /** Fanout exchange replicas announce themselves to. */
+  private String membershipExchange;
+
+  /** Fanout exchange subscription changes are replicated through. */
+  private String subscriptionsExchange;
+
+  /** Interval of replica heartbeats. */
+  private Duration heartbeatInterval = Duration.ofSeconds(2);
+
+  /** Time without heartbeat after which replica is considered gone and its partitions move. */
+  private Duration memberTimeout = Duration.ofSeconds(6);
+
+  /**
+   * Max time to wait for events of a released partition to be processed before its consumer is
+   * cancelled, events still in flight then are redelivered to the new owner.
+   */
+  private Duration drainTimeout = Duration.ofSeconds(30);
+
+  /** Max events forwarded to partition queues in one transaction. */
+  private int forwarderBatchSize = 100;
+
+  /**
+   * Returns name of partition queue.
+   *
+   * @param partition partition number
+   * @return queue name
+   */
+  public String queueName(int partition) {
+    return queuePrefix + "." + partition;
+  }
+}
@@ -0,0 +1,56 @@
+package algo.trading.tgalerter.config;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyState;
+import java.util.EnumSet;
+import java.util.Set;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for processing critical events ahead of routine ones. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "priority")
+public class PriorityProperties {
+  /** Whether high priority events overtake normal ones. */
+  private boolean enabled = true;
+
+  /** Event types of high priority. */
+  private Set<EventType> types = EnumSet.of(EventType.ERROR);
+
+  /** Strategy states of high priority, regardless of event type. */
+  private Set<StrategyState> states = EnumSet.of(StrategyState.OPEN_ERROR, StrategyState.ERROR);
+
+  /** Max high priority events waiting in one dispatch partition. */
+  private int queueCapacity = 100;
+
+  /**
+   * Outbound queue slots reserved for high priority alerts, they are rejected only when the queue
+   * already holds telegram.bot.rate-limit.queue-capacity plus this many messages.
+   */
+  private int outboundReserve = 1_000;
+
+  /** Dedicated broker queue for high priority events. */
+  private Queue queue = new Queue();
+
+  /**
+   * Nested config for queue consumed by its own listener, so high priority events are not stuck
+   * behind the backlog of the strategy event queue.
+   */
+  @Data
+  @NoArgsConstructor
+  public static class Queue {
+    /**
+     * Whether queue is declared and consumed. With listener.filter.binding enabled high priority
+     * types are bound to this queue instead of the strategy event queue. Ignored in partitioned
+     * mode, where high priority events take the priority lane of partition dispatch only.
+     */
+    private boolean enabled = false;
+
+    /** Queue name. */
+    private String name;
+  }
+}
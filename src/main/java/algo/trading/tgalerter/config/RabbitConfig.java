@@ -1,7 +1,26 @@
 package algo.trading.tgalerter.config;
 
+import algo.trading.common.dto.EventType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.HeadersExchange;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,10 +28,130 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @EnableRabbit
 public class RabbitConfig {
+  /** Name of container factory used by batch listener. */
+  public static final String BATCH_CONTAINER_FACTORY = "batchListenerContainerFactory";
+
+  /** Name of container factory used by partition forwarder. */
+  public static final String FORWARDER_CONTAINER_FACTORY = "forwarderListenerContainerFactory";
+
+  private static final String SINGLE_ACTIVE_CONSUMER = "x-single-active-consumer";
+
+  /**
+   * Declare headers exchange bound to strategy event queue for every event type except TICK, so
+   * TICK events published to this exchange never reach the queue. High priority types are bound to
+   * the priority queue instead when it is enabled, except in partitioned mode where only the
+   * strategy event queue is forwarded to partitions.
+   */
+  @Bean
+  @ConditionalOnProperty(value = "listener.filter.binding.enabled", havingValue = "true")
+  public Declarables eventFilterBindings(
+      EventFilterProperties properties,
+      PriorityProperties priorityProperties,
+      PartitioningProperties partitioningProperties,
+      @Value("${stage}_alert_event_q") String queue) {
+    HeadersExchange exchange = new HeadersExchange(properties.getBinding().getExchange());
+    boolean priorityQueue =
+        priorityProperties.isEnabled()
+            && priorityProperties.getQueue().isEnabled()
+            && !partitioningProperties.isEnabled();
+    List<Declarable> declarables = new ArrayList<>();
+    declarables.add(exchange);
+    for (EventType type : EventType.values()) {
+      if (type != EventType.TICK) {
+        String target =
+            priorityQueue && priorityProperties.getTypes().contains(type)
+                ? priorityProperties.getQueue().getName()
+                : queue;
+        declarables.add(
+            BindingBuilder.bind(new Queue(target))
+                .to(exchange)
+                .where(properties.getTypeHeader())
+                .matches(type.name()));
+      }
+    }
+    return new Declarables(declarables);
+  }
+
+  /** Declare queue for high priority events, not consumed in partitioned mode. */
+  @Bean
+  @ConditionalOnExpression("${priority.queue.enabled:false} && !${partitioning.enabled:false}")
+  public Queue priorityEventQueue(PriorityProperties properties) {
+    return new Queue(properties.getQueue().getName());
+  }
+
+  /**
+   * Declare partition queues with single active consumer bound to partition exchange by partition
+   * number, and fanout exchanges for replica heartbeats and subscription changes.
+   */
+  @Bean
+  @ConditionalOnProperty(value = "partitioning.enabled", havingValue = "true")
+  public Declarables partitionDeclarables(PartitioningProperties properties) {
+    DirectExchange exchange = new DirectExchange(properties.getExchange());
+    List<Declarable> declarables = new ArrayList<>();
+    declarables.add(exchange);
+    declarables.add(new FanoutExchange(properties.getMembershipExchange()));
+    declarables.add(new FanoutExchange(properties.getSubscriptionsExchange()));
+    for (int i = 0; i < properties.getPartitions(); i++) {
+      Queue queue =
+          new Queue(
+              properties.queueName(i), true, false, false, Map.of(SINGLE_ACTIVE_CONSUMER, true));
+      declarables.add(queue);
+      declarables.add(BindingBuilder.bind(queue).to(exchange).with(Integer.toString(i)));
+    }
+    return new Declarables(declarables);
+  }
+
+  /**
+   * Create container factory for partition forwarder. Batches are consumed and forwarded in one
+   * channel transaction, so a batch is acked only together with its forwarded copies.
+   */
+  @Bean(name = FORWARDER_CONTAINER_FACTORY)
+  @ConditionalOnProperty(value = "partitioning.enabled", havingValue = "true")
+  public SimpleRabbitListenerContainerFactory forwarderListenerContainerFactory(
+      SimpleRabbitListenerContainerFactoryConfigurer configurer,
+      ConnectionFactory connectionFactory,
+      RabbitProperties rabbitProperties,
+      PartitioningProperties properties) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    configurer.configure(factory, connectionFactory);
+    factory.setBatchListener(true);
+    factory.setConsumerBatchEnabled(true);
+    factory.setBatchSize(properties.getForwarderBatchSize());
+    factory.setReceiveTimeout(100L);
+    factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+    factory.setChannelTransacted(true);
+    Integer prefetch = rabbitProperties.getListener().getSimple().getPrefetch();
+    factory.setPrefetchCount(
+        Math.max(prefetch == null ? 0 : prefetch, properties.getForwarderBatchSize()));
+    return factory;
+  }
 
   /** Create bean Jackson2JsonMessageConverter. */
   @Bean
   public Jackson2JsonMessageConverter converter() {
     return new Jackson2JsonMessageConverter();
   }
+
+  /**
+   * Create container factory delivering batches of raw messages with manual acknowledgement.
+   * Prefetch is raised to batch size if configured lower.
+   */
+  @Bean(name = BATCH_CONTAINER_FACTORY)
+  @ConditionalOnProperty(value = "listener.batch.enabled", havingValue = "true")
+  public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+      SimpleRabbitListenerContainerFactoryConfigurer configurer,
+      ConnectionFactory connectionFactory,
+      RabbitProperties rabbitProperties,
+      BatchListenerProperties properties) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    configurer.configure(factory, connectionFactory);
+    factory.setBatchListener(true);
+    factory.setConsumerBatchEnabled(true);
+    factory.setBatchSize(properties.getSize());
+    factory.setReceiveTimeout(properties.getReceiveTimeout().toMillis());
+    factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+    Integer prefetch = rabbitProperties.getListener().getSimple().getPrefetch();
+    factory.setPrefetchCount(Math.max(prefetch == null ? 0 : prefetch, properties.getSize()));
+    return factory;
+  }
 }
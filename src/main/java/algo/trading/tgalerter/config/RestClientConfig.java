@@ -2,10 +2,17 @@ package algo.trading.tgalerter.config;
 
 import algo.trading.tgalerter.exceptions.IntegrationException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 /** Rest Client configuration class. */
@@ -16,11 +23,13 @@ public class RestClientConfig {
   /**
    * Configure Rest Client bean.
    *
+   * @param integrationProperty orchestrator HTTP client settings
    * @return Rest Client bean
    */
   @Bean
-  RestClient workerRestClient() {
+  RestClient workerRestClient(IntegrationProperty integrationProperty) {
     return RestClient.builder()
+        .requestFactory(requestFactory(integrationProperty.getOrchestrator().getHttp()))
         .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
         .defaultStatusHandler(
             response -> {
@@ -32,10 +41,44 @@ public class RestClientConfig {
                         + new String(response.getBody().readAllBytes());
 
                 log.error("Integration error occurred: {}", errorDetails);
-                throw new IntegrationException("Service integration error: " + errorDetails);
+                throw new IntegrationException(
+                    "Service integration error: " + errorDetails,
+                    response.getStatusCode().value());
               }
               return false;
             })
         .build();
   }
+
+  /**
+   * Creates request factory backed by pooled Apache HTTP client, so a hanging orchestrator can
+   * not hold a caller longer than the timeouts.
+   *
+   * @param http HTTP client settings
+   * @return request factory
+   */
+  HttpComponentsClientHttpRequestFactory requestFactory(IntegrationProperty.Http http) {
+    ConnectionConfig connectionConfig =
+        ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+            .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+            .build();
+    RequestConfig requestConfig =
+        RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(http.getConnectionRequestTimeout()))
+            .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+            .build();
+    return new HttpComponentsClientHttpRequestFactory(
+        HttpClients.custom()
+            .setConnectionManager(
+                PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(http.getMaxConnections())
+                    .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+                    .setDefaultConnectionConfig(connectionConfig)
+                    .build())
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(http.getIdleTimeout()))
+            .build());
+  }
 }
@@ -0,0 +1,48 @@
+package algo.trading.tgalerter.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for retrying of failed alert sends. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "retry")
+public class RetryQueueProperties {
+  /** Whether failed alerts are retried, otherwise the failure is reported to error chat. */
+  private boolean enabled = true;
+
+  /** Journal file of pending retries, on the persistent data volume by default. */
+  private Path path = Path.of("/data/alert-retry.log");
+
+  /** File receiving alerts that failed maxAttempts times. */
+  private Path deadLetterPath = Path.of("/data/alert-dead-letter.log");
+
+  /** Send attempts of one alert, including the first one, before it is dead-lettered. */
+  private int maxAttempts = 8;
+
+  /** Delay before the first retry, doubled on every further one. */
+  private Duration initialBackoff = Duration.ofSeconds(2);
+
+  /** Max delay between retries. */
+  private Duration maxBackoff = Duration.ofMinutes(5);
+
+  /** Share of delay randomly subtracted, so retries of many alerts do not come at once. */
+  private double jitter = 0.5;
+
+  /** Threads sending retries. */
+  private int workers = 2;
+
+  /** Max pending retries, further failed alerts are dead-lettered right away. */
+  private int capacity = 10_000;
+
+  /** Interval of writing changes to journal. */
+  private Duration flushInterval = Duration.ofSeconds(1);
+
+  /** Number of journal records after which journal is rewritten with pending retries only. */
+  private int compactAfter = 10_000;
+}
@@ -0,0 +1,36 @@
+package algo.trading.tgalerter.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for storage of event subscriptions. */
+@Data
+@Component
+@NoArgsConstructor
+@ConfigurationProperties(value = "subscriptions")
+public class SubscriptionStoreProperties {
+  /** Storage kind, memory loses subscriptions on restart. */
+  private Store store = Store.MEMORY;
+
+  /** Journal file of file store. */
+  private Path path = Path.of("data/subscriptions.log");
+
+  /** Subscription rules file of file store. */
+  private Path rulesPath = Path.of("data/subscription-rules.json");
+
+  /** Interval of writing changed subscriptions to journal. */
+  private Duration flushInterval = Duration.ofSeconds(1);
+
+  /** Number of journal records after which journal is rewritten with current state only. */
+  private int compactAfter = 10_000;
+
+  /** Subscription storage kinds. */
+  public enum Store {
+    MEMORY,
+    FILE
+  }
+}
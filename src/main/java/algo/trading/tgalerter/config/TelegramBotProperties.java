@@ -1,6 +1,8 @@
 package algo.trading.tgalerter.config;
 
+import java.time.Duration;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /** Telegram bot configuration properties. */
@@ -9,4 +11,114 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class TelegramBotProperties {
   private String token;
   private String errorChatId;
+
+  /** Bot API base url, may have a path of reverse proxy, can point to a fake endpoint in tests. */
+  private String apiUrl = "https://api.telegram.org";
+
+  /** Bot username, commands addressed to other bots with /command@username are ignored. */
+  private String username;
+
+  /** How updates are received from Bot API. */
+  private UpdateMode updateMode = UpdateMode.LONG_POLLING;
+
+  private Webhook webhook = new Webhook();
+
+  private Updates updates = new Updates();
+
+  private CommandRateLimit commandRateLimit = new CommandRateLimit();
+
+  private RateLimit rateLimit = new RateLimit();
+
+  private ErrorSuppression errorSuppression = new ErrorSuppression();
+
+  /** Ways of receiving updates, with NONE updates are not received and only alerts are sent. */
+  public enum UpdateMode {
+    LONG_POLLING,
+    WEBHOOK,
+    NONE
+  }
+
+  /** Nested config for webhook update mode. */
+  @Data
+  @NoArgsConstructor
+  public static class Webhook {
+    /** Public base url of the service registered with setWebhook, not registered if empty. */
+    private String url;
+
+    /** Path updates are posted to. */
+    private String path = "/telegram/webhook";
+
+    /** Secret expected in X-Telegram-Bot-Api-Secret-Token header, required in webhook mode. */
+    private String secretToken;
+
+    /** Number of last update ids remembered to drop redelivered updates. */
+    private int deduplicationSize = 10_000;
+  }
+
+  /** Nested config for update handling. */
+  @Data
+  @NoArgsConstructor
+  public static class Updates {
+    /** Threads handling updates, updates of one chat are handled in order. */
+    private int threads = 4;
+
+    /**
+     * Max updates waiting for handling. Long polling waits for free space, webhook answers 503.
+     */
+    private int queueCapacity = 1_000;
+  }
+
+  /** Nested config for per chat command throttling. */
+  @Data
+  @NoArgsConstructor
+  public static class CommandRateLimit {
+    /** Commands per second allowed for one chat. */
+    private double perChatPerSecond = 1;
+
+    /** Commands one chat can send at once after being idle. */
+    private int perChatBurst = 5;
+  }
+
+  /** Nested config for outbound rate limits. */
+  @Data
+  @NoArgsConstructor
+  public static class RateLimit {
+    /** Messages per second allowed for one chat. */
+    private double perChatPerSecond = 1;
+
+    /** Messages one chat may send at once after being idle. */
+    private int perChatBurst = 1;
+
+    /** Messages per second allowed for the whole bot. */
+    private double globalPerSecond = 30;
+
+    /** Messages the whole bot may send at once after being idle. */
+    private int globalBurst = 30;
+
+    /** Max requests sent to Bot API and not yet answered. */
+    private int maxInFlight = 32;
+
+    /** Max messages waiting to be sent, further submits wait for free space. */
+    private int queueCapacity = 10_000;
+
+    /** Max time a submit waits for free space in a full queue before the message is rejected. */
+    private Duration queueTimeout = Duration.ofSeconds(30);
+
+    /** Max resends of one message after 429 responses. */
+    private int maxRetries = 5;
+
+    /** Pause applied after 429 response without retry_after. */
+    private Duration defaultRetryAfter = Duration.ofSeconds(1);
+  }
+
+  /** Nested config for suppression of repeated error reports. */
+  @Data
+  @NoArgsConstructor
+  public static class ErrorSuppression {
+    /** Whether similar errors are reported once per window. */
+    private boolean enabled = true;
+
+    /** Window after first report of an error in which similar errors are only counted. */
+    private Duration window = Duration.ofSeconds(60);
+  }
 }
@@ -0,0 +1,62 @@
+package algo.trading.tgalerter.config;
+
+import java.net.URI;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
+import org.telegram.telegrambots.meta.TelegramUrl;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+/**
+ * Telegram client configuration class. Client is created lazily on first request, so building its
+ * HTTP client is not part of startup.
+ */
+@Configuration
+public class TelegramClientConfig {
+
+  /**
+   * Configure Telegram client bean. Path of api url, such as base path of a reverse proxied Bot
+   * API, is prepended to the path of every request.
+   *
+   * @param properties bot configuration (token, api url)
+   * @return Telegram client bean
+   */
+  @Bean
+  @Lazy
+  TelegramClient telegramClient(TelegramBotProperties properties) {
+    URI apiUri = URI.create(properties.getApiUrl());
+    int port = apiUri.getPort();
+    if (port == -1) {
+      port = "http".equals(apiUri.getScheme()) ? 80 : 443;
+    }
+    TelegramUrl telegramUrl =
+        TelegramUrl.builder().schema(apiUri.getScheme()).host(apiUri.getHost()).port(port).build();
+    OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
+    String basePath = basePath(apiUri);
+    if (!basePath.isEmpty()) {
+      httpClient.addInterceptor(basePathInterceptor(basePath));
+    }
+    return new OkHttpTelegramClient(httpClient.build(), properties.getToken(), telegramUrl);
+  }
+
+  private static String basePath(URI apiUri) {
+    String path = apiUri.getRawPath() == null ? "" : apiUri.getRawPath();
+    while (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+    return path;
+  }
+
+  private static Interceptor basePathInterceptor(String basePath) {
+    return chain -> {
+      HttpUrl url = chain.request().url();
+      HttpUrl.Builder prefixed = url.newBuilder().encodedPath(basePath);
+      url.encodedPathSegments().forEach(prefixed::addEncodedPathSegment);
+      return chain.proceed(chain.request().newBuilder().url(prefixed.build()).build());
+    };
+  }
+}
@@ -0,0 +1,256 @@
+package algo.trading.tgalerter.dispatch;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.DispatchProperties;
+import algo.trading.tgalerter.config.PriorityProperties;
+import algo.trading.tgalerter.exceptions.CoalescedSendException;
+import algo.trading.tgalerter.exceptions.OrchestratorUnavailableException;
+import algo.trading.tgalerter.integration.OrchestratorCircuitBreaker;
+import algo.trading.tgalerter.service.EventService;
+import algo.trading.tgalerter.service.HandleErrorsService;
+import algo.trading.tgalerter.service.PriorityClassifier;
+import algo.trading.tgalerter.util.ThreadUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans strategy events out to partition workers keyed by strategyId. Events of one strategy (and
+ * so of its chat) and of one priority are processed in order, different strategies are processed
+ * in parallel. High priority events are queued in a separate lane of the partition and taken
+ * first, so they may overtake earlier normal events of the same strategy. Events rejected
+ * because orchestrator circuit is open are parked unacknowledged and dispatched again once the
+ * circuit closes, or waitDurationInOpenState after it opened so they serve as trial calls. Parking
+ * is capped at half of the listener prefetch, so events not needing orchestrator keep flowing.
+ * Time from dispatch to delivery is timed in alerter.dispatch.latency by priority.
+ */
+@Slf4j
+@Component
+public class EventDispatcher {
+  private static final String THREAD_PREFIX = "dispatch-";
+
+  private final EventService eventService;
+  private final HandleErrorsService handleErrorsService;
+  private final PriorityClassifier priorityClassifier;
+  private final PartitionedExecutor executor;
+  private final OrchestratorCircuitBreaker circuitBreaker;
+  private final int parkingCapacity;
+  private final ArrayDeque<Parked> parked = new ArrayDeque<>();
+  private final ScheduledExecutorService replayer;
+  private final Timer highLatencyTimer;
+  private final Timer normalLatencyTimer;
+
+  /**
+   * Creates dispatcher and starts partition workers.
+   *
+   * @param eventService event processing service
+   * @param handleErrorsService error reporting service
+   * @param properties dispatch settings
+   * @param priorityClassifier classifier of high priority events
+   * @param priorityProperties priority lane settings
+   * @param circuitBreaker orchestrator circuit breaker, parked events are replayed when it closes
+   *     and when it is due for trial calls
+   * @param rabbitProperties listener prefetch, parking capacity is capped below it
+   * @param meterRegistry registry for parked events gauge and latency timers
+   */
+  public EventDispatcher(
+      EventService eventService,
+      HandleErrorsService handleErrorsService,
+      DispatchProperties properties,
+      PriorityClassifier priorityClassifier,
+      PriorityProperties priorityProperties,
+      OrchestratorCircuitBreaker circuitBreaker,
+      RabbitProperties rabbitProperties,
+      MeterRegistry meterRegistry) {
+    this.eventService = eventService;
+    this.handleErrorsService = handleErrorsService;
+    this.priorityClassifier = priorityClassifier;
+    this.circuitBreaker = circuitBreaker;
+    this.parkingCapacity =
+        parkingCapacity(
+            properties.getParkingCapacity(),
+            rabbitProperties.getListener().getSimple().getPrefetch());
+    this.executor =
+        new PartitionedExecutor(
+            properties.getPartitions(),
+            properties.getQueueCapacity(),
+            priorityProperties.getQueueCapacity(),
+            ThreadUtil.threadFactory(properties.isVirtualThreads(), THREAD_PREFIX));
+    this.replayer =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("dispatch-replay-"));
+    Gauge.builder("alerter.dispatch.parked", this, EventDispatcher::parkedEvents)
+        .description("Events waiting for orchestrator circuit to close")
+        .register(meterRegistry);
+    this.highLatencyTimer = latencyTimer(PriorityClassifier.HIGH, meterRegistry);
+    this.normalLatencyTimer = latencyTimer(PriorityClassifier.NORMAL, meterRegistry);
+    circuitBreaker.onStateChange(
+        state -> {
+          if (state == OrchestratorCircuitBreaker.State.CLOSED) {
+            replayer.execute(this::replayParked);
+          } else if (state == OrchestratorCircuitBreaker.State.OPEN) {
+            // nothing else calls orchestrator while events are parked, replay makes trial calls
+            replayer.schedule(
+                this::replayParked,
+                circuitBreaker.getWaitDurationInOpenState().toMillis(),
+                TimeUnit.MILLISECONDS);
+          }
+        });
+  }
+
+  /**
+   * Queues event to its partition, blocks while the partition lane of event priority is full.
+   *
+   * @param event strategy event
+   * @return future completed when event is delivered, or exceptionally after the failure was
+   *     reported to the error chat
+   */
+  public CompletableFuture<Void> dispatch(StrategyEvent event) {
+    boolean high = priorityClassifier.isHigh(event);
+    Timer latencyTimer = high ? highLatencyTimer : normalLatencyTimer;
+    long start = System.nanoTime();
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    result.whenComplete(
+        (v, e) -> latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    executor.execute(partitionKey(event), high, () -> process(event, result));
+    return result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    log.info(
+        "Stopping dispatcher, queued events: {}, parked events: {}",
+        executor.queuedTasks(),
+        parkedEvents());
+    replayer.shutdownNow();
+    executor.close();
+    List<Parked> dropped = takeParked();
+    dropped.forEach(
+        p -> p.result.completeExceptionally(new RejectedExecutionException("Dispatcher stopped")));
+  }
+
+  private void process(StrategyEvent event, CompletableFuture<Void> result) {
+    try {
+      eventService
+          .processEvent(
+              event,
+              task -> executor.execute(partitionKey(event), priorityClassifier.isHigh(event), task))
+          .whenComplete(
+              (v, e) -> {
+                if (e == null) {
+                  result.complete(null);
+                } else {
+                  fail(event, result, e instanceof CompletionException ? e.getCause() : e);
+                }
+              });
+    } catch (Exception e) {
+      fail(event, result, e);
+    }
+  }
+
+  private void fail(StrategyEvent event, CompletableFuture<Void> result, Throwable error) {
+    if (error instanceof OrchestratorUnavailableException && park(event, result)) {
+      return;
+    }
+    if (error instanceof CoalescedSendException) {
+      // reported with the first event of the digest
+      log.debug("Digest with strategy event was not sent: {}", event);
+      result.completeExceptionally(error);
+      return;
+    }
+    log.error("Error processing strategy event = {}", event, error);
+    Exception exception = error instanceof Exception e ? e : new IllegalStateException(error);
+    handleErrorsService
+        .handleError(exception, event)
+        .whenComplete((v, e) -> result.completeExceptionally(error));
+  }
+
+  private boolean park(StrategyEvent event, CompletableFuture<Void> result) {
+    if (circuitBreaker.getState() == OrchestratorCircuitBreaker.State.CLOSED) {
+      // rejected by bulkhead, circuit close would never replay it
+      return false;
+    }
+    synchronized (parked) {
+      if (parked.size() >= parkingCapacity) {
+        return false;
+      }
+      parked.addLast(new Parked(event, result));
+    }
+    log.warn("Orchestrator is unavailable, event parked: {}", event);
+    if (circuitBreaker.getState() == OrchestratorCircuitBreaker.State.CLOSED) {
+      // circuit closed while event was parked
+      replayer.execute(this::replayParked);
+    }
+    return true;
+  }
+
+  private void replayParked() {
+    List<Parked> replayed = takeParked();
+    if (!replayed.isEmpty()) {
+      log.info(
+          "Orchestrator circuit is {}, replay parked events: {}",
+          circuitBreaker.getState(),
+          replayed.size());
+    }
+    for (Parked p : replayed) {
+      try {
+        executor.execute(
+            partitionKey(p.event),
+            priorityClassifier.isHigh(p.event),
+            () -> process(p.event, p.result));
+      } catch (RejectedExecutionException e) {
+        p.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private List<Parked> takeParked() {
+    synchronized (parked) {
+      List<Parked> taken = new ArrayList<>(parked);
+      parked.clear();
+      return taken;
+    }
+  }
+
+  private int parkedEvents() {
+    synchronized (parked) {
+      return parked.size();
+    }
+  }
+
+  private static int parkingCapacity(int configured, Integer prefetch) {
+    if (prefetch == null || configured <= prefetch / 2) {
+      return configured;
+    }
+    log.warn(
+        "Parking capacity {} is capped to half of listener prefetch {}", configured, prefetch);
+    return prefetch / 2;
+  }
+
+  private static Timer latencyTimer(String priority, MeterRegistry meterRegistry) {
+    return Timer.builder("alerter.dispatch.latency")
+        .description("Time from dispatch of event to delivery of its alert")
+        .tag("priority", priority)
+        .register(meterRegistry);
+  }
+
+  private static long partitionKey(StrategyEvent event) {
+    return event.getStrategyId() == null ? 0L : event.getStrategyId();
+  }
+
+  private record Parked(StrategyEvent event, CompletableFuture<Void> result) {}
+}
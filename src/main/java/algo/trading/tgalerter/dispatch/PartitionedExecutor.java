@@ -0,0 +1,186 @@
+package algo.trading.tgalerter.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executor that runs tasks with the same key one after another and tasks with different keys in
+ * parallel. Each partition owns two bounded queues and a single worker thread, priority tasks are
+ * taken before normal ones, so they may overtake earlier normal tasks of the same key. Submitting
+ * to a full queue blocks the caller. Tasks are queued under a read lock that close takes for
+ * writing, so every task accepted before close is queued ahead of the workers' stop signal.
+ */
+@Slf4j
+public class PartitionedExecutor implements AutoCloseable {
+  private static final Runnable POISON_PILL = () -> {};
+
+  private final List<Partition> partitions;
+  private final List<Thread> workers;
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean running = true;
+
+  /**
+   * Creates and starts partition workers.
+   *
+   * @param partitions number of partitions
+   * @param queueCapacity max queued normal tasks per partition
+   * @param priorityQueueCapacity max queued priority tasks per partition
+   * @param threadFactory factory for worker threads
+   */
+  public PartitionedExecutor(
+      int partitions, int queueCapacity, int priorityQueueCapacity, ThreadFactory threadFactory) {
+    if (partitions <= 0 || queueCapacity <= 0 || priorityQueueCapacity <= 0) {
+      throw new IllegalArgumentException("Partitions and queue capacity must be positive");
+    }
+    this.partitions = new ArrayList<>(partitions);
+    this.workers = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      Partition partition = new Partition(queueCapacity, priorityQueueCapacity);
+      Thread worker = threadFactory.newThread(() -> drain(partition));
+      this.partitions.add(partition);
+      workers.add(worker);
+      worker.start();
+    }
+  }
+
+  /**
+   * Queues normal task to the partition of given key, blocks while the partition queue is full.
+   *
+   * @param key partition key
+   * @param task task to run
+   * @throws RejectedExecutionException if executor is closed or caller is interrupted
+   */
+  public void execute(long key, Runnable task) {
+    execute(key, false, task);
+  }
+
+  /**
+   * Queues task to the partition of given key, blocks while the partition queue of task priority
+   * is full.
+   *
+   * @param key partition key
+   * @param priority whether task is taken before normal tasks
+   * @param task task to run
+   * @throws RejectedExecutionException if executor is closed or caller is interrupted
+   */
+  public void execute(long key, boolean priority, Runnable task) {
+    Lock lock = closeLock.readLock();
+    try {
+      lock.lockInterruptibly();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for partition queue", e);
+    }
+    try {
+      if (!running) {
+        throw new RejectedExecutionException("Executor is closed");
+      }
+      partitions.get(partitionOf(key)).put(priority, task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for partition queue", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns number of tasks waiting in all partitions.
+   *
+   * @return queued tasks count
+   */
+  public int queuedTasks() {
+    return partitions.stream().mapToInt(Partition::size).sum();
+  }
+
+  /** Stops accepting tasks, lets workers finish queued ones and waits for them. */
+  @Override
+  public void close() {
+    closeLock.writeLock().lock();
+    try {
+      if (!running) {
+        return;
+      }
+      running = false;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    for (Partition partition : partitions) {
+      try {
+        partition.put(false, POISON_PILL);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    for (Thread worker : workers) {
+      try {
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private int partitionOf(long key) {
+    return Math.floorMod(Long.hashCode(key), partitions.size());
+  }
+
+  private void drain(Partition partition) {
+    while (true) {
+      Runnable task;
+      try {
+        task = partition.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (task == POISON_PILL) {
+        return;
+      }
+      try {
+        task.run();
+      } catch (Exception e) {
+        log.error("Partition task failed", e);
+      }
+    }
+  }
+
+  /** Normal and priority queues of one partition, a permit is released per queued task. */
+  private static class Partition {
+    private final BlockingQueue<Runnable> normal;
+    private final BlockingQueue<Runnable> priority;
+    private final Semaphore queued = new Semaphore(0);
+
+    private Partition(int capacity, int priorityCapacity) {
+      this.normal = new ArrayBlockingQueue<>(capacity);
+      this.priority = new ArrayBlockingQueue<>(priorityCapacity);
+    }
+
+    private void put(boolean isPriority, Runnable task) throws InterruptedException {
+      (isPriority ? priority : normal).put(task);
+      queued.release();
+    }
+
+    private Runnable take() throws InterruptedException {
+      queued.acquire();
+      Runnable task = priority.poll();
+      return task == null ? normal.poll() : task;
+    }
+
+    private int size() {
+      return normal.size() + priority.size();
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package algo.trading.tgalerter.exceptions;
+
+/**
+ * Exception for alerts coalesced into a digest whose send failed. The failure is reported once,
+ * with the first alert of the digest, other alerts of the digest fail with this exception.
+ */
+public class CoalescedSendException extends RuntimeException {
+
+  /**
+   * Constructor.
+   *
+   * @param cause failure of digest send
+   */
+  public CoalescedSendException(Throwable cause) {
+    super("Digest with this alert was not sent", cause);
+  }
+}
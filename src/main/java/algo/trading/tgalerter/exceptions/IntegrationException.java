@@ -1,13 +1,30 @@
 package algo.trading.tgalerter.exceptions;
 
+import lombok.Getter;
+
 /** Exception for integration errors. */
+@Getter
 public class IntegrationException extends RuntimeException {
+  /** HTTP status of failed response, 0 if there was no response. */
+  private final int status;
+
   /**
    * Constructor.
    *
    * @param message error description.
    */
   public IntegrationException(String message) {
+    this(message, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param message error description.
+   * @param status HTTP status of failed response.
+   */
+  public IntegrationException(String message, int status) {
     super(message);
+    this.status = status;
   }
 }
@@ -0,0 +1,15 @@
+package algo.trading.tgalerter.exceptions;
+
+/** Exception for orchestrator calls rejected without request by circuit breaker or bulkhead. */
+public class OrchestratorUnavailableException extends IntegrationException {
+  private static final int SERVICE_UNAVAILABLE = 503;
+
+  /**
+   * Constructor.
+   *
+   * @param message error description.
+   */
+  public OrchestratorUnavailableException(String message) {
+    super(message, SERVICE_UNAVAILABLE);
+  }
+}
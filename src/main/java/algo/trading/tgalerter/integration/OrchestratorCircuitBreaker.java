@@ -0,0 +1,243 @@
+package algo.trading.tgalerter.integration;
+
+import algo.trading.tgalerter.config.IntegrationProperty;
+import algo.trading.tgalerter.exceptions.IntegrationException;
+import algo.trading.tgalerter.exceptions.OrchestratorUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Circuit breaker and bulkhead around Trade Orchestrator calls. Failure rate is counted over the
+ * last slidingWindowSize calls, once it reaches the threshold calls are rejected for
+ * waitDurationInOpenState, then a few trial calls decide whether the circuit closes again. Only
+ * server errors, timeouts and I/O errors count as failures. Concurrent calls are limited, calls
+ * over the limit are rejected right away instead of waiting for a hanging orchestrator.
+ */
+@Slf4j
+@Component
+public class OrchestratorCircuitBreaker {
+  private static final String METRIC_PREFIX = "alerter.orchestrator.circuit.";
+
+  /** Circuit states. */
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final IntegrationProperty.CircuitBreaker properties;
+  private final Semaphore bulkhead;
+  private final boolean[] outcomes;
+  private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+  private final Counter rejectedOpen;
+  private final Counter rejectedBulkhead;
+  private volatile State state = State.CLOSED;
+  private long openedAt;
+  private int recorded;
+  private int failures;
+  private int trialCalls;
+  private int trialSuccesses;
+
+  /**
+   * Creates circuit breaker and registers its metrics.
+   *
+   * @param integrationProperty circuit breaker settings
+   * @param meterRegistry registry for state and rejection metrics
+   */
+  public OrchestratorCircuitBreaker(
+      IntegrationProperty integrationProperty, MeterRegistry meterRegistry) {
+    this.properties = integrationProperty.getOrchestrator().getCircuitBreaker();
+    this.bulkhead = new Semaphore(properties.getMaxConcurrentCalls());
+    this.outcomes = new boolean[properties.getSlidingWindowSize()];
+    for (State value : State.values()) {
+      Gauge.builder(METRIC_PREFIX + "state", this, breaker -> breaker.state == value ? 1 : 0)
+          .description("Orchestrator circuit state, 1 for the current one")
+          .tag("state", value.name().toLowerCase(Locale.ROOT))
+          .register(meterRegistry);
+    }
+    this.rejectedOpen = rejectedCounter("circuit_open", meterRegistry);
+    this.rejectedBulkhead = rejectedCounter("bulkhead_full", meterRegistry);
+  }
+
+  /**
+   * Runs orchestrator call when circuit and bulkhead allow it.
+   *
+   * @param call orchestrator call
+   * @param <T> call result type
+   * @return call result
+   * @throws OrchestratorUnavailableException if call was rejected
+   */
+  public <T> T call(Supplier<T> call) {
+    if (!properties.isEnabled()) {
+      return call.get();
+    }
+    if (!tryAcquirePermission()) {
+      rejectedOpen.increment();
+      throw new OrchestratorUnavailableException("Orchestrator circuit is " + state);
+    }
+    if (!bulkhead.tryAcquire()) {
+      releasePermission();
+      rejectedBulkhead.increment();
+      throw new OrchestratorUnavailableException("Too many concurrent orchestrator calls");
+    }
+    try {
+      T result = call.get();
+      record(true);
+      return result;
+    } catch (RuntimeException e) {
+      if (isFailure(e)) {
+        record(false);
+      } else {
+        record(true);
+      }
+      throw e;
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  /**
+   * Returns current circuit state.
+   *
+   * @return circuit state
+   */
+  public State getState() {
+    if (state == State.OPEN && isWaitOver()) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /**
+   * Returns time calls are rejected for after circuit opened.
+   *
+   * @return wait duration in open state
+   */
+  public Duration getWaitDurationInOpenState() {
+    return properties.getWaitDurationInOpenState();
+  }
+
+  /**
+   * Registers listener called on every state change, from the thread that caused the change and
+   * under the breaker lock, so listener must not block.
+   *
+   * @param listener state change listener
+   */
+  public void onStateChange(Consumer<State> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Checks whether error means orchestrator is unhealthy.
+   *
+   * @param error call error
+   * @return true for rejected calls, server errors, timeouts and I/O errors
+   */
+  public static boolean isFailure(Throwable error) {
+    if (error instanceof IntegrationException integrationException) {
+      return integrationException.getStatus() == 0 || integrationException.getStatus() >= 500;
+    }
+    return error instanceof ResourceAccessException;
+  }
+
+  private synchronized boolean tryAcquirePermission() {
+    if (state == State.OPEN) {
+      if (!isWaitOver()) {
+        return false;
+      }
+      transition(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (trialCalls >= properties.getPermittedCallsInHalfOpenState()) {
+        return false;
+      }
+      trialCalls++;
+    }
+    return true;
+  }
+
+  private synchronized void releasePermission() {
+    if (state == State.HALF_OPEN && trialCalls > 0) {
+      trialCalls--;
+    }
+  }
+
+  private synchronized void record(boolean success) {
+    if (state == State.HALF_OPEN) {
+      if (!success) {
+        open();
+      } else if (++trialSuccesses >= properties.getPermittedCallsInHalfOpenState()) {
+        reset();
+        transition(State.CLOSED);
+      }
+      return;
+    }
+    if (state == State.OPEN) {
+      return;
+    }
+    int slot = recorded % outcomes.length;
+    if (recorded >= outcomes.length && !outcomes[slot]) {
+      failures--;
+    }
+    outcomes[slot] = success;
+    recorded++;
+    if (!success) {
+      failures++;
+    }
+    int calls = Math.min(recorded, outcomes.length);
+    if (calls >= properties.getMinimumCalls()
+        && failures * 100 >= properties.getFailureRateThreshold() * calls) {
+      open();
+    }
+  }
+
+  private void open() {
+    openedAt = System.nanoTime();
+    reset();
+    transition(State.OPEN);
+  }
+
+  private void reset() {
+    recorded = 0;
+    failures = 0;
+    trialCalls = 0;
+    trialSuccesses = 0;
+  }
+
+  private boolean isWaitOver() {
+    return System.nanoTime() - openedAt >= properties.getWaitDurationInOpenState().toNanos();
+  }
+
+  private void transition(State next) {
+    if (state == next) {
+      return;
+    }
+    log.warn("Orchestrator circuit state changed from {} to {}", state, next);
+    state = next;
+    for (Consumer<State> listener : listeners) {
+      try {
+        listener.accept(next);
+      } catch (RuntimeException e) {
+        log.error("Circuit state listener failed", e);
+      }
+    }
+  }
+
+  private static Counter rejectedCounter(String reason, MeterRegistry meterRegistry) {
+    return Counter.builder(METRIC_PREFIX + "rejected")
+        .description("Orchestrator calls rejected without request")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,35 @@
+package algo.trading.tgalerter.integration;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports orchestrator circuit state. Open or half-open circuit is reported as DEGRADED, which is
+ * mapped to HTTP 200, so probes do not restart the service because of orchestrator outage.
+ */
+@Component("orchestrator")
+public class OrchestratorHealthIndicator implements HealthIndicator {
+  /** Status of service working with limited functionality. */
+  public static final Status DEGRADED = new Status("DEGRADED");
+
+  private final OrchestratorCircuitBreaker circuitBreaker;
+
+  /**
+   * Creates indicator.
+   *
+   * @param circuitBreaker orchestrator circuit breaker
+   */
+  public OrchestratorHealthIndicator(OrchestratorCircuitBreaker circuitBreaker) {
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public Health health() {
+    OrchestratorCircuitBreaker.State state = circuitBreaker.getState();
+    return Health.status(state == OrchestratorCircuitBreaker.State.CLOSED ? Status.UP : DEGRADED)
+        .withDetail("circuit", state.name())
+        .build();
+  }
+}
@@ -0,0 +1,202 @@
+package algo.trading.tgalerter.integration;
+
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import algo.trading.tgalerter.exceptions.IntegrationException;
+import algo.trading.tgalerter.util.ThreadUtil;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache loader of StrategyInfo that collects concurrent lookups for a short window and resolves
+ * them with one bulk orchestrator request. If bulk endpoint is not available the strategies are
+ * requested one by one in parallel, and bulk endpoint is tried again after bulkRetryAfter. Requests
+ * are sent from a fixed pool of threads. With batching disabled every strategy is requested on its
+ * own by the calling thread.
+ */
+@Slf4j
+@Component
+public class StrategyInfoBatchLoader implements CacheLoader<Long, StrategyInfo> {
+  private static final String THREAD_PREFIX = "strategy-info-";
+  private static final Set<Integer> BULK_UNSUPPORTED_STATUSES = Set.of(404, 405, 501);
+
+  private final TradeOrchestratorIntegration tradeOrchestratorIntegration;
+  private final IntegrationProperty.Batch properties;
+  private final ScheduledExecutorService timer;
+  private final ExecutorService executor;
+  private final DistributionSummary batchSize;
+  private final Object lock = new Object();
+  private Map<Long, CompletableFuture<StrategyInfo>> pending = new HashMap<>();
+  private volatile boolean bulkDisabled;
+  private volatile long bulkDisabledAt;
+
+  /**
+   * Creates loader.
+   *
+   * @param tradeOrchestratorIntegration orchestrator client
+   * @param integrationProperty batching settings
+   * @param environment used to decide whether virtual threads are enabled
+   * @param meterRegistry registry for batch size metric
+   */
+  public StrategyInfoBatchLoader(
+      TradeOrchestratorIntegration tradeOrchestratorIntegration,
+      IntegrationProperty integrationProperty,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    this.tradeOrchestratorIntegration = tradeOrchestratorIntegration;
+    this.properties = integrationProperty.getOrchestrator().getBatch();
+    this.timer =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("strategy-info-timer-"));
+    this.executor =
+        Executors.newFixedThreadPool(
+            properties.getThreads(), ThreadUtil.threadFactory(environment, THREAD_PREFIX));
+    this.batchSize =
+        DistributionSummary.builder("alerter.orchestrator.batch.size")
+            .description("Strategies resolved by one orchestrator lookup batch")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public StrategyInfo load(Long strategyId) {
+    if (!properties.isEnabled()) {
+      return tradeOrchestratorIntegration.getStrategyInfo(strategyId);
+    }
+    return join(submit(strategyId));
+  }
+
+  @Override
+  public Map<Long, StrategyInfo> loadAll(Set<? extends Long> strategyIds) {
+    if (!properties.isEnabled()) {
+      Map<Long, StrategyInfo> result = new HashMap<>();
+      for (Long strategyId : strategyIds) {
+        result.put(strategyId, tradeOrchestratorIntegration.getStrategyInfo(strategyId));
+      }
+      return result;
+    }
+    Map<Long, CompletableFuture<StrategyInfo>> requests = new HashMap<>();
+    strategyIds.forEach(strategyId -> requests.put(strategyId, new CompletableFuture<>()));
+    resolve(requests);
+    Map<Long, StrategyInfo> result = new HashMap<>();
+    requests.forEach(
+        (strategyId, future) -> {
+          StrategyInfo strategyInfo = join(future);
+          if (strategyInfo != null) {
+            result.put(strategyId, strategyInfo);
+          }
+        });
+    return result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    timer.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  private CompletableFuture<StrategyInfo> submit(Long strategyId) {
+    Map<Long, CompletableFuture<StrategyInfo>> full = null;
+    CompletableFuture<StrategyInfo> result;
+    synchronized (lock) {
+      Map<Long, CompletableFuture<StrategyInfo>> batch = pending;
+      result = batch.get(strategyId);
+      if (result != null) {
+        return result;
+      }
+      result = new CompletableFuture<>();
+      batch.put(strategyId, result);
+      if (batch.size() >= properties.getMaxSize()) {
+        full = batch;
+        pending = new HashMap<>();
+      } else if (batch.size() == 1) {
+        timer.schedule(
+            () -> flush(batch), properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    if (full != null) {
+      Map<Long, CompletableFuture<StrategyInfo>> requests = full;
+      executor.execute(() -> resolve(requests));
+    }
+    return result;
+  }
+
+  private void flush(Map<Long, CompletableFuture<StrategyInfo>> batch) {
+    synchronized (lock) {
+      if (pending != batch) {
+        return;
+      }
+      pending = new HashMap<>();
+    }
+    executor.execute(() -> resolve(batch));
+  }
+
+  private void resolve(Map<Long, CompletableFuture<StrategyInfo>> requests) {
+    batchSize.record(requests.size());
+    Map<Long, StrategyInfo> found = Map.of();
+    if (requests.size() > 1 && isBulkAvailable()) {
+      try {
+        found = tradeOrchestratorIntegration.getStrategyInfos(requests.keySet());
+      } catch (IntegrationException e) {
+        if (!BULK_UNSUPPORTED_STATUSES.contains(e.getStatus())) {
+          requests.values().forEach(future -> future.completeExceptionally(e));
+          return;
+        }
+        log.warn("Bulk strategyInfo endpoint is not available, status: {}", e.getStatus());
+        bulkDisabledAt = System.nanoTime();
+        bulkDisabled = true;
+      } catch (RuntimeException e) {
+        requests.values().forEach(future -> future.completeExceptionally(e));
+        return;
+      }
+    }
+    for (Map.Entry<Long, CompletableFuture<StrategyInfo>> request : requests.entrySet()) {
+      StrategyInfo strategyInfo = found.get(request.getKey());
+      if (strategyInfo != null) {
+        request.getValue().complete(strategyInfo);
+      } else if (requests.size() == 1) {
+        loadOne(request.getKey(), request.getValue());
+      } else {
+        executor.execute(() -> loadOne(request.getKey(), request.getValue()));
+      }
+    }
+  }
+
+  private boolean isBulkAvailable() {
+    return !bulkDisabled
+        || System.nanoTime() - bulkDisabledAt >= properties.getBulkRetryAfter().toNanos();
+  }
+
+  private void loadOne(Long strategyId, CompletableFuture<StrategyInfo> result) {
+    try {
+      result.complete(tradeOrchestratorIntegration.getStrategyInfo(strategyId));
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private static StrategyInfo join(CompletableFuture<StrategyInfo> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package algo.trading.tgalerter.integration;
+
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bounded cache of StrategyInfo in front of Trade Orchestrator. Entries are refreshed in background
+ * after refreshAfterWrite, concurrent misses for one strategy share a single orchestrator call and
+ * misses of different strategies are batched by {@link StrategyInfoBatchLoader}. Every loaded entry
+ * updates {@link StrategyRoutingIndex}, which serves as stale fallback while orchestrator is
+ * unavailable.
+ */
+@Slf4j
+@Service
+public class StrategyInfoCache {
+  private static final String CACHE_NAME = "strategyInfo";
+
+  private final LoadingCache<Long, StrategyInfo> cache;
+  private final StrategyRoutingIndex strategyRoutingIndex;
+  private final Counter fallbackCounter;
+
+  /**
+   * Creates cache and registers its metrics.
+   *
+   * @param strategyInfoBatchLoader loader of entries from orchestrator
+   * @param strategyRoutingIndex index updated with chat of every loaded entry
+   * @param integrationProperty cache settings
+   * @param meterRegistry registry for hit/miss/load metrics
+   */
+  public StrategyInfoCache(
+      StrategyInfoBatchLoader strategyInfoBatchLoader,
+      StrategyRoutingIndex strategyRoutingIndex,
+      IntegrationProperty integrationProperty,
+      MeterRegistry meterRegistry) {
+    this.strategyRoutingIndex = strategyRoutingIndex;
+    IntegrationProperty.Cache properties = integrationProperty.getOrchestrator().getCache();
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getExpireAfterWrite())
+            .refreshAfterWrite(properties.getRefreshAfterWrite())
+            .recordStats()
+            .build(new RoutingLoader(strategyInfoBatchLoader));
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    this.fallbackCounter =
+        Counter.builder("alerter.orchestrator.fallback")
+            .description("Lookups served with stale StrategyInfo while orchestrator failed")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Returns cached StrategyInfo, loading it from orchestrator on miss. When orchestrator is
+   * unavailable the last loaded StrategyInfo is returned if there is one.
+   *
+   * @param strategyId ID of trading strategy
+   * @return strategy info
+   */
+  public StrategyInfo getStrategyInfo(Long strategyId) {
+    try {
+      return cache.get(strategyId);
+    } catch (RuntimeException e) {
+      StrategyInfo stale =
+          OrchestratorCircuitBreaker.isFailure(e)
+              ? strategyRoutingIndex.getStrategyInfo(strategyId)
+              : null;
+      if (stale == null) {
+        throw e;
+      }
+      log.debug("Orchestrator failed, use stale strategyInfo - strategyId: {}", strategyId);
+      fallbackCounter.increment();
+      return stale;
+    }
+  }
+
+  /**
+   * Returns cached StrategyInfo of several strategies, loading missing entries from orchestrator.
+   *
+   * @param strategyIds IDs of trading strategies
+   * @return strategy info by strategy ID
+   */
+  public Map<Long, StrategyInfo> getAll(Collection<Long> strategyIds) {
+    return cache.getAll(strategyIds);
+  }
+
+  /**
+   * Drops cached entry and route of strategy, to be called when strategy settings are changed.
+   *
+   * @param strategyId ID of trading strategy
+   */
+  public void invalidate(Long strategyId) {
+    log.debug("Invalidate strategyInfo cache - strategyId: {}", strategyId);
+    cache.invalidate(strategyId);
+    strategyRoutingIndex.invalidate(strategyId);
+  }
+
+  /** Drops all cached entries and routes. */
+  public void invalidateAll() {
+    log.debug("Invalidate strategyInfo cache");
+    cache.invalidateAll();
+    strategyRoutingIndex.invalidateAll();
+  }
+
+  private class RoutingLoader implements CacheLoader<Long, StrategyInfo> {
+    private final CacheLoader<Long, StrategyInfo> delegate;
+
+    private RoutingLoader(CacheLoader<Long, StrategyInfo> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public StrategyInfo load(Long strategyId) throws Exception {
+      StrategyInfo strategyInfo = delegate.load(strategyId);
+      route(strategyId, strategyInfo);
+      return strategyInfo;
+    }
+
+    @Override
+    public Map<? extends Long, ? extends StrategyInfo> loadAll(Set<? extends Long> strategyIds)
+        throws Exception {
+      Map<? extends Long, ? extends StrategyInfo> strategyInfos = delegate.loadAll(strategyIds);
+      strategyInfos.forEach(this::route);
+      return strategyInfos;
+    }
+
+    private void route(Long strategyId, StrategyInfo strategyInfo) {
+      if (strategyInfo != null) {
+        strategyRoutingIndex.put(strategyId, strategyInfo);
+      }
+    }
+  }
+}
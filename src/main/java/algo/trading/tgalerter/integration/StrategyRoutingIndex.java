@@ -0,0 +1,101 @@
+package algo.trading.tgalerter.integration;
+
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index of strategyId to last loaded StrategyInfo. The target chat of most events is known before
+ * the strategy is resolved, so muted events can be dropped without orchestrator call. Routes are
+ * used for as long as cached StrategyInfo lives, so a strategy moved to another chat is routed by
+ * its old chat no longer than it is alerted there. Entries live longer and serve as stale fallback
+ * while orchestrator is unavailable.
+ */
+@Component
+public class StrategyRoutingIndex {
+  private static final String CACHE_NAME = "strategyRouting";
+
+  private final Cache<Long, Route> routes;
+  private final long routeTtlNanos;
+
+  /**
+   * Creates index and registers its metrics.
+   *
+   * @param integrationProperty index settings
+   * @param meterRegistry registry for hit/miss metrics
+   */
+  public StrategyRoutingIndex(
+      IntegrationProperty integrationProperty, MeterRegistry meterRegistry) {
+    IntegrationProperty.Cache properties = integrationProperty.getOrchestrator().getCache();
+    this.routes =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getRoutingMaximumSize())
+            .expireAfterWrite(properties.getRoutingExpireAfterWrite())
+            .recordStats()
+            .build();
+    this.routeTtlNanos =
+        Math.min(
+            properties.getExpireAfterWrite().toNanos(),
+            properties.getRoutingExpireAfterWrite().toNanos());
+    CaffeineCacheMetrics.monitor(meterRegistry, routes, CACHE_NAME);
+  }
+
+  /**
+   * Returns chat of strategy loaded within StrategyInfo cache lifetime.
+   *
+   * @param strategyId ID of trading strategy
+   * @return chatId or null if strategy was not resolved recently
+   */
+  public String getChatId(Long strategyId) {
+    Route route = strategyId == null ? null : routes.getIfPresent(strategyId);
+    if (route == null || System.nanoTime() - route.loadedAt() > routeTtlNanos) {
+      return null;
+    }
+    return route.strategyInfo().getChatId();
+  }
+
+  /**
+   * Returns last loaded StrategyInfo, possibly stale.
+   *
+   * @param strategyId ID of trading strategy
+   * @return strategy info or null if strategy was not resolved recently
+   */
+  public StrategyInfo getStrategyInfo(Long strategyId) {
+    Route route = strategyId == null ? null : routes.getIfPresent(strategyId);
+    return route == null ? null : route.strategyInfo();
+  }
+
+  /**
+   * Records loaded StrategyInfo.
+   *
+   * @param strategyId ID of trading strategy
+   * @param strategyInfo loaded strategy, entries without chat are removed
+   */
+  public void put(Long strategyId, StrategyInfo strategyInfo) {
+    if (strategyInfo == null || strategyInfo.getChatId() == null) {
+      routes.invalidate(strategyId);
+    } else {
+      routes.put(strategyId, new Route(strategyInfo, System.nanoTime()));
+    }
+  }
+
+  /**
+   * Drops entry of strategy, for example after strategy was moved to another chat.
+   *
+   * @param strategyId ID of trading strategy
+   */
+  public void invalidate(Long strategyId) {
+    routes.invalidate(strategyId);
+  }
+
+  /** Drops all entries. */
+  public void invalidateAll() {
+    routes.invalidateAll();
+  }
+
+  private record Route(StrategyInfo strategyInfo, long loadedAt) {}
+}
@@ -2,20 +2,30 @@ package algo.trading.tgalerter.integration;
 
 import algo.trading.common.dto.StrategyInfo;
 import algo.trading.tgalerter.config.IntegrationProperty;
+import java.util.Collection;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
-/** Service for integration with Trade Orchestrator service. */
+/**
+ * Service for integration with Trade Orchestrator service. Calls go through {@link
+ * OrchestratorCircuitBreaker}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TradeOrchestratorIntegration {
   private static final String GET_STRATEGY_INFO_URL = "/inner/strategy/{strategyId}/info";
+  private static final String GET_STRATEGY_INFOS_URL = "/inner/strategy/info";
+  private static final ParameterizedTypeReference<Map<Long, StrategyInfo>> STRATEGY_INFOS_TYPE =
+      new ParameterizedTypeReference<>() {};
 
   private final RestClient restClient;
   private final IntegrationProperty integrationProperty;
+  private final OrchestratorCircuitBreaker circuitBreaker;
 
   /**
    * Fetches chat details for given strategy ID from Orchestrator service.
@@ -26,12 +36,37 @@ public class TradeOrchestratorIntegration {
   public StrategyInfo getStrategyInfo(Long strategyId) {
     log.debug("Get strategyInfo for strategy {}", strategyId);
     StrategyInfo response =
-        restClient
-            .get()
-            .uri(integrationProperty.getOrchestrator().getUrl() + GET_STRATEGY_INFO_URL, strategyId)
-            .retrieve()
-            .body(StrategyInfo.class);
+        circuitBreaker.call(
+            () ->
+                restClient
+                    .get()
+                    .uri(
+                        integrationProperty.getOrchestrator().getUrl() + GET_STRATEGY_INFO_URL,
+                        strategyId)
+                    .retrieve()
+                    .body(StrategyInfo.class));
     log.debug("Get strategyInfo for strategy {}, response: {}", strategyId, response);
     return response;
   }
+
+  /**
+   * Fetches chat details for several strategies with one bulk request.
+   *
+   * @param strategyIds IDs of trading strategies
+   * @return strategy info by strategy ID, unknown strategies are absent
+   */
+  public Map<Long, StrategyInfo> getStrategyInfos(Collection<Long> strategyIds) {
+    log.debug("Get strategyInfo for strategies {}", strategyIds);
+    Map<Long, StrategyInfo> response =
+        circuitBreaker.call(
+            () ->
+                restClient
+                    .post()
+                    .uri(integrationProperty.getOrchestrator().getUrl() + GET_STRATEGY_INFOS_URL)
+                    .body(strategyIds)
+                    .retrieve()
+                    .body(STRATEGY_INFOS_TYPE));
+    log.debug("Get strategyInfo for strategies {}, response: {}", strategyIds, response);
+    return response == null ? Map.of() : response;
+  }
 }
@@ -0,0 +1,213 @@
+package algo.trading.tgalerter.listener;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.Order;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.EventFilterProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads strategy events from raw AMQP messages. Event type is taken from type header, then from
+ * routing key, then by streaming the body up to the type field, so TICK events are dropped without
+ * building the event. Dropped messages are counted in alerter.events.dropped by where the type was
+ * found. The order object is not deserialized while reading, it is kept as a slice of the body
+ * in {@link RawOrderEvent}, since most events only need it printed. Strategy id used to route
+ * events to partitions is read the same way, from header or by streaming the body.
+ */
+@Slf4j
+@Component
+public class EventMessageReader {
+  private static final String TYPE_FIELD = "type";
+  private static final String STRATEGY_ID_FIELD = "strategyId";
+  private static final String ORDER_FIELD = "order";
+  private static final String GUID_FIELD = "guid";
+  private static final String DROPPED_METRIC = "alerter.events.dropped";
+
+  private final EventFilterProperties properties;
+  private final ObjectMapper objectMapper;
+  private final ObjectReader eventReader;
+  private final ObjectReader orderReader;
+  private final Map<Source, Counter> droppedCounters = new EnumMap<>(Source.class);
+
+  /**
+   * Creates reader and registers dropped message counters.
+   *
+   * @param properties filter settings
+   * @param objectMapper mapper used to read message bodies
+   * @param meterRegistry registry for dropped message counters
+   */
+  public EventMessageReader(
+      EventFilterProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+    this.eventReader = objectMapper.readerFor(StrategyEvent.class);
+    this.orderReader = objectMapper.readerFor(Order.class);
+    for (Source source : Source.values()) {
+      droppedCounters.put(
+          source,
+          Counter.builder(DROPPED_METRIC)
+              .description("Strategy event messages dropped before deserialization")
+              .tag("type", EventType.TICK.name())
+              .tag("source", source.tag)
+              .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Checks whether message should be processed, TICK events are not.
+   *
+   * @param message raw message
+   * @return false if message carries TICK event
+   */
+  public boolean isProcessed(Message message) {
+    Source source = Source.HEADER;
+    String type = headerType(message);
+    if (type == null && properties.isTypeInRoutingKey()) {
+      source = Source.ROUTING_KEY;
+      type = routingKeyType(message);
+    }
+    if (type == null) {
+      source = Source.BODY;
+      type = bodyField(message.getBody(), TYPE_FIELD);
+    }
+    if (!EventType.TICK.name().equals(type)) {
+      return true;
+    }
+    droppedCounters.get(source).increment();
+    return false;
+  }
+
+  /**
+   * Reads strategy id without building the event, from strategy id header or by streaming the body
+   * up to the strategyId field.
+   *
+   * @param message raw message
+   * @return strategy id, null if message has none or it is not a number
+   */
+  public Long strategyId(Message message) {
+    Object header = message.getMessageProperties().getHeader(properties.getStrategyIdHeader());
+    String strategyId =
+        header == null ? bodyField(message.getBody(), STRATEGY_ID_FIELD) : header.toString();
+    if (strategyId == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(strategyId);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Deserializes strategy event. Fields other than order are buffered and deserialized as usual,
+   * order object is only scanned for its bounds and guid.
+   *
+   * @param message raw message
+   * @return strategy event, {@link RawOrderEvent} if event has order
+   * @throws MessageConversionException if body is not a strategy event
+   */
+  public StrategyEvent read(Message message) {
+    byte[] body = message.getBody();
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return eventReader.readValue(body);
+      }
+      TokenBuffer fields = new TokenBuffer(parser);
+      fields.writeStartObject();
+      RawOrderEvent event = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        long offset = parser.currentTokenLocation().getByteOffset();
+        if (ORDER_FIELD.equals(field) && value == JsonToken.START_OBJECT && offset >= 0) {
+          String guid = scanOrder(parser);
+          int length = (int) (parser.currentLocation().getByteOffset() - offset);
+          RawOrderEvent.RawOrder rawOrder = new RawOrderEvent.RawOrder(body, (int) offset, length);
+          event = new RawOrderEvent(orderReader, rawOrder, guid);
+        } else {
+          fields.writeFieldName(field);
+          fields.copyCurrentStructure(parser);
+        }
+      }
+      fields.writeEndObject();
+      ObjectReader reader = event == null ? eventReader : eventReader.withValueToUpdate(event);
+      return reader.readValue(fields.asParser());
+    } catch (IOException e) {
+      throw new MessageConversionException("Can not read strategy event", e);
+    }
+  }
+
+  /** Skips order object and returns its guid. */
+  private static String scanOrder(JsonParser parser) throws IOException {
+    String guid = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if (GUID_FIELD.equals(field) && value.isScalarValue()) {
+        guid = parser.getValueAsString();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return guid;
+  }
+
+  private String headerType(Message message) {
+    Object header = message.getMessageProperties().getHeader(properties.getTypeHeader());
+    return header == null ? null : header.toString();
+  }
+
+  private static String routingKeyType(Message message) {
+    String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+    if (routingKey == null || routingKey.isEmpty()) {
+      return null;
+    }
+    return routingKey.substring(routingKey.lastIndexOf('.') + 1).toUpperCase();
+  }
+
+  private String bodyField(byte[] body, String name) {
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        if (name.equals(field)) {
+          return parser.getValueAsString();
+        }
+        parser.skipChildren();
+      }
+      return null;
+    } catch (IOException e) {
+      // malformed body is left to full deserialization which reports it
+      log.debug("Can not peek event {}: {}", name, e.getMessage());
+      return null;
+    }
+  }
+
+  private enum Source {
+    HEADER("header"),
+    ROUTING_KEY("routing_key"),
+    BODY("body");
+
+    private final String tag;
+
+    Source(String tag) {
+      this.tag = tag;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package algo.trading.tgalerter.listener;
+
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rabbit listener for high priority event queue. It has its own consumer thread and events are
+ * dispatched to the priority lanes of partitions, so they are not held by the backlog of the
+ * strategy event queue. Disabled in partitioned mode.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${priority.queue.enabled:false} && !${partitioning.enabled:false}")
+public class PriorityStrategyListener {
+  private final EventDispatcher eventDispatcher;
+  private final EventMessageReader eventMessageReader;
+
+  /**
+   * Listener for high priority event queue. Messages are acked when their events are processed,
+   * the same way as in {@link StrategyListener}.
+   */
+  @RabbitListener(queues = "${priority.queue.name}", concurrency = "1")
+  CompletableFuture<Void> processPriorityMessage(Message message) {
+    if (!eventMessageReader.isProcessed(message)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    log.trace("Got priority event message");
+    return eventDispatcher.dispatch(eventMessageReader.read(message)).exceptionally(e -> null);
+  }
+}
@@ -0,0 +1,107 @@
+package algo.trading.tgalerter.listener;
+
+import algo.trading.common.dto.Order;
+import algo.trading.common.dto.StrategyEvent;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Strategy event read by {@link EventMessageReader} with order kept as a slice of the message
+ * body. Order is deserialized on first {@link #getOrder()} call only, alert templates print the
+ * raw slice and deduplication uses the order guid peeked while reading. Setting order drops the
+ * slice. Order is materialized once even if the event is read by several threads, {@link
+ * #toString()} leaves it out so logging an event does not deserialize it.
+ */
+public class RawOrderEvent extends StrategyEvent {
+  private final ObjectReader orderReader;
+  private volatile RawOrder rawOrder;
+  private volatile String orderGuid;
+  private volatile boolean materialized;
+
+  RawOrderEvent(ObjectReader orderReader, RawOrder rawOrder, String orderGuid) {
+    this.orderReader = orderReader;
+    this.rawOrder = rawOrder;
+    this.orderGuid = orderGuid;
+  }
+
+  /**
+   * Returns order, deserializing it from raw slice on first call.
+   *
+   * @return order
+   * @throws UncheckedIOException if order slice does not match order structure
+   */
+  @Override
+  public Order getOrder() {
+    if (!materialized) {
+      materialize();
+    }
+    return super.getOrder();
+  }
+
+  private synchronized void materialize() {
+    RawOrder raw = rawOrder;
+    if (materialized || raw == null) {
+      materialized = true;
+      return;
+    }
+    try {
+      super.setOrder(orderReader.readValue(raw.bytes(), raw.offset(), raw.length()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can not read order of strategy event", e);
+    }
+    materialized = true;
+  }
+
+  @Override
+  public synchronized void setOrder(Order order) {
+    super.setOrder(order);
+    this.rawOrder = null;
+    this.orderGuid = order == null ? null : order.getGuid();
+    this.materialized = true;
+  }
+
+  /**
+   * Returns order as received.
+   *
+   * @return raw order JSON or null if event has no order or order was replaced
+   */
+  public RawOrder rawOrder() {
+    return rawOrder;
+  }
+
+  /**
+   * Returns order guid without deserializing order.
+   *
+   * @return order guid, may be null
+   */
+  public String orderGuid() {
+    return orderGuid;
+  }
+
+  @Override
+  public String toString() {
+    return "RawOrderEvent(strategyId="
+        + getStrategyId()
+        + ", time="
+        + getTime()
+        + ", type="
+        + getType()
+        + ", message="
+        + getMessage()
+        + ", state="
+        + getState()
+        + ", orderGuid="
+        + orderGuid
+        + ")";
+  }
+
+  /**
+   * Order JSON object within message body.
+   *
+   * @param bytes message body
+   * @param offset offset of order object
+   * @param length length of order object
+   */
+  public record RawOrder(byte[] bytes, int offset, int length) {}
+}
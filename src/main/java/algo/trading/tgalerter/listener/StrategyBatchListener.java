@@ -0,0 +1,262 @@
+package algo.trading.tgalerter.listener;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.BatchListenerProperties;
+import algo.trading.tgalerter.config.RabbitConfig;
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import com.rabbitmq.client.Channel;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Batch listener for strategy event queue, replaces {@link StrategyListener} when
+ * listener.batch.enabled is set, disabled in partitioned mode. TICK events are dropped before
+ * deserialization, the remaining events are deserialized, StrategyInfo of their strategies is
+ * resolved in one pass and events are dispatched together. A fully processed batch is acked with a
+ * single ack, otherwise messages are acked or nacked one by one. Events not processed within the
+ * processing timeout, extended by the time the busiest chat of the batch needs under its rate
+ * limit, count as failed. Failed events are requeued up to max redeliveries, counted by
+ * x-delivery-count on quorum queues and by a bounded cache of failures on classic queues.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${listener.batch.enabled:false} && !${partitioning.enabled:false}")
+public class StrategyBatchListener {
+  private static final String DELIVERY_COUNT = "x-delivery-count";
+
+  private final EventDispatcher eventDispatcher;
+  private final StrategyInfoCache strategyInfoCache;
+  private final BatchListenerProperties properties;
+  private final EventMessageReader eventMessageReader;
+  private final double perChatPerSecond;
+  // accessed by the single listener thread only
+  private final Map<Object, Integer> failures;
+
+  /**
+   * Creates listener.
+   *
+   * @param eventDispatcher dispatcher of events to partitions
+   * @param strategyInfoCache cache used to resolve strategies of a batch
+   * @param properties batch settings
+   * @param eventMessageReader reader of raw messages
+   * @param telegramBotProperties rate limit of a chat
+   */
+  public StrategyBatchListener(
+      EventDispatcher eventDispatcher,
+      StrategyInfoCache strategyInfoCache,
+      BatchListenerProperties properties,
+      EventMessageReader eventMessageReader,
+      TelegramBotProperties telegramBotProperties) {
+    this.eventDispatcher = eventDispatcher;
+    this.strategyInfoCache = strategyInfoCache;
+    this.properties = properties;
+    this.eventMessageReader = eventMessageReader;
+    this.perChatPerSecond = telegramBotProperties.getRateLimit().getPerChatPerSecond();
+    int failuresSize = properties.getRedeliveryCacheSize();
+    this.failures =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Object, Integer> eldest) {
+            return size() > failuresSize;
+          }
+        };
+  }
+
+  /**
+   * Listener for strategy event queue in batch mode.
+   *
+   * @param messages batch of raw messages
+   * @param channel channel used to ack the batch
+   * @throws IOException if ack failed
+   */
+  @RabbitListener(
+      queues = "${stage}_alert_event_q",
+      concurrency = "1",
+      containerFactory = RabbitConfig.BATCH_CONTAINER_FACTORY)
+  void processStrategyEvents(List<Message> messages, Channel channel) throws IOException {
+    log.trace("Got batch of {} events", messages.size());
+    List<Message> accepted = new ArrayList<>(messages.size());
+    List<Message> rejected = new ArrayList<>();
+    List<Message> received = new ArrayList<>(messages.size());
+    List<StrategyEvent> events = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      if (!eventMessageReader.isProcessed(message)) {
+        accepted.add(message);
+        continue;
+      }
+      try {
+        events.add(eventMessageReader.read(message));
+        received.add(message);
+      } catch (MessageConversionException e) {
+        log.error("Can not read strategy event: {}", new String(message.getBody()), e);
+        rejected.add(message);
+      }
+    }
+    Map<Long, StrategyInfo> strategies = resolveStrategies(events);
+
+    List<CompletableFuture<Void>> results = new ArrayList<>(events.size());
+    events.forEach(event -> results.add(eventDispatcher.dispatch(event)));
+    List<Message> failed = new ArrayList<>();
+    long deadline =
+        System.nanoTime()
+            + properties.getProcessingTimeout().toNanos()
+            + sendingNanos(events, strategies);
+    for (int i = 0; i < results.size(); i++) {
+      if (awaitSuccess(results.get(i), deadline)) {
+        accepted.add(received.get(i));
+      } else {
+        failed.add(received.get(i));
+      }
+    }
+    acknowledge(channel, messages, accepted, rejected, failed);
+  }
+
+  private static boolean awaitSuccess(CompletableFuture<Void> result, long deadline) {
+    try {
+      result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (ExecutionException e) {
+      return false;
+    } catch (TimeoutException e) {
+      log.warn("Strategy event not processed within processing timeout");
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private Map<Long, StrategyInfo> resolveStrategies(List<StrategyEvent> events) {
+    Set<Long> strategyIds = new HashSet<>();
+    events.stream()
+        .map(StrategyEvent::getStrategyId)
+        .filter(Objects::nonNull)
+        .forEach(strategyIds::add);
+    if (strategyIds.isEmpty()) {
+      return Map.of();
+    }
+    try {
+      return strategyInfoCache.getAll(strategyIds);
+    } catch (Exception e) {
+      // events of unresolved strategies fail and are reported one by one on dispatch
+      log.warn("Can not resolve strategies: {}, error: {}", strategyIds, e.getMessage());
+      return Map.of();
+    }
+  }
+
+  /** Time the per chat rate limit needs to send alerts of the chat with most events in batch. */
+  private long sendingNanos(List<StrategyEvent> events, Map<Long, StrategyInfo> strategies) {
+    Map<String, Integer> chatEvents = new HashMap<>();
+    int busiest = 0;
+    for (StrategyEvent event : events) {
+      StrategyInfo strategyInfo = strategies.get(event.getStrategyId());
+      if (strategyInfo != null && strategyInfo.getChatId() != null) {
+        busiest = Math.max(busiest, chatEvents.merge(strategyInfo.getChatId(), 1, Integer::sum));
+      }
+    }
+    return (long) (busiest / perChatPerSecond * TimeUnit.SECONDS.toNanos(1));
+  }
+
+  private void acknowledge(
+      Channel channel,
+      List<Message> messages,
+      List<Message> accepted,
+      List<Message> rejected,
+      List<Message> failed)
+      throws IOException {
+    accepted.forEach(this::forgetFailures);
+    if (accepted.size() == messages.size()) {
+      channel.basicAck(maxDeliveryTag(messages), true);
+      return;
+    }
+    log.warn(
+        "Batch processed partially, events: {}, rejected: {}, failed: {}",
+        messages.size(),
+        rejected.size(),
+        failed.size());
+    for (Message message : accepted) {
+      channel.basicAck(deliveryTag(message), false);
+    }
+    for (Message message : rejected) {
+      channel.basicNack(deliveryTag(message), false, false);
+    }
+    for (Message message : failed) {
+      channel.basicNack(deliveryTag(message), false, isRequeued(message));
+    }
+  }
+
+  private boolean isRequeued(Message message) {
+    if (!properties.isRequeueFailed()) {
+      return false;
+    }
+    MessageProperties messageProperties = message.getMessageProperties();
+    boolean requeued =
+        messageProperties.getHeader(DELIVERY_COUNT) instanceof Number deliveryCount
+            ? deliveryCount.longValue() < properties.getMaxRedeliveries()
+            : countFailure(message) <= properties.getMaxRedeliveries();
+    if (!requeued) {
+      forgetFailures(message);
+      log.error("Strategy event failed after redeliveries, rejected: {}", messageProperties);
+    }
+    return requeued;
+  }
+
+  /**
+   * Counts failure of a classic queue message. Its first failure on another replica or before
+   * restart is known only from the redelivered flag, so redeliveries are counted per replica.
+   *
+   * @param message failed message
+   * @return failures of message
+   */
+  private int countFailure(Message message) {
+    boolean redelivered = Boolean.TRUE.equals(message.getMessageProperties().getRedelivered());
+    int previous = failures.getOrDefault(failureKey(message), redelivered ? 1 : 0);
+    failures.put(failureKey(message), previous + 1);
+    return previous + 1;
+  }
+
+  private void forgetFailures(Message message) {
+    if (!failures.isEmpty()) {
+      failures.remove(failureKey(message));
+    }
+  }
+
+  private static Object failureKey(Message message) {
+    String messageId = message.getMessageProperties().getMessageId();
+    return messageId != null ? messageId : ByteBuffer.wrap(message.getBody());
+  }
+
+  private static long maxDeliveryTag(List<Message> messages) {
+    long max = 0;
+    for (Message message : messages) {
+      max = Math.max(max, deliveryTag(message));
+    }
+    return max;
+  }
+
+  private static long deliveryTag(Message message) {
+    return message.getMessageProperties().getDeliveryTag();
+  }
+}
@@ -0,0 +1,49 @@
+package algo.trading.tgalerter.listener;
+
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rabbit listener for strategy change notifications of Trade Orchestrator. Every replica binds its
+ * own queue to the fanout exchange and drops cached StrategyInfo and route of the changed strategy,
+ * so a strategy moved to another chat is alerted there with the next event.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    value = "integration.orchestrator.cache.invalidation.enabled",
+    havingValue = "true")
+public class StrategyChangeListener {
+  /**
+   * Strategy change notification.
+   *
+   * @param strategyId changed strategy, null if all strategies may have changed
+   */
+  public record StrategyChange(Long strategyId) {}
+
+  private final StrategyInfoCache strategyInfoCache;
+
+  @RabbitListener(
+      bindings =
+          @QueueBinding(
+              value = @Queue,
+              exchange =
+                  @Exchange(
+                      value = "${integration.orchestrator.cache.invalidation.exchange}",
+                      type = "fanout")))
+  void onChange(StrategyChange change) {
+    if (change.strategyId() == null) {
+      strategyInfoCache.invalidateAll();
+    } else {
+      strategyInfoCache.invalidate(change.strategyId());
+    }
+  }
+}
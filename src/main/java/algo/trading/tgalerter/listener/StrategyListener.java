@@ -2,33 +2,50 @@ package algo.trading.tgalerter.listener;
 
 import algo.trading.common.dto.EventType;
 import algo.trading.common.dto.StrategyEvent;
-import algo.trading.tgalerter.service.EventService;
-import algo.trading.tgalerter.service.HandleErrorsService;
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 
-/** Rabbit listeners for strategy events. */
+/**
+ * Rabbit listeners for strategy events. Disabled when batch listener is enabled or events are
+ * consumed from partition queues.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnExpression("!${listener.batch.enabled:false} && !${partitioning.enabled:false}")
 public class StrategyListener {
-  private final EventService eventService;
-  private final HandleErrorsService handleErrorsService;
+  private final EventDispatcher eventDispatcher;
+  private final EventMessageReader eventMessageReader;
 
-  /** Listener for strategy event queue. */
+  /**
+   * Listener for strategy event queue. TICK events are dropped before deserialization, other
+   * events are processed as in {@link #processStrategyEvent(StrategyEvent)}.
+   */
   @RabbitListener(queues = "${stage}_alert_event_q", concurrency = "1")
-  void processStrategyEvent(StrategyEvent event) {
-    try {
-      log.trace("Got event {}", event);
-      if (isProcessedEvent(event)) {
-        eventService.processEvent(event);
-      }
-    } catch (Exception e) {
-      log.error("Error processing strategy event = {}", event, e);
-      handleErrorsService.handleError(e, event);
+  CompletableFuture<Void> processStrategyMessage(Message message) {
+    if (!eventMessageReader.isProcessed(message)) {
+      return CompletableFuture.completedFuture(null);
     }
+    return processStrategyEvent(eventMessageReader.read(message));
+  }
+
+  /**
+   * Processes strategy event. The message is acked when returned future completes, so consumer
+   * keeps reading while earlier events are still being delivered by their partitions. Failed events
+   * are reported to the error chat by dispatcher and acked as well.
+   */
+  CompletableFuture<Void> processStrategyEvent(StrategyEvent event) {
+    log.trace("Got event {}", event);
+    if (!isProcessedEvent(event)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return eventDispatcher.dispatch(event).exceptionally(e -> null);
   }
 
   private boolean isProcessedEvent(StrategyEvent event) {
@@ -0,0 +1,82 @@
+package algo.trading.tgalerter.partition;
+
+import algo.trading.tgalerter.config.PartitioningProperties;
+import algo.trading.tgalerter.config.RabbitConfig;
+import algo.trading.tgalerter.listener.EventMessageReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves events from the strategy event queue to partition queues by strategyId. The consumer is
+ * exclusive, so one replica forwards at a time and event order is kept, other replicas retry to
+ * take over. TICK events are dropped here, and only strategy id is read from the others to route
+ * them. Events are published in the transaction of the consumed batch, so a batch is acked only
+ * together with its forwarded copies.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "partitioning.enabled", havingValue = "true")
+public class EventForwarder {
+  private final EventMessageReader eventMessageReader;
+  private final PartitioningProperties properties;
+  private final RabbitTemplate rabbitTemplate;
+  private final Counter forwardedCounter;
+
+  /**
+   * Creates forwarder.
+   *
+   * @param eventMessageReader reader of raw messages
+   * @param properties partitioning settings
+   * @param connectionFactory broker connection factory
+   * @param meterRegistry registry for forwarded events counter
+   */
+  public EventForwarder(
+      EventMessageReader eventMessageReader,
+      PartitioningProperties properties,
+      ConnectionFactory connectionFactory,
+      MeterRegistry meterRegistry) {
+    this.eventMessageReader = eventMessageReader;
+    this.properties = properties;
+    this.rabbitTemplate = new RabbitTemplate(connectionFactory);
+    rabbitTemplate.setChannelTransacted(true);
+    this.forwardedCounter =
+        Counter.builder("alerter.partitions.forwarded")
+            .description("Events forwarded to partition queues")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Forwards batch of strategy event messages.
+   *
+   * @param messages raw messages
+   */
+  @RabbitListener(
+      queues = "${stage}_alert_event_q",
+      exclusive = true,
+      concurrency = "1",
+      containerFactory = RabbitConfig.FORWARDER_CONTAINER_FACTORY)
+  void forward(List<Message> messages) {
+    for (Message message : messages) {
+      if (!eventMessageReader.isProcessed(message)) {
+        continue;
+      }
+      int partition = partition(message);
+      rabbitTemplate.send(properties.getExchange(), Integer.toString(partition), message);
+      forwardedCounter.increment();
+    }
+  }
+
+  private int partition(Message message) {
+    // unreadable messages go to partition 0, its consumer reports them
+    return PartitionAssignor.partition(
+        eventMessageReader.strategyId(message), properties.getPartitions());
+  }
+}
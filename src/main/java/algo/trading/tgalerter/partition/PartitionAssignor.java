@@ -0,0 +1,229 @@
+package algo.trading.tgalerter.partition;
+
+import algo.trading.tgalerter.config.PartitioningProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assigns partitions to live replicas. Every replica publishes heartbeats to a fanout exchange and
+ * tracks the others from their heartbeats, a replica is dropped after memberTimeout without one or
+ * right away when it announces shutdown. Partitions are assigned by rendezvous hashing, so every
+ * replica computes the same assignment from the same member set and a membership change moves only
+ * the partitions of joined or left replicas. A joining replica takes partitions only after two
+ * heartbeat intervals, when it has heard from the others.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "partitioning.enabled", havingValue = "true")
+public class PartitionAssignor {
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  /**
+   * Replica heartbeat.
+   *
+   * @param memberId replica id
+   * @param leaving true if replica is shutting down
+   */
+  public record Heartbeat(String memberId, boolean leaving) {}
+
+  private final PartitioningProperties properties;
+  private final RabbitTemplate rabbitTemplate;
+  private final String memberId;
+  private final Map<String, Long> members = new ConcurrentHashMap<>();
+  private final List<Consumer<Set<Integer>>> listeners = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService scheduler;
+  private final long startedAt = System.nanoTime();
+  private volatile Set<Integer> assigned = Set.of();
+
+  /**
+   * Creates assignor and starts heartbeats.
+   *
+   * @param properties partitioning settings
+   * @param rabbitTemplate template used to publish heartbeats
+   * @param meterRegistry registry for assignment metrics
+   */
+  public PartitionAssignor(
+      PartitioningProperties properties,
+      RabbitTemplate rabbitTemplate,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.rabbitTemplate = rabbitTemplate;
+    this.memberId =
+        properties.getMemberId() == null || properties.getMemberId().isEmpty()
+            ? UUID.randomUUID().toString()
+            : properties.getMemberId();
+    Gauge.builder("alerter.partitions.assigned", this, assignor -> assignor.assigned.size())
+        .description("Partitions consumed by this replica")
+        .register(meterRegistry);
+    Gauge.builder("alerter.partitions.members", members, Map::size)
+        .description("Live replicas known to this replica")
+        .register(meterRegistry);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("partition-assignor-"));
+    long interval = properties.getHeartbeatInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::tick, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns id of this replica.
+   *
+   * @return member id
+   */
+  public String getMemberId() {
+    return memberId;
+  }
+
+  /**
+   * Registers listener called with the full set of partitions of this replica whenever it changes,
+   * from assignor thread.
+   *
+   * @param listener assignment listener
+   */
+  public void onAssignment(Consumer<Set<Integer>> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Returns partition of strategy.
+   *
+   * @param strategyId strategy id, may be null
+   * @param partitions number of partitions
+   * @return partition number
+   */
+  public static int partition(Long strategyId, int partitions) {
+    return strategyId == null ? 0 : Math.floorMod(mix(strategyId), partitions);
+  }
+
+  /**
+   * Computes partitions owned by member, the member with the highest hash of member id and
+   * partition wins.
+   *
+   * @param memberId member to compute partitions for
+   * @param members all live members
+   * @param partitions number of partitions
+   * @return partitions of member
+   */
+  public static Set<Integer> assign(String memberId, Collection<String> members, int partitions) {
+    Set<Integer> owned = new TreeSet<>();
+    for (int partition = 0; partition < partitions; partition++) {
+      String owner = null;
+      long best = Long.MIN_VALUE;
+      for (String member : members) {
+        long weight = mix(member.hashCode() * GOLDEN_GAMMA + partition);
+        if (owner == null || weight > best || weight == best && member.compareTo(owner) < 0) {
+          owner = member;
+          best = weight;
+        }
+      }
+      if (memberId.equals(owner)) {
+        owned.add(partition);
+      }
+    }
+    return owned;
+  }
+
+  @RabbitListener(
+      bindings =
+          @QueueBinding(
+              value = @Queue,
+              exchange =
+                  @Exchange(
+                      value = "${partitioning.membership-exchange}",
+                      type = "fanout")))
+  void onHeartbeat(Heartbeat heartbeat) {
+    if (heartbeat.leaving()) {
+      if (members.remove(heartbeat.memberId()) != null) {
+        log.info("Replica left: {}", heartbeat.memberId());
+        scheduler.execute(this::rebalance);
+      }
+    } else if (members.put(heartbeat.memberId(), System.nanoTime()) == null) {
+      log.info("Replica joined: {}", heartbeat.memberId());
+      scheduler.execute(this::rebalance);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    scheduler.shutdownNow();
+    try {
+      rabbitTemplate.convertAndSend(
+          properties.getMembershipExchange(), "", new Heartbeat(memberId, true));
+    } catch (Exception e) {
+      log.warn("Can not announce shutdown: {}", e.getMessage());
+    }
+  }
+
+  private void tick() {
+    try {
+      rabbitTemplate.convertAndSend(
+          properties.getMembershipExchange(), "", new Heartbeat(memberId, false));
+    } catch (Exception e) {
+      log.warn("Can not send heartbeat: {}", e.getMessage());
+    }
+    long now = System.nanoTime();
+    long timeout = properties.getMemberTimeout().toNanos();
+    members
+        .entrySet()
+        .removeIf(
+            member -> {
+              boolean expired =
+                  !member.getKey().equals(memberId) && now - member.getValue() > timeout;
+              if (expired) {
+                log.info("Replica timed out: {}", member.getKey());
+              }
+              return expired;
+            });
+    rebalance();
+  }
+
+  private void rebalance() {
+    if (System.nanoTime() - startedAt < 2 * properties.getHeartbeatInterval().toNanos()) {
+      return;
+    }
+    Set<String> live = new TreeSet<>(members.keySet());
+    live.add(memberId);
+    Set<Integer> next = assign(memberId, live, properties.getPartitions());
+    if (next.equals(assigned)) {
+      return;
+    }
+    log.info("Assigned partitions: {}, replicas: {}", next, live);
+    assigned = next;
+    for (Consumer<Set<Integer>> listener : listeners) {
+      try {
+        listener.accept(next);
+      } catch (RuntimeException e) {
+        log.error("Partition assignment listener failed", e);
+      }
+    }
+  }
+
+  private static long mix(long value) {
+    long z = value * GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
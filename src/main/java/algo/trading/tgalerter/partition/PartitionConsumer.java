@@ -0,0 +1,272 @@
+package algo.trading.tgalerter.partition;
+
+import algo.trading.tgalerter.config.PartitioningProperties;
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import algo.trading.tgalerter.listener.EventMessageReader;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.ShutdownSignalException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.RabbitUtils;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes partition queues assigned to this replica by {@link PartitionAssignor}, each on its own
+ * channel. Partition queues have a single active consumer, so while a partition moves the new
+ * owner starts receiving only after the old one cancelled its consumer. A released partition is
+ * drained: its consumer is cancelled first, so no new deliveries arrive, and its channel is closed
+ * only after events in flight were processed and acked, or after drainTimeout, when the broker
+ * requeues what is left to the new owner. The new owner may start on later events of the partition
+ * while the drained ones finish. Messages are acked when their events are processed, the same way
+ * as in {@link algo.trading.tgalerter.listener.StrategyListener}. Channels closed by the broker are
+ * reopened after heartbeatInterval while their partition is assigned.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "partitioning.enabled", havingValue = "true")
+public class PartitionConsumer {
+  private final EventDispatcher eventDispatcher;
+  private final EventMessageReader eventMessageReader;
+  private final PartitioningProperties properties;
+  private final ConnectionFactory connectionFactory;
+  private final Integer prefetch;
+  private final MessagePropertiesConverter propertiesConverter =
+      new DefaultMessagePropertiesConverter();
+  private final ScheduledExecutorService restarter;
+  private final Set<Integer> assigned = new TreeSet<>();
+  private final Map<Integer, PartitionChannel> consumed = new HashMap<>();
+  private boolean stopped;
+
+  /**
+   * Creates consumer and subscribes it to partition assignment.
+   *
+   * @param eventDispatcher dispatcher of events
+   * @param eventMessageReader reader of raw messages
+   * @param properties partitioning settings
+   * @param connectionFactory broker connection factory
+   * @param rabbitProperties listener prefetch settings
+   * @param partitionAssignor assignor of partitions to replicas
+   */
+  public PartitionConsumer(
+      EventDispatcher eventDispatcher,
+      EventMessageReader eventMessageReader,
+      PartitioningProperties properties,
+      ConnectionFactory connectionFactory,
+      RabbitProperties rabbitProperties,
+      PartitionAssignor partitionAssignor) {
+    this.eventDispatcher = eventDispatcher;
+    this.eventMessageReader = eventMessageReader;
+    this.properties = properties;
+    this.connectionFactory = connectionFactory;
+    this.prefetch = rabbitProperties.getListener().getSimple().getPrefetch();
+    this.restarter =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("partition-consumer-"));
+    partitionAssignor.onAssignment(this::assign);
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    stopped = true;
+    restarter.shutdownNow();
+    consumed.values().forEach(PartitionChannel::close);
+    consumed.clear();
+  }
+
+  private synchronized void assign(Set<Integer> partitions) {
+    if (stopped) {
+      return;
+    }
+    Set<Integer> removed = new TreeSet<>(assigned);
+    removed.removeAll(partitions);
+    Set<Integer> added = new TreeSet<>(partitions);
+    added.removeAll(assigned);
+    assigned.removeAll(removed);
+    assigned.addAll(added);
+    for (Integer partition : removed) {
+      PartitionChannel consumer = consumed.remove(partition);
+      if (consumer != null) {
+        consumer.release();
+      }
+    }
+    for (Integer partition : added) {
+      start(partition);
+    }
+    log.info("Consumed partitions: {}, released: {}, taken: {}", assigned, removed, added);
+  }
+
+  /**
+   * Reopens failed consumer of partition, unless partition was released or consumer replaced.
+   *
+   * @param partition partition to consume
+   * @param failed failed consumer, null if its channel could not be opened
+   */
+  private synchronized void restart(int partition, PartitionChannel failed) {
+    if (stopped || !assigned.contains(partition) || consumed.get(partition) != failed) {
+      return;
+    }
+    if (failed != null) {
+      consumed.remove(partition);
+      failed.close();
+    }
+    start(partition);
+  }
+
+  private void start(int partition) {
+    PartitionChannel consumer = null;
+    try {
+      consumer = new PartitionChannel(partition);
+      consumed.put(partition, consumer);
+      consumer.consume();
+    } catch (Exception e) {
+      log.error("Can not consume partition: {}, retry later", partition, e);
+      scheduleRestart(partition, consumer);
+    }
+  }
+
+  private void scheduleRestart(int partition, PartitionChannel failed) {
+    try {
+      restarter.schedule(
+          () -> restart(partition, failed),
+          properties.getHeartbeatInterval().toMillis(),
+          TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      log.debug("Consumer is stopped, partition: {} is not restarted", partition);
+    }
+  }
+
+  private final class PartitionChannel extends DefaultConsumer {
+    private final int partition;
+    private final String queue;
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean released;
+
+    private PartitionChannel(int partition) {
+      super(connectionFactory.createConnection().createChannel(false));
+      this.partition = partition;
+      this.queue = properties.queueName(partition);
+    }
+
+    private void consume() throws IOException {
+      if (prefetch != null) {
+        getChannel().basicQos(prefetch);
+      }
+      getChannel().basicConsume(queue, false, this);
+    }
+
+    @Override
+    public void handleDelivery(
+        String consumerTag, Envelope envelope, AMQP.BasicProperties props, byte[] body)
+        throws IOException {
+      MessageProperties messageProperties =
+          propertiesConverter.toMessageProperties(
+              props, envelope, StandardCharsets.UTF_8.name());
+      messageProperties.setConsumerQueue(queue);
+      messageProperties.setConsumerTag(consumerTag);
+      Message message = new Message(body, messageProperties);
+      long deliveryTag = envelope.getDeliveryTag();
+      CompletableFuture<Void> processed;
+      try {
+        processed = eventDispatcher.dispatch(eventMessageReader.read(message));
+      } catch (MessageConversionException e) {
+        log.error("Can not read strategy event: {}", new String(body), e);
+        getChannel().basicNack(deliveryTag, false, false);
+        return;
+      } catch (RuntimeException e) {
+        // an exception thrown out of the callback would close the channel
+        log.error("Can not dispatch strategy event: {}", new String(body), e);
+        ack(deliveryTag);
+        return;
+      }
+      inFlight.add(processed);
+      processed.whenComplete(
+          (v, e) -> {
+            ack(deliveryTag);
+            inFlight.remove(processed);
+          });
+    }
+
+    @Override
+    public void handleCancelOk(String consumerTag) {
+      // called after all deliveries preceding the cancel were handled
+      drain();
+    }
+
+    @Override
+    public void handleCancel(String consumerTag) {
+      // queue was deleted or its node went down
+      log.warn("Consumer of partition: {} was cancelled by broker", partition);
+      scheduleRestart(partition, this);
+    }
+
+    @Override
+    public void handleShutdownSignal(String consumerTag, ShutdownSignalException sig) {
+      if (!released && !sig.isInitiatedByApplication()) {
+        log.warn("Channel of partition: {} was closed: {}", partition, sig.getMessage());
+        scheduleRestart(partition, this);
+      }
+    }
+
+    /** Cancels consumer, its channel is closed once events in flight are acked. */
+    private void release() {
+      released = true;
+      try {
+        getChannel().basicCancel(getConsumerTag());
+      } catch (Exception e) {
+        log.warn("Can not cancel consumer of partition: {}, error: {}", partition, e.getMessage());
+        drain();
+      }
+    }
+
+    private void drain() {
+      CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+          .completeOnTimeout(null, properties.getDrainTimeout().toMillis(), TimeUnit.MILLISECONDS)
+          .whenComplete(
+              (v, e) -> {
+                log.info("Drained partition: {}, not acked: {}", partition, inFlight.size());
+                close();
+              });
+    }
+
+    private void close() {
+      released = true;
+      if (getChannel().isOpen()) {
+        RabbitUtils.setPhysicalCloseRequired(getChannel(), true);
+        RabbitUtils.closeChannel(getChannel());
+      }
+    }
+
+    private void ack(long deliveryTag) {
+      try {
+        getChannel().basicAck(deliveryTag, false);
+      } catch (Exception e) {
+        // channel was closed, broker redelivers the message to the current partition owner
+        log.warn("Can not ack message: {}, error: {}", deliveryTag, e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package algo.trading.tgalerter.partition;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.tgalerter.config.PartitioningProperties;
+import algo.trading.tgalerter.service.EventSubscriptionManager;
+import algo.trading.tgalerter.service.SubscriptionRule;
+import algo.trading.tgalerter.service.SubscriptionRules;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replicates subscription and rule changes between replicas. Local changes are applied to the
+ * configured subscription store and published to a fanout exchange, changes of other replicas are
+ * applied to the store without publishing. On startup replica requests a snapshot of the whole
+ * state from the others, changes received while waiting for it are applied again after the
+ * snapshot. Changes of different replicas to the same chat are not ordered, the last one received
+ * wins.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(value = "partitioning.enabled", havingValue = "true")
+public class ReplicatedSubscriptions implements EventSubscriptionManager {
+  /** Kinds of replicated changes. */
+  public enum ChangeType {
+    SUBSCRIBE,
+    UNSUBSCRIBE,
+    RULES,
+    SYNC_REQUEST,
+    SNAPSHOT
+  }
+
+  /**
+   * Replicated change.
+   *
+   * @param origin replica that published change
+   * @param type change kind
+   * @param chatId changed chat
+   * @param eventType event type of subscription change
+   * @param rules all rules of chat after rules change
+   * @param target replica snapshot is meant for
+   * @param unsubscriptions unsubscriptions of all chats in snapshot
+   * @param allRules rules of all chats in snapshot
+   */
+  public record Change(
+      String origin,
+      ChangeType type,
+      String chatId,
+      EventType eventType,
+      List<SubscriptionRule> rules,
+      String target,
+      Map<String, Set<EventType>> unsubscriptions,
+      Map<String, List<SubscriptionRule>> allRules) {}
+
+  private final EventSubscriptionManager store;
+  private final SubscriptionRules subscriptionRules;
+  private final RabbitTemplate rabbitTemplate;
+  private final PartitioningProperties properties;
+  private final String memberId;
+  private final ScheduledExecutorService publisher;
+  private final List<Change> receivedWhileSyncing = new ArrayList<>();
+  private boolean syncing;
+
+  /**
+   * Creates replicated store.
+   *
+   * @param store configured subscription store
+   * @param subscriptionRules subscription rules
+   * @param rabbitTemplate template used to publish changes
+   * @param properties partitioning settings
+   * @param partitionAssignor source of replica id
+   */
+  public ReplicatedSubscriptions(
+      EventSubscriptionManager store,
+      SubscriptionRules subscriptionRules,
+      RabbitTemplate rabbitTemplate,
+      PartitioningProperties properties,
+      PartitionAssignor partitionAssignor) {
+    this.store = store;
+    this.subscriptionRules = subscriptionRules;
+    this.rabbitTemplate = rabbitTemplate;
+    this.properties = properties;
+    this.memberId = partitionAssignor.getMemberId();
+    this.publisher =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("subscriptions-replicator-"));
+    subscriptionRules.onChange(
+        chatId ->
+            publish(
+                change(ChangeType.RULES, chatId, null, subscriptionRules.getRules(chatId))));
+  }
+
+  @Override
+  public void subscribe(String chatId, EventType eventType) {
+    store.subscribe(chatId, eventType);
+    publish(change(ChangeType.SUBSCRIBE, chatId, eventType, null));
+  }
+
+  @Override
+  public void subscribe(long chatId, EventType eventType) {
+    store.subscribe(chatId, eventType);
+    publish(change(ChangeType.SUBSCRIBE, Long.toString(chatId), eventType, null));
+  }
+
+  @Override
+  public void unsubscribe(String chatId, EventType eventType) {
+    store.unsubscribe(chatId, eventType);
+    publish(change(ChangeType.UNSUBSCRIBE, chatId, eventType, null));
+  }
+
+  @Override
+  public void unsubscribe(long chatId, EventType eventType) {
+    store.unsubscribe(chatId, eventType);
+    publish(change(ChangeType.UNSUBSCRIBE, Long.toString(chatId), eventType, null));
+  }
+
+  @Override
+  public boolean isSubscribed(String chatId, EventType eventType) {
+    return store.isSubscribed(chatId, eventType);
+  }
+
+  @Override
+  public boolean isSubscribed(long chatId, EventType eventType) {
+    return store.isSubscribed(chatId, eventType);
+  }
+
+  @Override
+  public void forEachUnsubscription(BiConsumer<String, EventType> action) {
+    store.forEachUnsubscription(action);
+  }
+
+  /** Requests snapshot of subscriptions from other replicas, gives up after memberTimeout. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void requestSync() {
+    synchronized (receivedWhileSyncing) {
+      syncing = true;
+    }
+    publish(change(ChangeType.SYNC_REQUEST, null, null, null));
+    publisher.schedule(
+        this::finishSync, properties.getMemberTimeout().toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @RabbitListener(
+      bindings =
+          @QueueBinding(
+              value = @Queue,
+              exchange =
+                  @Exchange(
+                      value = "${partitioning.subscriptions-exchange}",
+                      type = "fanout")))
+  void onChange(Change change) {
+    if (memberId.equals(change.origin())) {
+      return;
+    }
+    switch (change.type()) {
+      case SYNC_REQUEST -> sendSnapshot(change.origin());
+      case SNAPSHOT -> {
+        if (memberId.equals(change.target())) {
+          applySnapshot(change);
+        }
+      }
+      default -> {
+        synchronized (receivedWhileSyncing) {
+          if (syncing) {
+            receivedWhileSyncing.add(change);
+          }
+        }
+        apply(change);
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    publisher.shutdown();
+    try {
+      publisher.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void apply(Change change) {
+    log.debug("Apply replicated change: {}", change);
+    switch (change.type()) {
+      case SUBSCRIBE -> store.subscribe(change.chatId(), change.eventType());
+      case UNSUBSCRIBE -> store.unsubscribe(change.chatId(), change.eventType());
+      case RULES -> subscriptionRules.replace(change.chatId(), change.rules());
+      default -> log.warn("Unexpected replicated change: {}", change.type());
+    }
+  }
+
+  private void sendSnapshot(String target) {
+    synchronized (receivedWhileSyncing) {
+      if (syncing) {
+        return;
+      }
+    }
+    Map<String, Set<EventType>> unsubscriptions = new HashMap<>();
+    store.forEachUnsubscription(
+        (chatId, eventType) ->
+            unsubscriptions
+                .computeIfAbsent(chatId, k -> EnumSet.noneOf(EventType.class))
+                .add(eventType));
+    publish(
+        new Change(
+            memberId,
+            ChangeType.SNAPSHOT,
+            null,
+            null,
+            null,
+            target,
+            unsubscriptions,
+            subscriptionRules.snapshot()));
+  }
+
+  private void applySnapshot(Change snapshot) {
+    synchronized (receivedWhileSyncing) {
+      if (!syncing) {
+        return;
+      }
+      log.info(
+          "Apply subscriptions snapshot from: {}, chats with unsubscriptions: {}, with rules: {}",
+          snapshot.origin(),
+          snapshot.unsubscriptions().size(),
+          snapshot.allRules().size());
+      List<Map.Entry<String, EventType>> current = new ArrayList<>();
+      store.forEachUnsubscription((chatId, eventType) -> current.add(Map.entry(chatId, eventType)));
+      for (Map.Entry<String, EventType> entry : current) {
+        Set<EventType> unsubscribed = snapshot.unsubscriptions().get(entry.getKey());
+        if (unsubscribed == null || !unsubscribed.contains(entry.getValue())) {
+          store.subscribe(entry.getKey(), entry.getValue());
+        }
+      }
+      snapshot
+          .unsubscriptions()
+          .forEach((chatId, eventTypes) -> eventTypes.forEach(t -> store.unsubscribe(chatId, t)));
+      Set<String> chats = new HashSet<>(subscriptionRules.snapshot().keySet());
+      chats.removeAll(snapshot.allRules().keySet());
+      chats.forEach(chatId -> subscriptionRules.replace(chatId, List.of()));
+      snapshot.allRules().forEach(subscriptionRules::replace);
+      receivedWhileSyncing.forEach(this::apply);
+      receivedWhileSyncing.clear();
+      syncing = false;
+    }
+  }
+
+  private void finishSync() {
+    synchronized (receivedWhileSyncing) {
+      if (syncing) {
+        log.info("No subscriptions snapshot received, keeping local state");
+        receivedWhileSyncing.clear();
+        syncing = false;
+      }
+    }
+  }
+
+  private Change change(
+      ChangeType type, String chatId, EventType eventType, List<SubscriptionRule> rules) {
+    return new Change(memberId, type, chatId, eventType, rules, null, null, null);
+  }
+
+  private void publish(Change change) {
+    publisher.execute(
+        () -> {
+          try {
+            rabbitTemplate.convertAndSend(properties.getSubscriptionsExchange(), "", change);
+          } catch (Exception e) {
+            log.error("Can not replicate subscription change: {}", change.type(), e);
+          }
+        });
+  }
+}
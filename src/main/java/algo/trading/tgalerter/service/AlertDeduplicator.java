@@ -0,0 +1,234 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.DeduplicationProperties;
+import algo.trading.tgalerter.listener.RawOrderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops events whose alert was already sent within the window, such as events redelivered after a
+ * consumer restart. Events are fingerprinted by strategyId, type, time, state and order guid into a
+ * 64 bit hash. Fingerprints are kept in a timing wheel of fixed size open addressing hash sets, one
+ * per window slice, and the oldest slice is cleared when the wheel turns. Check and insert cost a
+ * probe per slice, memory is allocated once. Events without time are never dropped, since repeated
+ * events of a strategy can not be told apart from redelivered ones. Alerts still being sent are
+ * tracked, so a redelivery arriving meanwhile can wait for the outcome instead of being dropped.
+ */
+@Slf4j
+@Component
+public class AlertDeduplicator {
+  private static final long EMPTY = 0;
+  private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
+  private static final CompletableFuture<Void> SENT = CompletableFuture.completedFuture(null);
+
+  private final boolean enabled;
+  private final long[][] slices;
+  private final int[] sizes;
+  private final int mask;
+  private final int maxSize;
+  private final long sliceNanos;
+  private final LongSupplier nanoClock;
+  private final Counter duplicatesCounter;
+  private final Map<Long, CompletableFuture<Void>> sending = new ConcurrentHashMap<>();
+  private int current;
+  private long sliceStartedAt;
+
+  /**
+   * Creates deduplicator and allocates fingerprint tables.
+   *
+   * @param properties deduplication settings
+   * @param meterRegistry registry for duplicates counter
+   */
+  @Autowired
+  public AlertDeduplicator(DeduplicationProperties properties, MeterRegistry meterRegistry) {
+    this(properties, meterRegistry, System::nanoTime);
+  }
+
+  AlertDeduplicator(
+      DeduplicationProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+    this.enabled = properties.isEnabled();
+    int sliceCount = enabled ? properties.getSlices() : 1;
+    long perSlice = properties.getMemoryBudget().toBytes() / Long.BYTES / sliceCount;
+    int capacity = enabled ? Integer.highestOneBit((int) Math.min(1 << 30, perSlice)) : 1;
+    capacity = Math.max(capacity, 16);
+    this.slices = new long[sliceCount][enabled ? capacity : 0];
+    this.sizes = new int[sliceCount];
+    this.mask = capacity - 1;
+    this.maxSize = capacity / 2;
+    this.sliceNanos = Math.max(1, properties.getWindow().toNanos() / sliceCount);
+    this.nanoClock = nanoClock;
+    this.sliceStartedAt = nanoClock.getAsLong();
+    this.duplicatesCounter =
+        Counter.builder("alerter.events.duplicates")
+            .description("Events dropped because their alert was already sent")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Remembers event if it was not seen within window.
+   *
+   * @param event strategy event
+   * @return false if event was already seen and its alert should not be sent
+   */
+  public boolean markIfNew(StrategyEvent event) {
+    return markIfNew(event, SENT) == null;
+  }
+
+  /**
+   * Remembers event if it was not seen within window and tracks its alert until it is sent.
+   *
+   * @param event strategy event
+   * @param alert future completed once alert of the event is sent or has failed and was unmarked
+   * @return null if event is new, otherwise alert of the seen event, completed if already sent
+   */
+  public CompletableFuture<Void> markIfNew(StrategyEvent event, CompletableFuture<Void> alert) {
+    if (!enabled || event.getTime() == null) {
+      return null;
+    }
+    long fingerprint = fingerprint(event);
+    synchronized (this) {
+      turn();
+      for (long[] slice : slices) {
+        if (indexOf(slice, fingerprint) >= 0) {
+          duplicatesCounter.increment();
+          log.debug("Duplicate event: {}", event);
+          return sending.getOrDefault(fingerprint, SENT);
+        }
+      }
+      if (sizes[current] >= maxSize) {
+        advance();
+      }
+      insert(slices[current], fingerprint);
+      sizes[current]++;
+      if (!alert.isDone()) {
+        sending.put(fingerprint, alert);
+      }
+    }
+    alert.whenComplete((v, e) -> sending.remove(fingerprint, alert));
+    return null;
+  }
+
+  /**
+   * Forgets event, so its redelivery is alerted again. Used when alert of the event failed.
+   *
+   * @param event strategy event
+   */
+  public void unmark(StrategyEvent event) {
+    if (!enabled || event.getTime() == null) {
+      return;
+    }
+    long fingerprint = fingerprint(event);
+    synchronized (this) {
+      for (int i = 0; i < slices.length; i++) {
+        int index = indexOf(slices[i], fingerprint);
+        if (index >= 0) {
+          remove(slices[i], index);
+          sizes[i]--;
+          return;
+        }
+      }
+    }
+  }
+
+  static long fingerprint(StrategyEvent event) {
+    long hash = FNV_OFFSET;
+    hash = hashLong(hash, event.getStrategyId() == null ? -1 : event.getStrategyId());
+    hash = hashLong(hash, event.getType() == null ? -1 : event.getType().ordinal());
+    hash = hashLong(hash, event.getTime().getEpochSecond());
+    hash = hashLong(hash, event.getTime().getNano());
+    hash = hashLong(hash, event.getState() == null ? -1 : event.getState().ordinal());
+    String guid = orderGuid(event);
+    if (guid != null) {
+      for (int i = 0; i < guid.length(); i++) {
+        hash = (hash ^ guid.charAt(i)) * FNV_PRIME;
+      }
+    }
+    hash = mix(hash);
+    return hash == EMPTY ? 1 : hash;
+  }
+
+  private static String orderGuid(StrategyEvent event) {
+    if (event instanceof RawOrderEvent rawEvent) {
+      return rawEvent.orderGuid();
+    }
+    return event.getOrder() == null ? null : event.getOrder().getGuid();
+  }
+
+  private void turn() {
+    long now = nanoClock.getAsLong();
+    long elapsed = now - sliceStartedAt;
+    if (elapsed < sliceNanos) {
+      return;
+    }
+    long turns = Math.min(elapsed / sliceNanos, slices.length);
+    for (long i = 0; i < turns; i++) {
+      advance();
+    }
+    sliceStartedAt = now;
+  }
+
+  private void advance() {
+    current = (current + 1) % slices.length;
+    Arrays.fill(slices[current], EMPTY);
+    sizes[current] = 0;
+    sliceStartedAt = nanoClock.getAsLong();
+  }
+
+  private int indexOf(long[] slice, long fingerprint) {
+    int index = (int) fingerprint & mask;
+    while (slice[index] != EMPTY) {
+      if (slice[index] == fingerprint) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void insert(long[] slice, long fingerprint) {
+    int index = (int) fingerprint & mask;
+    while (slice[index] != EMPTY) {
+      index = (index + 1) & mask;
+    }
+    slice[index] = fingerprint;
+  }
+
+  /** Removes entry with backward shift, so probe sequences stay unbroken without tombstones. */
+  private void remove(long[] slice, int index) {
+    int hole = index;
+    int next = (hole + 1) & mask;
+    while (slice[next] != EMPTY) {
+      int home = (int) slice[next] & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        slice[hole] = slice[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    slice[hole] = EMPTY;
+  }
+
+  private static long hashLong(long hash, long value) {
+    for (int i = 0; i < Long.BYTES; i++) {
+      hash = (hash ^ (value & 0xFF)) * FNV_PRIME;
+      value >>>= 8;
+    }
+    return hash;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,340 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.RetryQueueProperties;
+import algo.trading.tgalerter.util.AppendOnlyJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+/**
+ * Durable queue of alerts whose send failed. Alerts are resent by a dedicated worker pool with
+ * exponential backoff and jitter, so retries never hold dispatch workers. Every change is appended
+ * to a journal file by a background writer, pending retries are replayed on startup. Alerts that
+ * failed maxAttempts times, or were rejected by Bot API as invalid, are appended to dead-letter
+ * file.
+ */
+@Slf4j
+@Service
+public class AlertRetryQueue {
+  private static final char ADD = 'A';
+  private static final char DONE = 'D';
+  private static final String METRIC_PREFIX = "alerter.retry.";
+
+  private final TradingAlertBot tradingAlertBot;
+  private final RetryQueueProperties properties;
+  private final Map<Long, Entry> pending = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<String> deadLetters = new ConcurrentLinkedQueue<>();
+  private final Object writeLock = new Object();
+  private final AtomicLong sequence = new AtomicLong();
+  private final AppendOnlyJournal journal;
+  private final Counter enqueuedCounter;
+  private final Counter replayedCounter;
+  private final Counter deliveredCounter;
+  private final Counter failedCounter;
+  private final Counter deadLetteredCounter;
+  private ScheduledExecutorService workers;
+  private ScheduledExecutorService writer;
+
+  /**
+   * Creates queue, replays journal and starts workers when retries are enabled.
+   *
+   * @param tradingAlertBot bot used to resend alerts
+   * @param properties retry settings
+   * @param meterRegistry registry for retry metrics
+   */
+  public AlertRetryQueue(
+      TradingAlertBot tradingAlertBot,
+      RetryQueueProperties properties,
+      MeterRegistry meterRegistry) {
+    this.tradingAlertBot = tradingAlertBot;
+    this.properties = properties;
+    this.journal =
+        new AppendOnlyJournal(
+            "retries", properties.getPath(), properties.getCompactAfter(), writeLock);
+    this.enqueuedCounter =
+        Counter.builder(METRIC_PREFIX + "enqueued")
+            .description("Failed alerts queued for retry")
+            .register(meterRegistry);
+    this.replayedCounter =
+        Counter.builder(METRIC_PREFIX + "replayed")
+            .description("Pending retries restored from journal on startup")
+            .register(meterRegistry);
+    this.deliveredCounter = attemptsCounter("delivered", meterRegistry);
+    this.failedCounter = attemptsCounter("failed", meterRegistry);
+    this.deadLetteredCounter = attemptsCounter("dead_lettered", meterRegistry);
+    Gauge.builder(METRIC_PREFIX + "queue.size", pending, Map::size)
+        .description("Alerts waiting for retry")
+        .register(meterRegistry);
+    if (!properties.isEnabled()) {
+      return;
+    }
+    load();
+    this.workers =
+        Executors.newScheduledThreadPool(
+            properties.getWorkers(), new CustomizableThreadFactory("alert-retry-"));
+    this.writer =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("alert-retry-writer-"));
+    long interval = properties.getFlushInterval().toMillis();
+    writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    pending.values().forEach(this::schedule);
+  }
+
+  /**
+   * Returns whether failed alerts should be retried.
+   *
+   * @return true if retries are enabled
+   */
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Queues alert whose send failed for retry.
+   *
+   * @param chatId target chat
+   * @param message formatted alert
+   * @param error send failure
+   */
+  public void enqueue(String chatId, String message, Throwable error) {
+    Entry entry = new Entry(sequence.incrementAndGet(), chatId, message, 1, 0);
+    enqueuedCounter.increment();
+    if (!isRetryable(error)) {
+      deadLetter(entry, error);
+      return;
+    }
+    if (pending.size() >= properties.getCapacity()) {
+      deadLetter(entry, new IllegalStateException("Retry queue is full"));
+      return;
+    }
+    log.warn("Alert to chatId: {} failed, retry queued: {}", chatId, String.valueOf(error));
+    reschedule(entry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (workers == null) {
+      return;
+    }
+    workers.shutdownNow();
+    writer.shutdown();
+    try {
+      workers.awaitTermination(10, TimeUnit.SECONDS);
+      writer.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    log.info("Stopped retry queue, pending retries: {}", pending.size());
+  }
+
+  private void reschedule(Entry entry) {
+    long delay = backoff(entry.attempts);
+    entry.dueAt = System.currentTimeMillis() + delay;
+    synchronized (writeLock) {
+      pending.put(entry.id, entry);
+      journal.add(addRecord(entry));
+    }
+    schedule(entry);
+  }
+
+  private void schedule(Entry entry) {
+    long delay = Math.max(0, entry.dueAt - System.currentTimeMillis());
+    try {
+      workers.schedule(() -> attempt(entry), delay, TimeUnit.MILLISECONDS);
+    } catch (RuntimeException e) {
+      // workers are stopped, entry stays in journal and is replayed after restart
+      log.debug("Retry of alert {} not scheduled: {}", entry.id, e.getMessage());
+    }
+  }
+
+  private void attempt(Entry entry) {
+    try {
+      tradingAlertBot
+          .alertAsync(entry.message, entry.chatId)
+          .whenComplete((v, e) -> onAttempt(entry, e));
+    } catch (Exception e) {
+      onAttempt(entry, e);
+    }
+  }
+
+  private void onAttempt(Entry entry, Throwable error) {
+    if (error == null) {
+      deliveredCounter.increment();
+      done(entry);
+      return;
+    }
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    entry.attempts++;
+    if (entry.attempts >= properties.getMaxAttempts() || !isRetryable(cause)) {
+      deadLetter(entry, cause);
+      done(entry);
+      return;
+    }
+    failedCounter.increment();
+    reschedule(entry);
+  }
+
+  private void done(Entry entry) {
+    synchronized (writeLock) {
+      pending.remove(entry.id);
+      journal.add(DONE + " " + entry.id + "\n");
+    }
+  }
+
+  private void deadLetter(Entry entry, Throwable error) {
+    log.error(
+        "Alert to chatId: {} dead-lettered after {} attempts: {}",
+        entry.chatId,
+        entry.attempts,
+        String.valueOf(error));
+    deadLetteredCounter.increment();
+    deadLetters.add(
+        Instant.now()
+            + " "
+            + entry.chatId
+            + " "
+            + entry.attempts
+            + " "
+            + encode(String.valueOf(error))
+            + " "
+            + encode(entry.message)
+            + "\n");
+  }
+
+  private static Counter attemptsCounter(String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder(METRIC_PREFIX + "attempts")
+        .description("Retry attempts by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private long backoff(int attempts) {
+    long initial = properties.getInitialBackoff().toMillis();
+    long max = properties.getMaxBackoff().toMillis();
+    long delay = initial << Math.min(attempts - 1, 30);
+    delay = delay <= 0 || delay > max ? max : delay;
+    double jitter = properties.getJitter() * ThreadLocalRandom.current().nextDouble();
+    return delay - (long) (delay * jitter);
+  }
+
+  private static boolean isRetryable(Throwable error) {
+    // 400 and 403 mean invalid message or blocked bot, resending does not help
+    return !(error instanceof TelegramApiRequestException requestException)
+        || requestException.getErrorCode() == null
+        || (requestException.getErrorCode() != 400 && requestException.getErrorCode() != 403);
+  }
+
+  private void load() {
+    Map<Long, Entry> replayed = new LinkedHashMap<>();
+    journal.replay(line -> apply(line, replayed));
+    pending.putAll(replayed);
+    replayedCounter.increment(replayed.size());
+    log.info("Loaded {} pending retries from {}", replayed.size(), properties.getPath());
+  }
+
+  private void apply(String line, Map<Long, Entry> replayed) {
+    String[] parts = line.split(" ");
+    try {
+      long id = Long.parseLong(parts[1]);
+      sequence.accumulateAndGet(id, Math::max);
+      if (parts[0].charAt(0) == DONE && parts.length == 2) {
+        replayed.remove(id);
+      } else if (parts[0].charAt(0) == ADD && parts.length == 6) {
+        replayed.put(
+            id,
+            new Entry(
+                id,
+                parts[4],
+                decode(parts[5]),
+                Integer.parseInt(parts[2]),
+                Long.parseLong(parts[3])));
+      } else {
+        log.warn("Skip malformed retry record: {}", line);
+      }
+    } catch (RuntimeException e) {
+      // last record may be cut by crash during write
+      log.warn("Skip malformed retry record: {}", line);
+    }
+  }
+
+  private synchronized void flush() {
+    journal.flush(this::snapshot);
+    List<String> dead = AppendOnlyJournal.drain(deadLetters);
+    try {
+      if (!dead.isEmpty()) {
+        AppendOnlyJournal.append(properties.getDeadLetterPath(), dead);
+      }
+    } catch (IOException e) {
+      log.error("Can not write dead letters to {}", properties.getDeadLetterPath(), e);
+      deadLetters.addAll(dead);
+    }
+  }
+
+  private List<String> snapshot() {
+    List<String> snapshot = new ArrayList<>();
+    pending.values().forEach(entry -> snapshot.add(addRecord(entry)));
+    return snapshot;
+  }
+
+  private static String addRecord(Entry entry) {
+    return ADD
+        + " "
+        + entry.id
+        + " "
+        + entry.attempts
+        + " "
+        + entry.dueAt
+        + " "
+        + entry.chatId
+        + " "
+        + encode(entry.message)
+        + "\n";
+  }
+
+  private static String encode(String value) {
+    return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(String value) {
+    return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+  }
+
+  private static class Entry {
+    private final long id;
+    private final String chatId;
+    private final String message;
+    private volatile int attempts;
+    private volatile long dueAt;
+
+    private Entry(long id, String chatId, String message, int attempts, long dueAt) {
+      this.id = id;
+      this.chatId = chatId;
+      this.message = message;
+      this.attempts = attempts;
+      this.dueAt = dueAt;
+    }
+  }
+}
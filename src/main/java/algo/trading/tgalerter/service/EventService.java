@@ -1,76 +1,262 @@
 package algo.trading.tgalerter.service;
 
-import static algo.trading.tgalerter.util.FormatUtil.appendIfNotNull;
-import static algo.trading.tgalerter.util.FormatUtil.formatTime;
-
+import algo.trading.common.dto.EventType;
 import algo.trading.common.dto.StrategyEvent;
 import algo.trading.common.dto.StrategyInfo;
+import algo.trading.common.dto.StrategyState;
 import algo.trading.tgalerter.bot.TradingAlertBot;
-import algo.trading.tgalerter.integration.TradeOrchestratorIntegration;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.micrometer.common.util.StringUtils;
-import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import algo.trading.tgalerter.integration.StrategyRoutingIndex;
+import algo.trading.tgalerter.template.AlertTemplates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-/** Service for event processing. */
+/**
+ * Service for event processing. When chat of the strategy is known from {@link
+ * StrategyRoutingIndex}, subscriptions and rules are checked before StrategyInfo is resolved, so
+ * muted events do not cost an orchestrator call. Lag since event time, strategy lookup and
+ * rendering are timed and events are counted by type and state. Events already alerted are dropped
+ * by {@link AlertDeduplicator} before StrategyInfo is resolved. Alerts whose send failed are
+ * handed to {@link AlertRetryQueue} when retries are enabled, otherwise the event is forgotten by
+ * deduplicator so its redelivery is alerted. Alerts of high priority events are not coalesced and
+ * are sent ahead of queued alerts.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class EventService {
-  private final TradeOrchestratorIntegration tradeOrchestratorIntegration;
+  private static final String SKIPPED_METRIC = "alerter.events.skipped";
+  private static final String NO_STATE = "none";
+
+  private final StrategyInfoCache strategyInfoCache;
+  private final StrategyRoutingIndex strategyRoutingIndex;
   private final TradingAlertBot tradingAlertBot;
-  private final ObjectMapper objectMapper;
+  private final AlertTemplates alertTemplates;
   private final EventSubscriptionManager eventSubscriptionManager;
+  private final MessageCoalescer messageCoalescer;
+  private final SubscriptionRules subscriptionRules;
+  private final AlertRetryQueue alertRetryQueue;
+  private final AlertDeduplicator alertDeduplicator;
+  private final PriorityClassifier priorityClassifier;
+  private final Counter skippedBeforeResolution;
+  private final Counter skippedAfterResolution;
+  private final Map<EventType, Timer> lagTimers = new EnumMap<>(EventType.class);
+  private final Counter[][] processedCounters;
+  private final Timer lookupTimer;
+  private final Timer lookupErrorTimer;
+  private final Timer renderTimer;
 
-  /** Method for strategy event processing. */
-  @SneakyThrows
-  public void processEvent(StrategyEvent event) {
-    log.debug("processEvent() - start: {}", event);
-    StrategyInfo strategyInfo = tradeOrchestratorIntegration.getStrategyInfo(event.getStrategyId());
-    if (!eventSubscriptionManager.isSubscribed(strategyInfo.getChatId(), event.getType())) {
-      log.debug(
-          "processEvent() - no subscribed on eventType: {} for chatId: {}",
-          event.getType(),
-          strategyInfo.getChatId());
-      return;
+  /**
+   * Creates service.
+   *
+   * @param strategyInfoCache cache of strategies
+   * @param strategyRoutingIndex known chats of strategies
+   * @param tradingAlertBot bot used to send alerts
+   * @param alertTemplates alert templates
+   * @param eventSubscriptionManager subscriptions of chats
+   * @param messageCoalescer digest builder
+   * @param subscriptionRules rules of chats
+   * @param alertRetryQueue queue of failed alerts
+   * @param alertDeduplicator filter of already alerted events
+   * @param priorityClassifier classifier of high priority events
+   * @param meterRegistry registry for event processing metrics
+   */
+  public EventService(
+      StrategyInfoCache strategyInfoCache,
+      StrategyRoutingIndex strategyRoutingIndex,
+      TradingAlertBot tradingAlertBot,
+      AlertTemplates alertTemplates,
+      EventSubscriptionManager eventSubscriptionManager,
+      MessageCoalescer messageCoalescer,
+      SubscriptionRules subscriptionRules,
+      AlertRetryQueue alertRetryQueue,
+      AlertDeduplicator alertDeduplicator,
+      PriorityClassifier priorityClassifier,
+      MeterRegistry meterRegistry) {
+    this.strategyInfoCache = strategyInfoCache;
+    this.strategyRoutingIndex = strategyRoutingIndex;
+    this.tradingAlertBot = tradingAlertBot;
+    this.alertTemplates = alertTemplates;
+    this.eventSubscriptionManager = eventSubscriptionManager;
+    this.messageCoalescer = messageCoalescer;
+    this.subscriptionRules = subscriptionRules;
+    this.alertRetryQueue = alertRetryQueue;
+    this.alertDeduplicator = alertDeduplicator;
+    this.priorityClassifier = priorityClassifier;
+    this.skippedBeforeResolution = skippedCounter("before_resolution", meterRegistry);
+    this.skippedAfterResolution = skippedCounter("after_resolution", meterRegistry);
+    StrategyState[] states = StrategyState.values();
+    this.processedCounters = new Counter[EventType.values().length][states.length + 1];
+    for (EventType type : EventType.values()) {
+      lagTimers.put(
+          type,
+          Timer.builder("alerter.events.lag")
+              .description("Time from event creation to start of its processing")
+              .tag("type", type.name())
+              .register(meterRegistry));
+      Counter[] byState = processedCounters[type.ordinal()];
+      for (StrategyState state : states) {
+        byState[state.ordinal()] = processedCounter(type, state.name(), meterRegistry);
+      }
+      byState[states.length] = processedCounter(type, NO_STATE, meterRegistry);
     }
-    String formattedEventMessage = formatEventMessage(event, strategyInfo);
-    tradingAlertBot.alert(formattedEventMessage, strategyInfo.getChatId());
-    log.debug("processEvent() - end: {}", event);
+    this.lookupTimer = lookupTimer("success", meterRegistry);
+    this.lookupErrorTimer = lookupTimer("error", meterRegistry);
+    this.renderTimer =
+        Timer.builder("alerter.events.render")
+            .description("Time to render alert message")
+            .register(meterRegistry);
   }
 
-  @SneakyThrows
-  private String formatEventMessage(StrategyEvent event, StrategyInfo strategyInfo) {
-    if (event == null) {
-      return "Null event received";
+  /**
+   * Method for strategy event processing.
+   *
+   * @param event strategy event
+   * @param executor executor a redelivered event is processed on again when alert of its original
+   *     failed, instead of the thread that completed the original alert
+   * @return future completed when alert is sent, or right away if chat is not subscribed. For a
+   *     redelivered event completed when alert of the original is sent, or the event is alerted
+   *     again if that failed
+   */
+  public CompletableFuture<Void> processEvent(StrategyEvent event, Executor executor) {
+    log.debug("processEvent() - start: {}", event);
+    record(event);
+    String knownChatId = strategyRoutingIndex.getChatId(event.getStrategyId());
+    if (knownChatId != null && isMuted(knownChatId, event, null)) {
+      skippedBeforeResolution.increment();
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> alerted = new CompletableFuture<>();
+    CompletableFuture<Void> original = alertDeduplicator.markIfNew(event, alerted);
+    if (original != null) {
+      // redelivered while its alert may still fail, settled by outcome of the original alert
+      return original
+          .handle((v, e) -> e)
+          .thenComposeAsync(e -> e == null ? original : processEvent(event, executor), executor);
     }
+    CompletableFuture<Void> result;
+    try {
+      StrategyInfo strategyInfo = getStrategyInfo(event.getStrategyId());
+      if (isMuted(strategyInfo.getChatId(), event, strategyInfo)) {
+        skippedAfterResolution.increment();
+        alertDeduplicator.unmark(event);
+        alerted.complete(null);
+        return CompletableFuture.completedFuture(null);
+      }
+      result = send(event, strategyInfo);
+    } catch (RuntimeException e) {
+      alertDeduplicator.unmark(event);
+      alerted.completeExceptionally(e);
+      throw e;
+    }
+    return result.whenComplete(
+        (v, e) -> {
+          if (e == null) {
+            alerted.complete(null);
+          } else {
+            alerted.completeExceptionally(e);
+          }
+        });
+  }
 
-    StringBuilder sb = new StringBuilder();
-    sb.append("=== Strategy Event ===\n");
+  private CompletableFuture<Void> send(StrategyEvent event, StrategyInfo strategyInfo) {
+    long renderStart = System.nanoTime();
+    String formattedEventMessage = alertTemplates.renderEvent(event, strategyInfo);
+    renderTimer.record(System.nanoTime() - renderStart, TimeUnit.NANOSECONDS);
+    CompletableFuture<Void> sent;
+    if (priorityClassifier.isHigh(event)) {
+      log.debug("processEvent() - send urgent: {}", event);
+      sent = tradingAlertBot.alertAsync(formattedEventMessage, strategyInfo.getChatId(), true);
+    } else if (messageCoalescer.isEnabled()) {
+      log.debug("processEvent() - coalesce: {}", event);
+      sent = messageCoalescer.submit(strategyInfo.getChatId(), formattedEventMessage);
+    } else {
+      log.debug("processEvent() - send: {}", event);
+      sent = tradingAlertBot.alertAsync(formattedEventMessage, strategyInfo.getChatId());
+    }
+    if (!alertRetryQueue.isEnabled()) {
+      return sent.whenComplete(
+          (v, e) -> {
+            if (e != null) {
+              alertDeduplicator.unmark(event);
+            }
+          });
+    }
+    return sent.exceptionally(
+        e -> {
+          Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+          alertRetryQueue.enqueue(strategyInfo.getChatId(), formattedEventMessage, cause);
+          return null;
+        });
+  }
 
-    // Основные поля с проверкой на null
-    appendIfNotNull(sb, "Type", event.getType());
-    appendIfNotNull(sb, "Strategy ID", event.getStrategyId());
-    appendIfNotNull(sb, "Time", formatTime(event.getTime()));
-    appendIfNotNull(sb, "State", event.getState());
-    appendIfNotNull(sb, "Symbol", strategyInfo.getSymbol());
-    appendIfNotNull(sb, "Timeframe", strategyInfo.getTimeframe());
-    appendIfNotNull(sb, "Exchange", strategyInfo.getExchange());
+  private void record(StrategyEvent event) {
+    if (event.getType() == null) {
+      return;
+    }
+    if (event.getTime() != null) {
+      long lag = System.currentTimeMillis() - event.getTime().toEpochMilli();
+      lagTimers.get(event.getType()).record(lag, TimeUnit.MILLISECONDS);
+    }
+    Counter[] byState = processedCounters[event.getType().ordinal()];
+    byState[event.getState() == null ? byState.length - 1 : event.getState().ordinal()].increment();
+  }
 
-    // Сообщение (может быть null)
-    if (StringUtils.isNotBlank(event.getMessage())) {
-      sb.append("\nMessage:\n").append(event.getMessage()).append("\n");
+  private StrategyInfo getStrategyInfo(Long strategyId) {
+    long start = System.nanoTime();
+    try {
+      StrategyInfo strategyInfo = strategyInfoCache.getStrategyInfo(strategyId);
+      lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return strategyInfo;
+    } catch (RuntimeException e) {
+      lookupErrorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
     }
+  }
 
-    // Детали ордера
-    if (event.getOrder() != null) {
-      sb.append("\nOrder Details:\n")
-          .append(
-              objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(event.getOrder()));
+  private boolean isMuted(String chatId, StrategyEvent event, StrategyInfo strategyInfo) {
+    if (!eventSubscriptionManager.isSubscribed(chatId, event.getType())) {
+      log.debug(
+          "processEvent() - no subscribed on eventType: {} for chatId: {}",
+          event.getType(),
+          chatId);
+      return true;
+    }
+    if (!subscriptionRules.matches(chatId, event, strategyInfo)) {
+      log.debug("processEvent() - muted by rules for chatId: {}", chatId);
+      return true;
     }
+    return false;
+  }
+
+  private static Counter processedCounter(
+      EventType type, String state, MeterRegistry meterRegistry) {
+    return Counter.builder("alerter.events.processed")
+        .description("Events taken for processing")
+        .tag("type", type.name())
+        .tag("state", state)
+        .register(meterRegistry);
+  }
+
+  private static Timer lookupTimer(String outcome, MeterRegistry meterRegistry) {
+    return Timer.builder("alerter.orchestrator.lookup")
+        .description("Time to get StrategyInfo, cached or from orchestrator")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
 
-    return sb.toString();
+  private static Counter skippedCounter(String stage, MeterRegistry meterRegistry) {
+    return Counter.builder(SKIPPED_METRIC)
+        .description("Events dropped by subscriptions and rules")
+        .tag("stage", stage)
+        .register(meterRegistry);
   }
 }
@@ -1,15 +1,34 @@
 package algo.trading.tgalerter.service;
 
 import algo.trading.common.dto.EventType;
+import java.util.function.BiConsumer;
 
 /** Manages chat subscriptions to event types. */
 public interface EventSubscriptionManager {
   /** Unsubscribe chat from specific event type. */
   void unsubscribe(String chatId, EventType eventType);
 
+  /** Unsubscribe chat with numeric ID from specific event type. */
+  default void unsubscribe(long chatId, EventType eventType) {
+    unsubscribe(Long.toString(chatId), eventType);
+  }
+
   /** Subscribe chat to specific event type. */
   void subscribe(String chatId, EventType eventType);
 
+  /** Subscribe chat with numeric ID to specific event type. */
+  default void subscribe(long chatId, EventType eventType) {
+    subscribe(Long.toString(chatId), eventType);
+  }
+
   /** Check if chat is subscribed to event type. */
   boolean isSubscribed(String chatId, EventType eventType);
+
+  /** Check if chat with numeric ID is subscribed to event type. */
+  default boolean isSubscribed(long chatId, EventType eventType) {
+    return isSubscribed(Long.toString(chatId), eventType);
+  }
+
+  /** Pass every chat and event type the chat is unsubscribed from to action. */
+  void forEachUnsubscription(BiConsumer<String, EventType> action);
 }
@@ -0,0 +1,138 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.tgalerter.config.SubscriptionStoreProperties;
+import algo.trading.tgalerter.util.AppendOnlyJournal;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Durable storage for event subscriptions. Reads are served by {@link MemoryEventSubscriptions},
+ * changes are queued and appended to a journal file in batches by a background writer. Journal is
+ * replayed on startup and rewritten with current state only once it grows past compactAfter
+ * records. A change is lost only if the process dies within flushInterval after it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "subscriptions.store", havingValue = "file")
+public class FileEventSubscriptions implements EventSubscriptionManager {
+  private static final char SUBSCRIBE = 'S';
+  private static final char UNSUBSCRIBE = 'U';
+
+  private final MemoryEventSubscriptions memory = new MemoryEventSubscriptions();
+  private final Object writeLock = new Object();
+  private final AppendOnlyJournal journal;
+  private final ScheduledExecutorService writer;
+
+  /**
+   * Loads journal and starts background writer.
+   *
+   * @param properties store settings
+   */
+  public FileEventSubscriptions(SubscriptionStoreProperties properties) {
+    this.journal =
+        new AppendOnlyJournal(
+            "subscriptions", properties.getPath(), properties.getCompactAfter(), writeLock);
+    load(properties);
+    this.writer =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("subscriptions-writer-"));
+    long interval = properties.getFlushInterval().toMillis();
+    writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void subscribe(String chatId, EventType eventType) {
+    synchronized (writeLock) {
+      memory.subscribe(chatId, eventType);
+      journal.add(record(SUBSCRIBE, chatId, eventType));
+    }
+  }
+
+  @Override
+  public void unsubscribe(String chatId, EventType eventType) {
+    synchronized (writeLock) {
+      memory.unsubscribe(chatId, eventType);
+      journal.add(record(UNSUBSCRIBE, chatId, eventType));
+    }
+  }
+
+  @Override
+  public boolean isSubscribed(String chatId, EventType eventType) {
+    return memory.isSubscribed(chatId, eventType);
+  }
+
+  @Override
+  public boolean isSubscribed(long chatId, EventType eventType) {
+    return memory.isSubscribed(chatId, eventType);
+  }
+
+  @Override
+  public void forEachUnsubscription(BiConsumer<String, EventType> action) {
+    memory.forEachUnsubscription(action);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private void load(SubscriptionStoreProperties properties) {
+    long start = System.nanoTime();
+    int records = journal.replay(this::apply);
+    log.info(
+        "Loaded {} subscription records from {} in {} ms",
+        records,
+        properties.getPath(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void apply(String line) {
+    String[] parts = line.split(" ");
+    if (parts.length != 3) {
+      // last record may be cut by crash during write
+      log.warn("Skip malformed subscription record: {}", line);
+      return;
+    }
+    try {
+      EventType eventType = EventType.valueOf(parts[2]);
+      if (parts[0].charAt(0) == UNSUBSCRIBE) {
+        memory.unsubscribe(parts[1], eventType);
+      } else {
+        memory.subscribe(parts[1], eventType);
+      }
+    } catch (IllegalArgumentException e) {
+      log.warn("Skip malformed subscription record: {}", line);
+    }
+  }
+
+  private void flush() {
+    journal.flush(this::snapshot);
+  }
+
+  private List<String> snapshot() {
+    List<String> snapshot = new ArrayList<>();
+    memory.forEachUnsubscription(
+        (chatId, eventType) -> snapshot.add(record(UNSUBSCRIBE, chatId, eventType)));
+    return snapshot;
+  }
+
+  private static String record(char operation, String chatId, EventType eventType) {
+    return operation + " " + chatId + " " + eventType.name() + "\n";
+  }
+}
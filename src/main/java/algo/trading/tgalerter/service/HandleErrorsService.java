@@ -1,84 +1,253 @@
 package algo.trading.tgalerter.service;
 
-import static algo.trading.tgalerter.util.FormatUtil.appendIfNotNull;
-import static algo.trading.tgalerter.util.FormatUtil.formatTime;
-import static algo.trading.tgalerter.util.FormatUtil.getFirstLinesOfStackTrace;
-
 import algo.trading.common.dto.StrategyEvent;
 import algo.trading.tgalerter.bot.TradingAlertBot;
 import algo.trading.tgalerter.config.TelegramBotProperties;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.micrometer.common.util.StringUtils;
-import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
+import algo.trading.tgalerter.template.AlertTemplates;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for handling and reporting errors that occur during strategy event processing. Formats
- * error messages and sends them to a configured Telegram chat.
+ * error messages and sends them to a configured Telegram chat. Errors are fingerprinted by
+ * exception type, top stack frame and strategy: the first error of a fingerprint is reported in
+ * full, similar errors within the suppression window are only counted and reported as one summary
+ * when the window ends. Handled errors are timed in alerter.errors by exception class and outcome,
+ * classes seen after the first 32 are tagged as other. Timers are registered once per class.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class HandleErrorsService {
+  private static final String ERRORS_METRIC = "alerter.errors";
+  private static final int MAX_EXCEPTION_TAGS = 32;
+
   private final TradingAlertBot tradingAlertBot;
   private final TelegramBotProperties telegramBotProperties;
-  private final ObjectMapper objectMapper;
+  private final AlertTemplates alertTemplates;
+  private final MeterRegistry meterRegistry;
+  private final TelegramBotProperties.ErrorSuppression suppression;
+  private final Map<Fingerprint, Window> windows = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService timer;
+  private final Map<Class<?>, Timer[]> exceptionTimers = new ConcurrentHashMap<>();
+  private final Timer[] noExceptionTimers;
+  private final Timer[] otherExceptionTimers;
+
+  /**
+   * Creates service.
+   *
+   * @param tradingAlertBot bot used to report errors
+   * @param telegramBotProperties bot configuration with error chat and suppression settings
+   * @param alertTemplates error message template
+   * @param meterRegistry registry for error metrics
+   */
+  public HandleErrorsService(
+      TradingAlertBot tradingAlertBot,
+      TelegramBotProperties telegramBotProperties,
+      AlertTemplates alertTemplates,
+      MeterRegistry meterRegistry) {
+    this.tradingAlertBot = tradingAlertBot;
+    this.telegramBotProperties = telegramBotProperties;
+    this.alertTemplates = alertTemplates;
+    this.meterRegistry = meterRegistry;
+    this.suppression = telegramBotProperties.getErrorSuppression();
+    this.timer =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("error-summary-"));
+    this.noExceptionTimers = timers("none");
+    this.otherExceptionTimers = timers("other");
+  }
 
   /**
    * Handles an exception that occurred during strategy event processing. Builds an error message
-   * and sends it to the configured Telegram error chat.
+   * and sends it to the configured Telegram error chat, unless a similar error was reported within
+   * the suppression window.
    *
    * @param exception the exception that occurred
    * @param event the strategy event being processed when the error occurred
-   * @throws RuntimeException if an error occurs during message sending (logged but not propagated)
+   * @return future completed when error message is sent or sending failed, never exceptionally
    */
-  public void handleError(Exception exception, StrategyEvent event) {
+  public CompletableFuture<Void> handleError(Exception exception, StrategyEvent event) {
+    long start = System.nanoTime();
     try {
+      if (isSuppressed(exception, event)) {
+        log.debug("handleError() - suppressed similar error: {}", String.valueOf(exception));
+        record(exception, Outcome.SUPPRESSED, start);
+        return CompletableFuture.completedFuture(null);
+      }
       log.debug("handleError() - start, with exception: {}, event :{}", exception, event);
-      String message = buildMessage(exception, event);
+      String message = alertTemplates.renderError(exception, event);
       String errorChatId = telegramBotProperties.getErrorChatId();
       log.debug("handleError() - send to telegram, message : {}, chatId: {}", message, errorChatId);
-      tradingAlertBot.alert(message, errorChatId);
-      log.debug("handleError() - end");
+      return tradingAlertBot
+          .alertAsync(message, errorChatId)
+          .handle(
+              (v, e) -> {
+                if (e != null) {
+                  log.error("handleError() - error: {}", e.getMessage(), e);
+                } else {
+                  log.debug("handleError() - end");
+                }
+                record(exception, e == null ? Outcome.REPORTED : Outcome.FAILED, start);
+                return null;
+              });
     } catch (Exception e) {
       log.error("handleError() - error: {}", e.getMessage(), e);
+      record(exception, Outcome.FAILED, start);
+      return CompletableFuture.completedFuture(null);
     }
   }
 
-  @SneakyThrows
-  private String buildMessage(Exception ex, StrategyEvent event) {
-    StringBuilder sb = new StringBuilder();
-    sb.append("=== Error processing event ===\n");
+  @PreDestroy
+  void shutdown() {
+    timer.shutdownNow();
+    windows.forEach(this::close);
+  }
 
-    // Основные поля события
-    appendIfNotNull(sb, "Type", event.getType());
-    appendIfNotNull(sb, "Strategy ID", event.getStrategyId());
-    appendIfNotNull(sb, "Time", formatTime(event.getTime()));
-    appendIfNotNull(sb, "State", event.getState());
+  private boolean isSuppressed(Exception exception, StrategyEvent event) {
+    if (!suppression.isEnabled()) {
+      return false;
+    }
+    Fingerprint fingerprint = Fingerprint.of(exception, event);
+    Window window = windows.get(fingerprint);
+    if (window != null && window.suppress()) {
+      return true;
+    }
+    Window opened = new Window(System.nanoTime());
+    if (windows.putIfAbsent(fingerprint, opened) != null) {
+      return isSuppressed(exception, event);
+    }
+    timer.schedule(
+        () -> close(fingerprint, opened),
+        suppression.getWindow().toMillis(),
+        TimeUnit.MILLISECONDS);
+    return false;
+  }
 
-    // Сообщение об ошибке
-    if (StringUtils.isNotBlank(event.getMessage())) {
-      sb.append("\nEvent Message:\n").append(event.getMessage()).append("\n");
+  private void close(Fingerprint fingerprint, Window window) {
+    int suppressed = window.close();
+    windows.remove(fingerprint, window);
+    if (suppressed == 0) {
+      return;
+    }
+    long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - window.openedAt);
+    String summary =
+        alertTemplates
+            .getMarkup()
+            .escape(
+                suppressed
+                    + " more similar errors in the last "
+                    + seconds
+                    + " seconds: "
+                    + fingerprint.describe());
+    try {
+      tradingAlertBot
+          .alertAsync(summary, telegramBotProperties.getErrorChatId())
+          .exceptionally(
+              e -> {
+                log.error("Error summary send failed", e);
+                return null;
+              });
+    } catch (Exception e) {
+      log.error("Error summary send failed", e);
     }
+  }
+
+  private void record(Exception exception, Outcome outcome, long start) {
+    timers(exception)[outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
 
-    // Детали ордера (если есть)
-    if (event.getOrder() != null) {
-      sb.append("\nOrder Details:\n")
-          .append(
-              objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(event.getOrder()))
-          .append("\n");
+  private Timer[] timers(Exception exception) {
+    if (exception == null) {
+      return noExceptionTimers;
+    }
+    Timer[] timers = exceptionTimers.get(exception.getClass());
+    if (timers != null) {
+      return timers;
+    }
+    if (exceptionTimers.size() >= MAX_EXCEPTION_TAGS) {
+      return otherExceptionTimers;
     }
+    return exceptionTimers.computeIfAbsent(
+        exception.getClass(), type -> timers(type.getSimpleName()));
+  }
+
+  private Timer[] timers(String exception) {
+    Outcome[] outcomes = Outcome.values();
+    Timer[] timers = new Timer[outcomes.length];
+    for (Outcome outcome : outcomes) {
+      timers[outcome.ordinal()] =
+          Timer.builder(ERRORS_METRIC)
+              .description("Processing errors and time to report them to error chat")
+              .tag("exception", exception)
+              .tag("outcome", outcome.tag)
+              .register(meterRegistry);
+    }
+    return timers;
+  }
+
+  private enum Outcome {
+    SUPPRESSED("suppressed"),
+    REPORTED("reported"),
+    FAILED("failed");
 
-    // Информация об исключении
-    sb.append("\nError:\n");
-    sb.append("Type: ").append(ex.getClass().getSimpleName()).append("\n");
-    sb.append("Message: ").append(ex.getMessage()).append("\n");
+    private final String tag;
 
-    // StackTrace (первые 5 строк)
-    sb.append("\nStacktrace (first 5 lines):\n").append(getFirstLinesOfStackTrace(ex, 5));
+    Outcome(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  /** Identity of similar errors, built without rendering the stack trace. */
+  private record Fingerprint(Class<?> type, StackTraceElement topFrame, Long strategyId) {
+
+    private static Fingerprint of(Exception exception, StrategyEvent event) {
+      if (exception == null) {
+        return new Fingerprint(null, null, event == null ? null : event.getStrategyId());
+      }
+      StackTraceElement[] stackTrace = exception.getStackTrace();
+      return new Fingerprint(
+          exception.getClass(),
+          stackTrace.length == 0 ? null : stackTrace[0],
+          event == null ? null : event.getStrategyId());
+    }
 
-    return sb.toString();
+    private String describe() {
+      return (type == null ? "unknown error" : type.getName())
+          + (topFrame == null ? "" : " at " + topFrame)
+          + (strategyId == null ? "" : ", strategyId: " + strategyId);
+    }
+  }
+
+  private static class Window {
+    private final long openedAt;
+    private int suppressed;
+    private boolean closed;
+
+    private Window(long openedAt) {
+      this.openedAt = openedAt;
+    }
+
+    private synchronized boolean suppress() {
+      if (closed) {
+        return false;
+      }
+      suppressed++;
+      return true;
+    }
+
+    private synchronized int close() {
+      closed = true;
+      return suppressed;
+    }
   }
 }
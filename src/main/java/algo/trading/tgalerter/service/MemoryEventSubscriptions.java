@@ -3,17 +3,31 @@ package algo.trading.tgalerter.service;
 import algo.trading.common.dto.EventType;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-/** In-memory storage for event subscriptions. */
+/**
+ * In-memory storage for event subscriptions. Numeric chatIds are kept in {@link SubscriptionIndex},
+ * other chatIds such as channel usernames in a map.
+ */
 @Service
+@ConditionalOnProperty(value = "subscriptions.store", havingValue = "memory", matchIfMissing = true)
 public class MemoryEventSubscriptions implements EventSubscriptionManager {
-  private final ConcurrentHashMap<String, Set<EventType>> unsubscriptions =
+  private static final long NOT_NUMERIC = Long.MIN_VALUE;
+
+  private final SubscriptionIndex index = new SubscriptionIndex();
+  private final ConcurrentHashMap<String, Set<EventType>> namedUnsubscriptions =
       new ConcurrentHashMap<>();
 
   @Override
   public void subscribe(String chatId, EventType eventType) {
-    unsubscriptions.computeIfPresent(
+    long numericId = parseChatId(chatId);
+    if (numericId != NOT_NUMERIC) {
+      index.subscribe(numericId, eventType);
+      return;
+    }
+    namedUnsubscriptions.computeIfPresent(
         chatId,
         (k, v) -> {
           v.remove(eventType);
@@ -21,13 +35,93 @@ public class MemoryEventSubscriptions implements EventSubscriptionManager {
         });
   }
 
+  @Override
+  public void subscribe(long chatId, EventType eventType) {
+    index.subscribe(chatId, eventType);
+  }
+
   @Override
   public void unsubscribe(String chatId, EventType eventType) {
-    unsubscriptions.computeIfAbsent(chatId, k -> ConcurrentHashMap.newKeySet()).add(eventType);
+    long numericId = parseChatId(chatId);
+    if (numericId != NOT_NUMERIC) {
+      index.unsubscribe(numericId, eventType);
+      return;
+    }
+    namedUnsubscriptions
+        .computeIfAbsent(chatId, k -> ConcurrentHashMap.newKeySet())
+        .add(eventType);
+  }
+
+  @Override
+  public void unsubscribe(long chatId, EventType eventType) {
+    index.unsubscribe(chatId, eventType);
   }
 
   @Override
   public boolean isSubscribed(String chatId, EventType eventType) {
-    return !unsubscriptions.getOrDefault(chatId, Set.of()).contains(eventType);
+    long numericId = parseChatId(chatId);
+    if (numericId != NOT_NUMERIC) {
+      return index.isSubscribed(numericId, eventType);
+    }
+    Set<EventType> unsubscribed = namedUnsubscriptions.get(chatId);
+    return unsubscribed == null || !unsubscribed.contains(eventType);
+  }
+
+  @Override
+  public boolean isSubscribed(long chatId, EventType eventType) {
+    return index.isSubscribed(chatId, eventType);
+  }
+
+  /**
+   * Copies subscriptions of numeric chatIds.
+   *
+   * @return snapshot of subscription index
+   */
+  public SubscriptionIndex.Snapshot snapshot() {
+    return index.snapshot();
+  }
+
+  /**
+   * Replaces subscriptions with snapshot, subscriptions of non numeric chatIds are dropped.
+   *
+   * @param snapshot subscription index snapshot
+   */
+  public void restore(SubscriptionIndex.Snapshot snapshot) {
+    namedUnsubscriptions.clear();
+    index.restore(snapshot);
+  }
+
+  @Override
+  public void forEachUnsubscription(BiConsumer<String, EventType> action) {
+    EventType[] eventTypes = EventType.values();
+    SubscriptionIndex.Snapshot snapshot = index.snapshot();
+    for (int i = 0; i < snapshot.size(); i++) {
+      String chatId = Long.toString(snapshot.chatId(i));
+      for (EventType eventType : eventTypes) {
+        if ((snapshot.mask(i) & (1 << eventType.ordinal())) != 0) {
+          action.accept(chatId, eventType);
+        }
+      }
+    }
+    namedUnsubscriptions.forEach(
+        (chatId, unsubscribed) -> unsubscribed.forEach(t -> action.accept(chatId, t)));
+  }
+
+  /** Parses decimal chatId without allocation, returns NOT_NUMERIC for anything else. */
+  private static long parseChatId(String chatId) {
+    int length = chatId.length();
+    int start = length > 0 && chatId.charAt(0) == '-' ? 1 : 0;
+    if (length == start || length - start > 18) {
+      return NOT_NUMERIC;
+    }
+    long value = 0;
+    for (int i = start; i < length; i++) {
+      char c = chatId.charAt(i);
+      if (c < '0' || c > '9') {
+        return NOT_NUMERIC;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return start == 0 ? value : -value;
   }
 }
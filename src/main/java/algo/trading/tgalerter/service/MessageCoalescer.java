@@ -0,0 +1,225 @@
+package algo.trading.tgalerter.service;
+
+import static algo.trading.tgalerter.util.FormatUtil.splitByLength;
+
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.config.CoalescingProperties;
+import algo.trading.tgalerter.exceptions.CoalescedSendException;
+import algo.trading.tgalerter.template.Markup;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers alerts per chat for a configured window and sends them as one digest message, split at
+ * Telegram message length limit. Digests of one chat are sent in order. When a digest is not sent,
+ * only its first alert fails with the cause, the others fail with {@link CoalescedSendException},
+ * so the failure is reported once per digest.
+ */
+@Slf4j
+@Component
+public class MessageCoalescer {
+  /** Max text length of one Telegram message. */
+  public static final int MAX_MESSAGE_LENGTH = 4096;
+
+  private static final String SEPARATOR = "\n\n";
+
+  private final TradingAlertBot tradingAlertBot;
+  private final CoalescingProperties properties;
+  private final AlertTemplateProperties alertTemplateProperties;
+  private final ScheduledExecutorService timer;
+  private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<Void>> lastSends = new ConcurrentHashMap<>();
+
+  /**
+   * Creates coalescer.
+   *
+   * @param tradingAlertBot bot used to send digests
+   * @param properties coalescing settings
+   * @param alertTemplateProperties alert markup settings
+   */
+  public MessageCoalescer(
+      TradingAlertBot tradingAlertBot,
+      CoalescingProperties properties,
+      AlertTemplateProperties alertTemplateProperties) {
+    this.tradingAlertBot = tradingAlertBot;
+    this.properties = properties;
+    this.alertTemplateProperties = alertTemplateProperties;
+    this.timer =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("coalescing-timer-"));
+  }
+
+  /**
+   * Returns whether alerts should be coalesced.
+   *
+   * @return true if coalescing is enabled
+   */
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Adds alert to the current digest of chat.
+   *
+   * @param chatId target chat
+   * @param message formatted alert
+   * @return future completed when digest containing the alert is sent
+   */
+  public CompletableFuture<Void> submit(String chatId, String message) {
+    while (true) {
+      Batch batch = batches.computeIfAbsent(chatId, this::newBatch);
+      CompletableFuture<Void> result = batch.add(message);
+      if (result != null) {
+        if (batch.size() >= properties.getMaxEvents()) {
+          flush(batch);
+        }
+        return result;
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    timer.shutdownNow();
+    batches.values().forEach(this::flush);
+  }
+
+  private Batch newBatch(String chatId) {
+    Batch batch = new Batch(chatId);
+    timer.schedule(
+        () -> flush(batch), properties.getWindow().toMillis(), TimeUnit.MILLISECONDS);
+    return batch;
+  }
+
+  private void flush(Batch batch) {
+    if (!batch.close()) {
+      return;
+    }
+    batches.remove(batch.chatId, batch);
+    log.debug("flush() - chatId: {}, events: {}", batch.chatId, batch.messages.size());
+    List<String> digest = buildDigest(batch.messages);
+    CompletableFuture<Void> send =
+        lastSends.compute(
+            batch.chatId,
+            (chatId, previous) ->
+                (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous)
+                    .handle((v, e) -> null)
+                    .thenCompose(v -> sendDigest(chatId, digest)));
+    send.whenComplete(
+        (v, e) -> {
+          lastSends.remove(batch.chatId, send);
+          for (int i = 0; i < batch.results.size(); i++) {
+            CompletableFuture<Void> result = batch.results.get(i);
+            if (e == null) {
+              result.complete(null);
+            } else {
+              result.completeExceptionally(i == 0 ? e : new CoalescedSendException(e));
+            }
+          }
+        });
+  }
+
+  private CompletableFuture<Void> sendDigest(String chatId, List<String> digest) {
+    CompletableFuture<Void> sent = CompletableFuture.completedFuture(null);
+    for (String part : digest) {
+      sent = sent.thenCompose(v -> tradingAlertBot.alertAsync(part, chatId));
+    }
+    return sent;
+  }
+
+  private List<String> buildDigest(List<String> messages) {
+    if (messages.size() == 1) {
+      return splitByLength(messages.get(0), MAX_MESSAGE_LENGTH, markup());
+    }
+    List<String> parts = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+    markup().escape("=== " + messages.size() + " events ===", sb);
+    for (String message : messages) {
+      if (message.length() > MAX_MESSAGE_LENGTH) {
+        appendOversized(message, parts, sb);
+        continue;
+      }
+      if (sb.length() + SEPARATOR.length() + message.length() > MAX_MESSAGE_LENGTH) {
+        parts.add(sb.toString());
+        sb.setLength(0);
+      }
+      if (!sb.isEmpty()) {
+        sb.append(SEPARATOR);
+      }
+      sb.append(message);
+    }
+    if (!sb.isEmpty()) {
+      parts.add(sb.toString());
+    }
+    return parts;
+  }
+
+  /**
+   * Splits message longer than a part, its first chunk fills the current part after the header or
+   * previous messages and its last chunk starts the next part.
+   */
+  private void appendOversized(String message, List<String> parts, StringBuilder sb) {
+    if (!sb.isEmpty() && sb.length() + SEPARATOR.length() >= MAX_MESSAGE_LENGTH) {
+      parts.add(sb.toString());
+      sb.setLength(0);
+    }
+    if (!sb.isEmpty()) {
+      sb.append(SEPARATOR);
+    }
+    String head = splitByLength(message, MAX_MESSAGE_LENGTH - sb.length(), markup()).get(0);
+    parts.add(sb.append(head).toString());
+    sb.setLength(0);
+    int next = message.charAt(head.length()) == '\n' ? head.length() + 1 : head.length();
+    List<String> chunks = splitByLength(message.substring(next), MAX_MESSAGE_LENGTH, markup());
+    parts.addAll(chunks.subList(0, chunks.size() - 1));
+    sb.append(chunks.get(chunks.size() - 1));
+  }
+
+  private Markup markup() {
+    return alertTemplateProperties.getMarkup();
+  }
+
+  private static class Batch {
+    private final String chatId;
+    private final List<String> messages = new ArrayList<>();
+    private final List<CompletableFuture<Void>> results = new ArrayList<>();
+    private boolean closed;
+
+    private Batch(String chatId) {
+      this.chatId = chatId;
+    }
+
+    private synchronized CompletableFuture<Void> add(String message) {
+      if (closed) {
+        return null;
+      }
+      CompletableFuture<Void> result = new CompletableFuture<>();
+      messages.add(message);
+      results.add(result);
+      return result;
+    }
+
+    private synchronized int size() {
+      return messages.size();
+    }
+
+    private synchronized boolean close() {
+      if (closed) {
+        return false;
+      }
+      closed = true;
+      return true;
+    }
+  }
+}
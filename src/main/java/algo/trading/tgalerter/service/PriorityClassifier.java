@@ -0,0 +1,55 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyState;
+import algo.trading.tgalerter.config.PriorityProperties;
+import java.util.EnumSet;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells high priority events, such as errors of strategies with real money at stake, from routine
+ * ones. High priority events take separate dispatch and outbound lanes and are not coalesced.
+ */
+@Component
+public class PriorityClassifier {
+  /** Metric tag value of high priority. */
+  public static final String HIGH = "high";
+
+  /** Metric tag value of normal priority. */
+  public static final String NORMAL = "normal";
+
+  private final boolean enabled;
+  private final Set<EventType> types;
+  private final Set<StrategyState> states;
+
+  /**
+   * Creates classifier.
+   *
+   * @param properties priority settings
+   */
+  public PriorityClassifier(PriorityProperties properties) {
+    this.enabled = properties.isEnabled();
+    this.types =
+        properties.getTypes().isEmpty()
+            ? EnumSet.noneOf(EventType.class)
+            : EnumSet.copyOf(properties.getTypes());
+    this.states =
+        properties.getStates().isEmpty()
+            ? EnumSet.noneOf(StrategyState.class)
+            : EnumSet.copyOf(properties.getStates());
+  }
+
+  /**
+   * Checks whether event is of high priority.
+   *
+   * @param event strategy event
+   * @return true if event type or strategy state is configured as high priority
+   */
+  public boolean isHigh(StrategyEvent event) {
+    return enabled
+        && (event.getType() != null && types.contains(event.getType())
+            || event.getState() != null && states.contains(event.getState()));
+  }
+}
@@ -0,0 +1,299 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.common.dto.EventType;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open addressing map from primitive chatId to bitmask of event types the chat is unsubscribed
+ * from, 12 bytes per slot with at most half of slots used. Lookups never block and do not allocate.
+ * Updates are CAS loops on the mask slot. When the table fills up it is copied into a larger one:
+ * slots are frozen one by one while copying, and updates hitting a frozen slot are retried in the
+ * new table, so no update is lost. Chats with empty mask are dropped on copy.
+ */
+public class SubscriptionIndex {
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final int FROZEN = 1 << 31;
+  private static final int INITIAL_CAPACITY = 64;
+
+  static {
+    if (EventType.values().length >= Integer.SIZE - 1) {
+      throw new IllegalStateException("Too many event types for int mask");
+    }
+  }
+
+  private final Object resizeLock = new Object();
+  private volatile Table table = new Table(INITIAL_CAPACITY);
+
+  /**
+   * Marks chat as unsubscribed from event type.
+   *
+   * @param chatId chat, must not be Long.MIN_VALUE
+   * @param eventType event type
+   */
+  public void unsubscribe(long chatId, EventType eventType) {
+    update(chatId, bit(eventType), true);
+  }
+
+  /**
+   * Marks chat as subscribed to event type.
+   *
+   * @param chatId chat, must not be Long.MIN_VALUE
+   * @param eventType event type
+   */
+  public void subscribe(long chatId, EventType eventType) {
+    update(chatId, bit(eventType), false);
+  }
+
+  /**
+   * Checks if chat is subscribed to event type, chats are subscribed to everything by default.
+   *
+   * @param chatId chat
+   * @param eventType event type
+   * @return false if chat unsubscribed from event type
+   */
+  public boolean isSubscribed(long chatId, EventType eventType) {
+    return (mask(chatId) & bit(eventType)) == 0;
+  }
+
+  /**
+   * Returns bitmask of event types chat is unsubscribed from, bit number is EventType ordinal.
+   *
+   * @param chatId chat
+   * @return unsubscription mask, 0 if chat is subscribed to everything
+   */
+  public int mask(long chatId) {
+    Table current = table;
+    for (int i = current.index(chatId); ; i = current.next(i)) {
+      long key = current.keys.get(i);
+      if (key == chatId) {
+        return current.masks.get(i) & ~FROZEN;
+      }
+      if (key == EMPTY) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Copies all chats with non empty masks.
+   *
+   * @return snapshot of index
+   */
+  public Snapshot snapshot() {
+    Table current = table;
+    int count = 0;
+    long[] chatIds = new long[current.claimed.get()];
+    int[] masks = new int[chatIds.length];
+    for (int i = 0; i < current.keys.length() && count < chatIds.length; i++) {
+      long key = current.keys.get(i);
+      int mask = current.masks.get(i) & ~FROZEN;
+      if (key != EMPTY && mask != 0) {
+        chatIds[count] = key;
+        masks[count++] = mask;
+      }
+    }
+    return new Snapshot(chatIds, masks, count);
+  }
+
+  /**
+   * Replaces index content with snapshot.
+   *
+   * @param snapshot chats and masks to restore
+   */
+  public void restore(Snapshot snapshot) {
+    Table restored = new Table(capacityFor(snapshot.size()));
+    for (int i = 0; i < snapshot.size(); i++) {
+      restored.put(snapshot.chatIds[i], snapshot.masks[i]);
+    }
+    synchronized (resizeLock) {
+      Table old = table;
+      old.freeze();
+      table = restored;
+    }
+  }
+
+  private void update(long chatId, int bit, boolean set) {
+    if (chatId == EMPTY) {
+      throw new IllegalArgumentException("Unsupported chatId: " + chatId);
+    }
+    while (true) {
+      Table current = table;
+      int slot = current.claim(chatId);
+      if (slot < 0) {
+        resize(current);
+        continue;
+      }
+      if (current.update(slot, bit, set)) {
+        return;
+      }
+      awaitReplaced(current);
+    }
+  }
+
+  private void resize(Table full) {
+    synchronized (resizeLock) {
+      if (table != full) {
+        return;
+      }
+      full.freeze();
+      int live = 0;
+      for (int i = 0; i < full.keys.length(); i++) {
+        if (full.keys.get(i) != EMPTY && (full.masks.get(i) & ~FROZEN) != 0) {
+          live++;
+        }
+      }
+      Table resized = new Table(capacityFor(live));
+      for (int i = 0; i < full.keys.length(); i++) {
+        long key = full.keys.get(i);
+        int mask = full.masks.get(i) & ~FROZEN;
+        if (key != EMPTY && mask != 0) {
+          resized.put(key, mask);
+        }
+      }
+      table = resized;
+    }
+  }
+
+  private void awaitReplaced(Table frozen) {
+    while (table == frozen) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static int capacityFor(int entries) {
+    int capacity = INITIAL_CAPACITY;
+    while (capacity < entries * 4) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static int bit(EventType eventType) {
+    return 1 << eventType.ordinal();
+  }
+
+  /** Chats and their unsubscription masks, bit number is EventType ordinal. */
+  public static final class Snapshot {
+    /** Snapshot without chats. */
+    public static final Snapshot EMPTY = new Snapshot(new long[0], new int[0], 0);
+
+    private final long[] chatIds;
+    private final int[] masks;
+    private final int size;
+
+    /**
+     * Creates snapshot from first size elements of arrays.
+     *
+     * @param chatIds chats
+     * @param masks masks of chats
+     * @param size number of chats
+     */
+    public Snapshot(long[] chatIds, int[] masks, int size) {
+      this.chatIds = chatIds;
+      this.masks = masks;
+      this.size = size;
+    }
+
+    /** Number of chats. */
+    public int size() {
+      return size;
+    }
+
+    /** Chat at position. */
+    public long chatId(int i) {
+      return chatIds[i];
+    }
+
+    /** Mask of chat at position. */
+    public int mask(int i) {
+      return masks[i];
+    }
+  }
+
+  private static final class Table {
+    private final AtomicLongArray keys;
+    private final AtomicIntegerArray masks;
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final int indexMask;
+    private final int maxClaimed;
+
+    private Table(int capacity) {
+      keys = new AtomicLongArray(capacity);
+      masks = new AtomicIntegerArray(capacity);
+      indexMask = capacity - 1;
+      maxClaimed = capacity / 2;
+      for (int i = 0; i < capacity; i++) {
+        keys.set(i, EMPTY);
+      }
+    }
+
+    private int index(long chatId) {
+      long h = chatId * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32)) & indexMask;
+    }
+
+    private int next(int i) {
+      return (i + 1) & indexMask;
+    }
+
+    /** Finds or claims slot of chat, returns -1 if table is full. */
+    private int claim(long chatId) {
+      for (int i = index(chatId); ; i = next(i)) {
+        long key = keys.get(i);
+        if (key == chatId) {
+          return i;
+        }
+        if (key == EMPTY) {
+          if (claimed.get() >= maxClaimed) {
+            return -1;
+          }
+          if (keys.compareAndSet(i, EMPTY, chatId)) {
+            claimed.incrementAndGet();
+            return i;
+          }
+          if (keys.get(i) == chatId) {
+            return i;
+          }
+        }
+      }
+    }
+
+    /** Sets or clears bit, returns false if slot is frozen by resize. */
+    private boolean update(int slot, int bit, boolean set) {
+      while (true) {
+        int mask = masks.get(slot);
+        if ((mask & FROZEN) != 0) {
+          return false;
+        }
+        int updated = set ? mask | bit : mask & ~bit;
+        if (mask == updated || masks.compareAndSet(slot, mask, updated)) {
+          return true;
+        }
+      }
+    }
+
+    private void freeze() {
+      for (int i = 0; i < masks.length(); i++) {
+        int mask;
+        do {
+          mask = masks.get(i);
+        } while ((mask & FROZEN) == 0 && !masks.compareAndSet(i, mask, mask | FROZEN));
+      }
+    }
+
+    /** Single threaded insert used while table is not published. */
+    private void put(long chatId, int mask) {
+      int i = index(chatId);
+      while (keys.get(i) != EMPTY && keys.get(i) != chatId) {
+        i = next(i);
+      }
+      if (keys.get(i) == EMPTY) {
+        claimed.incrementAndGet();
+      }
+      keys.set(i, chatId);
+      masks.set(i, mask);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.common.dto.EventType;
+import java.math.BigDecimal;
+
+/**
+ * Rule filtering events delivered to a chat on top of event type subscriptions.
+ *
+ * @param kind what the rule matches
+ * @param eventType event type rule applies to, null for all types
+ * @param strategyId muted strategy of {@link Kind#MUTE_STRATEGY}
+ * @param symbol muted symbol of {@link Kind#MUTE_SYMBOL}, upper case
+ * @param minPnl min order result of {@link Kind#MIN_PNL}
+ */
+public record SubscriptionRule(
+    Kind kind, EventType eventType, Long strategyId, String symbol, BigDecimal minPnl) {
+
+  /** Kinds of subscription rules. */
+  public enum Kind {
+    /** Drops events of strategy. */
+    MUTE_STRATEGY,
+    /** Drops events of strategies trading symbol. */
+    MUTE_SYMBOL,
+    /** Drops events whose order result is below threshold, events without result pass. */
+    MIN_PNL
+  }
+
+  /** Creates rule muting strategy. */
+  public static SubscriptionRule muteStrategy(long strategyId, EventType eventType) {
+    return new SubscriptionRule(Kind.MUTE_STRATEGY, eventType, strategyId, null, null);
+  }
+
+  /** Creates rule muting symbol. */
+  public static SubscriptionRule muteSymbol(String symbol, EventType eventType) {
+    return new SubscriptionRule(Kind.MUTE_SYMBOL, eventType, null, symbol.toUpperCase(), null);
+  }
+
+  /** Creates rule dropping events with order result below minPnl. */
+  public static SubscriptionRule minPnl(BigDecimal minPnl, EventType eventType) {
+    return new SubscriptionRule(Kind.MIN_PNL, eventType, null, null, minPnl);
+  }
+
+  /** Human readable rule description used in bot replies. */
+  public String describe() {
+    String scope = eventType == null ? "all events" : eventType + " events";
+    return switch (kind) {
+      case MUTE_STRATEGY -> "mute strategy " + strategyId + " for " + scope;
+      case MUTE_SYMBOL -> "mute symbol " + symbol + " for " + scope;
+      case MIN_PNL -> "min PnL " + minPnl.toPlainString() + " for " + scope;
+    };
+  }
+}
@@ -0,0 +1,305 @@
+package algo.trading.tgalerter.service;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.SubscriptionStoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Subscription rules of chats. Rules of every chat are compiled into a matcher with strategy and
+ * symbol hash indexes and per event type thresholds, so checking an event takes a few hash lookups
+ * regardless of the number of rules. Matchers are rebuilt on every change. With file subscription
+ * store rules are saved to rulesPath on every change and loaded on startup.
+ */
+@Slf4j
+@Service
+public class SubscriptionRules {
+  private static final int ALL_TYPES = (1 << EventType.values().length) - 1;
+  private static final TypeReference<Map<String, List<SubscriptionRule>>> RULES_TYPE =
+      new TypeReference<>() {};
+
+  private final Map<String, Set<SubscriptionRule>> rules = new HashMap<>();
+  private final Map<String, ChatMatcher> matchers = new ConcurrentHashMap<>();
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+  private final ObjectMapper objectMapper;
+  private final Path rulesPath;
+
+  /**
+   * Creates rules and loads saved ones.
+   *
+   * @param properties subscription store settings
+   * @param objectMapper mapper used to save rules
+   */
+  public SubscriptionRules(SubscriptionStoreProperties properties, ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    this.rulesPath =
+        properties.getStore() == SubscriptionStoreProperties.Store.FILE
+            ? properties.getRulesPath()
+            : null;
+    load();
+  }
+
+  /**
+   * Checks event against rules of chat.
+   *
+   * @param chatId target chat
+   * @param event strategy event
+   * @param strategyInfo strategy of event
+   * @return false if any rule of chat drops the event
+   */
+  public boolean matches(String chatId, StrategyEvent event, StrategyInfo strategyInfo) {
+    ChatMatcher matcher = matchers.get(chatId);
+    return matcher == null || matcher.matches(event, strategyInfo);
+  }
+
+  /**
+   * Adds rule to chat.
+   *
+   * @param chatId chat
+   * @param rule rule to add
+   * @return false if chat already has the rule
+   */
+  public synchronized boolean add(String chatId, SubscriptionRule rule) {
+    if (!rules.computeIfAbsent(chatId, k -> new LinkedHashSet<>()).add(rule)) {
+      return false;
+    }
+    changed(chatId);
+    return true;
+  }
+
+  /**
+   * Removes rule from chat.
+   *
+   * @param chatId chat
+   * @param rule rule to remove
+   * @return false if chat has no such rule
+   */
+  public synchronized boolean remove(String chatId, SubscriptionRule rule) {
+    Set<SubscriptionRule> chatRules = rules.get(chatId);
+    if (chatRules == null || !chatRules.remove(rule)) {
+      return false;
+    }
+    changed(chatId);
+    return true;
+  }
+
+  /**
+   * Removes rules of kind from chat.
+   *
+   * @param chatId chat
+   * @param kind kind of rules to remove
+   * @return number of removed rules
+   */
+  public synchronized int removeAll(String chatId, SubscriptionRule.Kind kind) {
+    Set<SubscriptionRule> chatRules = rules.get(chatId);
+    if (chatRules == null) {
+      return 0;
+    }
+    int size = chatRules.size();
+    chatRules.removeIf(rule -> kind == null || rule.kind() == kind);
+    int removed = size - chatRules.size();
+    if (removed > 0) {
+      changed(chatId);
+    }
+    return removed;
+  }
+
+  /**
+   * Replaces rules of kind of chat with given rule as one change.
+   *
+   * @param chatId chat
+   * @param kind kind of rules to replace
+   * @param rule new rule of the kind, null to only remove rules of the kind
+   * @return number of removed rules
+   */
+  public synchronized int replaceAll(
+      String chatId, SubscriptionRule.Kind kind, SubscriptionRule rule) {
+    Set<SubscriptionRule> chatRules = rules.computeIfAbsent(chatId, k -> new LinkedHashSet<>());
+    int size = chatRules.size();
+    chatRules.removeIf(r -> r.kind() == kind);
+    int removed = size - chatRules.size();
+    if (rule != null) {
+      chatRules.add(rule);
+    }
+    if (removed > 0 || rule != null) {
+      changed(chatId);
+    } else if (chatRules.isEmpty()) {
+      rules.remove(chatId);
+    }
+    return removed;
+  }
+
+  /**
+   * Returns rules of chat in order they were added.
+   *
+   * @param chatId chat
+   * @return rules of chat
+   */
+  public synchronized List<SubscriptionRule> getRules(String chatId) {
+    return List.copyOf(rules.getOrDefault(chatId, Set.of()));
+  }
+
+  /**
+   * Replaces all rules of chat, change listeners are not called.
+   *
+   * @param chatId chat
+   * @param chatRules new rules of chat
+   */
+  public synchronized void replace(String chatId, Collection<SubscriptionRule> chatRules) {
+    rules.put(chatId, new LinkedHashSet<>(chatRules));
+    update(chatId);
+  }
+
+  /**
+   * Copies rules of all chats.
+   *
+   * @return rules by chat
+   */
+  public synchronized Map<String, List<SubscriptionRule>> snapshot() {
+    Map<String, List<SubscriptionRule>> snapshot = new HashMap<>();
+    rules.forEach((chatId, chatRules) -> snapshot.put(chatId, List.copyOf(chatRules)));
+    return snapshot;
+  }
+
+  /**
+   * Registers listener called with chatId after rules of chat were changed by add or remove, under
+   * rules lock, so listener must not block.
+   *
+   * @param listener change listener
+   */
+  public void onChange(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  private void changed(String chatId) {
+    update(chatId);
+    for (Consumer<String> listener : listeners) {
+      try {
+        listener.accept(chatId);
+      } catch (RuntimeException e) {
+        log.error("Subscription rules listener failed", e);
+      }
+    }
+  }
+
+  private void update(String chatId) {
+    Set<SubscriptionRule> chatRules = rules.get(chatId);
+    if (chatRules.isEmpty()) {
+      rules.remove(chatId);
+      matchers.remove(chatId);
+    } else {
+      matchers.put(chatId, new ChatMatcher(chatRules));
+    }
+    save();
+  }
+
+  private void load() {
+    if (rulesPath == null || !Files.exists(rulesPath)) {
+      return;
+    }
+    try {
+      Map<String, List<SubscriptionRule>> saved =
+          objectMapper.readValue(rulesPath.toFile(), RULES_TYPE);
+      saved.forEach(
+          (chatId, chatRules) -> {
+            rules.put(chatId, new LinkedHashSet<>(chatRules));
+            matchers.put(chatId, new ChatMatcher(chatRules));
+          });
+      log.info("Loaded subscription rules of {} chats from {}", saved.size(), rulesPath);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can not load subscription rules from " + rulesPath, e);
+    }
+  }
+
+  private void save() {
+    if (rulesPath == null) {
+      return;
+    }
+    Path temp = rulesPath.resolveSibling(rulesPath.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(rulesPath.toAbsolutePath().getParent());
+      objectMapper.writeValue(temp.toFile(), new TreeMap<>(rules));
+      Files.move(
+          temp, rulesPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.error("Can not save subscription rules to {}", rulesPath, e);
+    }
+  }
+
+  private static int typeMask(EventType eventType) {
+    return eventType == null ? ALL_TYPES : 1 << eventType.ordinal();
+  }
+
+  /** Compiled rules of one chat. */
+  private static final class ChatMatcher {
+    private final Map<Long, Integer> mutedStrategies = new HashMap<>();
+    private final Map<String, Integer> mutedSymbols = new HashMap<>();
+    private final double[] minPnl = new double[EventType.values().length];
+
+    private ChatMatcher(Iterable<SubscriptionRule> chatRules) {
+      Arrays.fill(minPnl, Double.NEGATIVE_INFINITY);
+      for (SubscriptionRule rule : chatRules) {
+        int mask = typeMask(rule.eventType());
+        switch (rule.kind()) {
+          case MUTE_STRATEGY -> mutedStrategies.merge(rule.strategyId(), mask, (a, b) -> a | b);
+          case MUTE_SYMBOL -> mutedSymbols.merge(rule.symbol(), mask, (a, b) -> a | b);
+          case MIN_PNL -> {
+            for (EventType type : EventType.values()) {
+              if ((mask & (1 << type.ordinal())) != 0) {
+                minPnl[type.ordinal()] =
+                    Math.max(minPnl[type.ordinal()], rule.minPnl().doubleValue());
+              }
+            }
+          }
+          default -> throw new IllegalArgumentException("Unknown rule kind: " + rule.kind());
+        }
+      }
+    }
+
+    private boolean matches(StrategyEvent event, StrategyInfo strategyInfo) {
+      if (event.getType() == null) {
+        return true;
+      }
+      int bit = 1 << event.getType().ordinal();
+      if (!mutedStrategies.isEmpty() && event.getStrategyId() != null) {
+        Integer mask = mutedStrategies.get(event.getStrategyId());
+        if (mask != null && (mask & bit) != 0) {
+          return false;
+        }
+      }
+      if (!mutedSymbols.isEmpty() && strategyInfo != null && strategyInfo.getSymbol() != null) {
+        Integer mask = mutedSymbols.get(String.valueOf(strategyInfo.getSymbol()).toUpperCase());
+        if (mask != null && (mask & bit) != 0) {
+          return false;
+        }
+      }
+      double threshold = minPnl[event.getType().ordinal()];
+      if (threshold == Double.NEGATIVE_INFINITY || event.getOrder() == null) {
+        return true;
+      }
+      Number result = event.getOrder().getResult();
+      return result == null || result.doubleValue() >= threshold;
+    }
+  }
+}
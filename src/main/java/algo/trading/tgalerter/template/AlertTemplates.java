@@ -0,0 +1,249 @@
+package algo.trading.tgalerter.template;
+
+import static algo.trading.tgalerter.util.FormatUtil.appendTime;
+import static algo.trading.tgalerter.util.FormatUtil.getFirstLinesOfStackTrace;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.listener.RawOrderEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Renders alert and error messages from templates compiled once at startup. Messages are rendered
+ * into a per-thread buffer that is reused between calls, order is written by a cached pretty
+ * printing writer directly into the buffer. Order received as raw JSON is indented token by token
+ * without building the order, numbers keep their original text. Literal text of built-in templates
+ * is escaped for the configured markup, configured templates are expected to contain valid markup.
+ */
+@Slf4j
+@Component
+public class AlertTemplates {
+  /** Built-in template for strategy events. */
+  public static final String DEFAULT_EVENT_TEMPLATE =
+      """
+      === Strategy Event ===
+      {?type}Type: {type}
+      {/type}{?strategyId}Strategy ID: {strategyId}
+      {/strategyId}Time: {time}
+      {?state}State: {state}
+      {/state}{?symbol}Symbol: {symbol}
+      {/symbol}{?timeframe}Timeframe: {timeframe}
+      {/timeframe}{?exchange}Exchange: {exchange}
+      {/exchange}{?message}
+      Message:
+      {message}
+      {/message}{?order}
+      Order Details:
+      {order}{/order}""";
+
+  /** Built-in template for error reports. */
+  public static final String DEFAULT_ERROR_TEMPLATE =
+      """
+      === Error processing event ===
+      {?type}Type: {type}
+      {/type}{?strategyId}Strategy ID: {strategyId}
+      {/strategyId}Time: {time}
+      {?state}State: {state}
+      {/state}{?message}
+      Event Message:
+      {message}
+      {/message}{?order}
+      Order Details:
+      {order}
+      {/order}
+      Error:
+      Type: {errorType}
+      Message: {errorMessage}
+
+      Stacktrace (first 5 lines):
+      {stacktrace}""";
+
+  private static final int STACKTRACE_LINES = 5;
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  private final Markup markup;
+  private final MessageTemplate defaultEventTemplate;
+  private final Map<EventType, MessageTemplate> eventTemplates = new EnumMap<>(EventType.class);
+  private final MessageTemplate errorTemplate;
+  private final ObjectWriter orderWriter;
+  private final JsonFactory jsonFactory;
+  private final MessageTemplate.FieldRenderer fieldRenderer = this::renderField;
+  private final ThreadLocal<StringBuilder> buffers =
+      ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_SIZE));
+
+  /**
+   * Compiles configured templates.
+   *
+   * @param properties template settings
+   * @param objectMapper mapper used to print orders
+   */
+  public AlertTemplates(AlertTemplateProperties properties, ObjectMapper objectMapper) {
+    this.markup = properties.getMarkup();
+    this.defaultEventTemplate = compile(properties.getEventTemplate(), DEFAULT_EVENT_TEMPLATE);
+    properties
+        .getEventTemplates()
+        .forEach((type, source) -> eventTemplates.put(type, MessageTemplate.compile(source)));
+    this.errorTemplate = compile(properties.getErrorTemplate(), DEFAULT_ERROR_TEMPLATE);
+    this.orderWriter = objectMapper.writerWithDefaultPrettyPrinter();
+    this.jsonFactory = objectMapper.getFactory();
+    log.info(
+        "Alert templates compiled, markup: {}, custom types: {}", markup, eventTemplates.keySet());
+  }
+
+  /**
+   * Renders alert for strategy event.
+   *
+   * @param event strategy event
+   * @param strategyInfo info of event strategy
+   * @return alert text
+   */
+  public String renderEvent(StrategyEvent event, StrategyInfo strategyInfo) {
+    MessageTemplate template = eventTemplates.getOrDefault(event.getType(), defaultEventTemplate);
+    return render(template, new TemplateContext(event, strategyInfo, null));
+  }
+
+  /**
+   * Renders error report for failed strategy event.
+   *
+   * @param error processing error
+   * @param event strategy event
+   * @return error report text
+   */
+  public String renderError(Throwable error, StrategyEvent event) {
+    return render(errorTemplate, new TemplateContext(event, null, error));
+  }
+
+  /**
+   * Returns markup of rendered messages.
+   *
+   * @return markup
+   */
+  public Markup getMarkup() {
+    return markup;
+  }
+
+  private String render(MessageTemplate template, TemplateContext ctx) {
+    StringBuilder sb = buffers.get();
+    sb.setLength(0);
+    template.render(ctx, fieldRenderer, sb);
+    String result = sb.toString();
+    if (sb.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+      buffers.remove();
+    }
+    return result;
+  }
+
+  private void renderField(TemplateField field, Object value, StringBuilder out) {
+    switch (field) {
+      case TIME -> renderTime((Instant) value, out);
+      case ORDER -> renderOrder(value, out);
+      case STACKTRACE -> renderStackTrace((Throwable) value, out);
+      default -> renderValue(value, out);
+    }
+  }
+
+  private void renderTime(Instant time, StringBuilder out) {
+    if (markup == Markup.NONE) {
+      appendTime(out, time);
+    } else {
+      StringBuilder formatted = new StringBuilder(19);
+      appendTime(formatted, time);
+      markup.escape(formatted, out);
+    }
+  }
+
+  private void renderOrder(Object order, StringBuilder out) {
+    try {
+      if (order instanceof RawOrderEvent.RawOrder rawOrder) {
+        renderRawOrder(rawOrder, out);
+      } else {
+        orderWriter.writeValue(new BufferWriter(out, markup), order);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void renderRawOrder(RawOrderEvent.RawOrder order, StringBuilder out)
+      throws IOException {
+    try (JsonParser parser =
+            jsonFactory.createParser(order.bytes(), order.offset(), order.length());
+        JsonGenerator generator = jsonFactory.createGenerator(new BufferWriter(out, markup))) {
+      generator.setPrettyPrinter(new DefaultPrettyPrinter());
+      while (parser.nextToken() != null) {
+        generator.copyCurrentEventExact(parser);
+      }
+    }
+  }
+
+  private void renderStackTrace(Throwable error, StringBuilder out) {
+    renderValue(error == null ? null : getFirstLinesOfStackTrace(error, STACKTRACE_LINES), out);
+  }
+
+  private void renderValue(Object value, StringBuilder out) {
+    if (markup == Markup.NONE) {
+      out.append(value);
+    } else {
+      markup.escape(String.valueOf(value), out);
+    }
+  }
+
+  private MessageTemplate compile(String template, String defaultTemplate) {
+    return StringUtils.hasText(template)
+        ? MessageTemplate.compile(template)
+        : MessageTemplate.compile(defaultTemplate, markup);
+  }
+
+  /** Writer appending escaped characters to the render buffer. */
+  private static class BufferWriter extends Writer {
+    private final StringBuilder out;
+    private final Markup markup;
+
+    private BufferWriter(StringBuilder out, Markup markup) {
+      this.out = out;
+      this.markup = markup;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      if (markup == Markup.NONE) {
+        out.append(buffer, offset, length);
+      } else {
+        markup.escape(CharBuffer.wrap(buffer, offset, length), out);
+      }
+    }
+
+    @Override
+    public void write(String str, int offset, int length) {
+      if (markup == Markup.NONE) {
+        out.append(str, offset, offset + length);
+      } else {
+        markup.escape(str.subSequence(offset, offset + length), out);
+      }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,113 @@
+package algo.trading.tgalerter.template;
+
+/** Telegram message markup with escaping rules for values inserted into templates. */
+public enum Markup {
+  /** Plain text, nothing is escaped. */
+  NONE(null) {
+    @Override
+    public void escape(CharSequence value, StringBuilder out) {
+      out.append(value);
+    }
+  },
+  /** Telegram MarkdownV2, reserved characters are prefixed with backslash. */
+  MARKDOWN_V2("MarkdownV2") {
+    private static final String RESERVED = "_*[]()~`>#+-=|{}.!\\";
+
+    @Override
+    public void escape(CharSequence value, StringBuilder out) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (RESERVED.indexOf(c) >= 0) {
+          out.append('\\');
+        }
+        out.append(c);
+      }
+    }
+
+    @Override
+    public int splitIndex(CharSequence text, int index) {
+      int backslashes = 0;
+      while (index - backslashes > 0 && text.charAt(index - backslashes - 1) == '\\') {
+        backslashes++;
+      }
+      return backslashes % 2 == 0 ? index : index - 1;
+    }
+  },
+  /** Telegram HTML, markup characters are replaced with entities. */
+  HTML("HTML") {
+    @Override
+    public void escape(CharSequence value, StringBuilder out) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '&' -> out.append("&amp;");
+          case '<' -> out.append("&lt;");
+          case '>' -> out.append("&gt;");
+          default -> out.append(c);
+        }
+      }
+    }
+
+    @Override
+    public int splitIndex(CharSequence text, int index) {
+      for (int i = index - 1; i >= 0 && i >= index - MAX_ENTITY_LENGTH; i--) {
+        char c = text.charAt(i);
+        if (c == ';') {
+          return index;
+        }
+        if (c == '&') {
+          return i;
+        }
+      }
+      return index;
+    }
+  };
+
+  private static final int MAX_ENTITY_LENGTH = 10;
+
+  private final String parseMode;
+
+  Markup(String parseMode) {
+    this.parseMode = parseMode;
+  }
+
+  /**
+   * Returns Bot API parse_mode value.
+   *
+   * @return parse mode, null for plain text
+   */
+  public String getParseMode() {
+    return parseMode;
+  }
+
+  /**
+   * Appends escaped value to buffer.
+   *
+   * @param value text to escape
+   * @param out target buffer
+   */
+  public abstract void escape(CharSequence value, StringBuilder out);
+
+  /**
+   * Returns escaped value.
+   *
+   * @param value text to escape
+   * @return escaped text
+   */
+  public String escape(CharSequence value) {
+    StringBuilder sb = new StringBuilder(value.length() + 16);
+    escape(value, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Moves split position of text back, so that it does not cut an escape sequence or entity.
+   *
+   * @param text escaped text
+   * @param index position text is to be split at
+   * @return position at or before index
+   */
+  public int splitIndex(CharSequence text, int index) {
+    return index;
+  }
+}
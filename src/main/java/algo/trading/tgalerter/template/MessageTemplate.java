@@ -0,0 +1,161 @@
+package algo.trading.tgalerter.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alert template compiled into literal, field and section segments. Syntax: <code>{name}</code>
+ * inserts field value, <code>{?name}...{/name}</code> renders enclosed part only when field has a
+ * non-blank value, <code>{{</code> inserts a literal brace. Literal text is used as is, so it may
+ * contain markup, unless template is compiled with markup of literals.
+ */
+public class MessageTemplate {
+  private final List<Segment> segments;
+
+  private MessageTemplate(List<Segment> segments) {
+    this.segments = segments;
+  }
+
+  /**
+   * Compiles template source.
+   *
+   * @param source template text
+   * @return compiled template
+   * @throws IllegalArgumentException if template references unknown field or is malformed
+   */
+  public static MessageTemplate compile(String source) {
+    return compile(source, Markup.NONE);
+  }
+
+  /**
+   * Compiles template source whose literal text is plain text.
+   *
+   * @param source template text
+   * @param literalMarkup markup literal text is escaped for
+   * @return compiled template
+   * @throws IllegalArgumentException if template references unknown field or is malformed
+   */
+  public static MessageTemplate compile(String source, Markup literalMarkup) {
+    Parser parser = new Parser(source, literalMarkup);
+    List<Segment> segments = parser.parse(null);
+    return new MessageTemplate(segments);
+  }
+
+  /**
+   * Renders template into buffer.
+   *
+   * @param ctx template values
+   * @param renderer renders field values
+   * @param out target buffer
+   */
+  public void render(TemplateContext ctx, FieldRenderer renderer, StringBuilder out) {
+    render(segments, ctx, renderer, out);
+  }
+
+  private static void render(
+      List<Segment> segments, TemplateContext ctx, FieldRenderer renderer, StringBuilder out) {
+    for (Segment segment : segments) {
+      if (segment instanceof Literal literal) {
+        out.append(literal.text());
+      } else if (segment instanceof Field field) {
+        renderer.render(field.field(), field.field().extract(ctx), out);
+      } else if (segment instanceof Section section && isPresent(section.field().extract(ctx))) {
+        render(section.segments(), ctx, renderer, out);
+      }
+    }
+  }
+
+  private static boolean isPresent(Object value) {
+    return value != null && !(value instanceof CharSequence text && text.toString().isBlank());
+  }
+
+  /** Renders field value into alert buffer. */
+  @FunctionalInterface
+  public interface FieldRenderer {
+    /**
+     * Appends rendered value.
+     *
+     * @param field template field
+     * @param value field value, may be null
+     * @param out target buffer
+     */
+    void render(TemplateField field, Object value, StringBuilder out);
+  }
+
+  private sealed interface Segment permits Literal, Field, Section {}
+
+  private record Literal(String text) implements Segment {}
+
+  private record Field(TemplateField field) implements Segment {}
+
+  private record Section(TemplateField field, List<Segment> segments) implements Segment {}
+
+  private static class Parser {
+    private final String source;
+    private final Markup literalMarkup;
+    private int pos;
+
+    private Parser(String source, Markup literalMarkup) {
+      this.source = source;
+      this.literalMarkup = literalMarkup;
+    }
+
+    private List<Segment> parse(TemplateField openSection) {
+      List<Segment> segments = new ArrayList<>();
+      StringBuilder literal = new StringBuilder();
+      while (pos < source.length()) {
+        char c = source.charAt(pos);
+        if (c != '{') {
+          literal.append(c);
+          pos++;
+          continue;
+        }
+        if (source.startsWith("{{", pos)) {
+          literal.append('{');
+          pos += 2;
+          continue;
+        }
+        int end = source.indexOf('}', pos);
+        if (end < 0) {
+          throw new IllegalArgumentException("Unclosed placeholder at " + pos + ": " + source);
+        }
+        String tag = source.substring(pos + 1, end);
+        pos = end + 1;
+        flush(literal, segments);
+        if (tag.startsWith("/")) {
+          TemplateField closed = field(tag.substring(1));
+          if (closed != openSection) {
+            throw new IllegalArgumentException("Unexpected section end {" + tag + "}: " + source);
+          }
+          return segments;
+        }
+        if (tag.startsWith("?")) {
+          TemplateField field = field(tag.substring(1));
+          segments.add(new Section(field, parse(field)));
+        } else {
+          segments.add(new Field(field(tag)));
+        }
+      }
+      if (openSection != null) {
+        throw new IllegalArgumentException("Unclosed section " + openSection + ": " + source);
+      }
+      flush(literal, segments);
+      return segments;
+    }
+
+    private void flush(StringBuilder literal, List<Segment> segments) {
+      if (!literal.isEmpty()) {
+        segments.add(new Literal(literalMarkup.escape(literal)));
+        literal.setLength(0);
+      }
+    }
+
+    private static TemplateField field(String name) {
+      TemplateField field = TemplateField.byName(name);
+      if (field == null) {
+        throw new IllegalArgumentException("Unknown template field: " + name);
+      }
+      return field;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package algo.trading.tgalerter.template;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+
+/**
+ * Values available to alert templates.
+ *
+ * @param event strategy event
+ * @param strategyInfo strategy info, null in error reports
+ * @param error processing error, null in event alerts
+ */
+public record TemplateContext(StrategyEvent event, StrategyInfo strategyInfo, Throwable error) {}
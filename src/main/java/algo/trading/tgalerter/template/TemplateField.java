@@ -0,0 +1,65 @@
+package algo.trading.tgalerter.template;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.listener.RawOrderEvent;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Fields that can be referenced in alert templates by name. */
+public enum TemplateField {
+  TYPE("type", ctx -> ctx.event().getType()),
+  STRATEGY_ID("strategyId", ctx -> ctx.event().getStrategyId()),
+  TIME("time", ctx -> ctx.event().getTime()),
+  STATE("state", ctx -> ctx.event().getState()),
+  MESSAGE("message", ctx -> ctx.event().getMessage()),
+  ORDER("order", ctx -> order(ctx.event())),
+  SYMBOL("symbol", ctx -> ctx.strategyInfo() == null ? null : ctx.strategyInfo().getSymbol()),
+  TIMEFRAME(
+      "timeframe", ctx -> ctx.strategyInfo() == null ? null : ctx.strategyInfo().getTimeframe()),
+  EXCHANGE(
+      "exchange", ctx -> ctx.strategyInfo() == null ? null : ctx.strategyInfo().getExchange()),
+  ERROR_TYPE(
+      "errorType", ctx -> ctx.error() == null ? null : ctx.error().getClass().getSimpleName()),
+  ERROR_MESSAGE("errorMessage", ctx -> ctx.error() == null ? null : ctx.error().getMessage()),
+  STACKTRACE("stacktrace", TemplateContext::error);
+
+  private static final Map<String, TemplateField> BY_NAME =
+      Arrays.stream(values()).collect(Collectors.toMap(f -> f.name, Function.identity()));
+
+  private final String name;
+  private final Function<TemplateContext, Object> accessor;
+
+  TemplateField(String name, Function<TemplateContext, Object> accessor) {
+    this.name = name;
+    this.accessor = accessor;
+  }
+
+  /**
+   * Finds field by template name.
+   *
+   * @param name name used in template
+   * @return field or null if unknown
+   */
+  public static TemplateField byName(String name) {
+    return BY_NAME.get(name);
+  }
+
+  private static Object order(StrategyEvent event) {
+    if (event instanceof RawOrderEvent rawEvent && rawEvent.rawOrder() != null) {
+      return rawEvent.rawOrder();
+    }
+    return event.getOrder();
+  }
+
+  /**
+   * Extracts raw field value.
+   *
+   * @param ctx template context
+   * @return value, may be null
+   */
+  public Object extract(TemplateContext ctx) {
+    return accessor.apply(ctx);
+  }
+}
@@ -0,0 +1,174 @@
+package algo.trading.tgalerter.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Journal file of state changes. Records are queued by the owner and appended in batches by
+ * {@link #flush}, once the file grows past compactAfter records it is rewritten atomically with a
+ * snapshot of current state. Owner applies a change to its state and queues its record under the
+ * same lock the snapshot is taken under, so a snapshot always covers the queued changes it drops.
+ * Records must be single lines ending with a line feed.
+ */
+@Slf4j
+public class AppendOnlyJournal {
+  private final String name;
+  private final Path path;
+  private final int compactAfter;
+  private final Object lock;
+  private final ConcurrentLinkedQueue<String> changes = new ConcurrentLinkedQueue<>();
+  private int records;
+
+  /**
+   * Creates journal, the file is created on first write.
+   *
+   * @param name journal name for logs
+   * @param path journal file
+   * @param compactAfter number of records after which journal is compacted
+   * @param lock lock guarding owner state and queued records
+   */
+  public AppendOnlyJournal(String name, Path path, int compactAfter, Object lock) {
+    this.name = name;
+    this.path = path;
+    this.compactAfter = compactAfter;
+    this.lock = lock;
+  }
+
+  /**
+   * Passes every record of journal file to the consumer, called by owner on startup.
+   *
+   * @param consumer applies record to owner state, malformed records are up to consumer
+   * @return number of replayed records
+   */
+  public int replay(Consumer<String> consumer) {
+    try {
+      Files.createDirectories(path.toAbsolutePath().getParent());
+      if (!Files.exists(path)) {
+        return 0;
+      }
+      try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          records++;
+          consumer.accept(line);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can not load " + name + " from " + path, e);
+    }
+    return records;
+  }
+
+  /**
+   * Queues record of a change, to be called under the owner lock together with the change.
+   *
+   * @param record journal record
+   */
+  public void add(String record) {
+    changes.add(record);
+  }
+
+  /**
+   * Appends queued records, or compacts journal once it has grown past compactAfter records. On
+   * write failure records, including the ones a failed snapshot covered, are queued again and
+   * written on next flush.
+   *
+   * @param snapshot records of current owner state, called under the owner lock
+   */
+  public synchronized void flush(Supplier<List<String>> snapshot) {
+    List<String> batch = drain(changes);
+    try {
+      if (records + batch.size() > compactAfter) {
+        compact(snapshot, batch);
+      } else if (!batch.isEmpty()) {
+        append(path, batch);
+        records += batch.size();
+      }
+    } catch (IOException e) {
+      log.error("Can not write {} to {}, retry on next flush", name, path, e);
+      synchronized (lock) {
+        List<String> rest = drain(changes);
+        changes.addAll(batch);
+        changes.addAll(rest);
+      }
+    }
+  }
+
+  /**
+   * Appends records to the file and forces them to disk.
+   *
+   * @param path target file, created with its directories if missing
+   * @param batch records to append
+   * @throws IOException if file can not be written
+   */
+  public static void append(Path path, List<String> batch) throws IOException {
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    try (FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      write(channel, batch);
+      channel.force(false);
+    }
+  }
+
+  /**
+   * Removes all elements of the queue.
+   *
+   * @param queue queue to drain
+   * @return removed elements in queue order
+   */
+  public static List<String> drain(ConcurrentLinkedQueue<String> queue) {
+    List<String> batch = new ArrayList<>();
+    for (String record = queue.poll(); record != null; record = queue.poll()) {
+      batch.add(record);
+    }
+    return batch;
+  }
+
+  private void compact(Supplier<List<String>> snapshot, List<String> batch) throws IOException {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    List<String> state;
+    synchronized (lock) {
+      // queued changes are already applied to owner state, so snapshot covers them, they are
+      // kept in the batch to be queued again if the snapshot is not written
+      batch.addAll(drain(changes));
+      state = snapshot.get();
+    }
+    try (FileChannel channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      write(channel, state);
+      channel.force(true);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    log.info("Compacted {} journal from {} to {} records", name, records, state.size());
+    records = state.size();
+  }
+
+  private static void write(FileChannel channel, List<String> records) throws IOException {
+    Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+    for (String record : records) {
+      out.write(record);
+    }
+    out.flush();
+  }
+}
@@ -1,16 +1,19 @@
 package algo.trading.tgalerter.util;
 
+import algo.trading.tgalerter.template.Markup;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /** Utility class for formatting various data types. */
 public class FormatUtil {
   private static final DateTimeFormatter DATE_TIME_FORMATTER =
-      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
 
   /**
    * Formats Instant time to readable string.
@@ -22,7 +25,21 @@ public class FormatUtil {
     if (time == null) {
       return "null";
     }
-    return DATE_TIME_FORMATTER.withZone(ZoneId.systemDefault()).format(time);
+    return DATE_TIME_FORMATTER.format(time);
+  }
+
+  /**
+   * Appends Instant time formatted as in {@link #formatTime(Instant)} to StringBuilder.
+   *
+   * @param sb target StringBuilder
+   * @param time the timestamp to format (nullable)
+   */
+  public static void appendTime(StringBuilder sb, Instant time) {
+    if (time == null) {
+      sb.append("null");
+      return;
+    }
+    DATE_TIME_FORMATTER.formatTo(time, sb);
   }
 
   /**
@@ -45,9 +62,47 @@ public class FormatUtil {
    * @param lines number of stacktrace lines to return
    * @return formatted stacktrace string
    */
-  public static String getFirstLinesOfStackTrace(Exception ex, int lines) {
+  public static String getFirstLinesOfStackTrace(Throwable ex, int lines) {
     StringWriter sw = new StringWriter();
     ex.printStackTrace(new PrintWriter(sw));
     return sw.toString().lines().limit(lines).collect(Collectors.joining("\n"));
   }
+
+  /**
+   * Splits text into chunks not longer than limit, preferring to cut at line breaks.
+   *
+   * @param text text to split
+   * @param limit max chunk length
+   * @return chunks in original order
+   */
+  public static List<String> splitByLength(String text, int limit) {
+    return splitByLength(text, limit, Markup.NONE);
+  }
+
+  /**
+   * Splits text into chunks not longer than limit, preferring to cut at line breaks and never
+   * cutting an escape sequence of markup.
+   *
+   * @param text text to split
+   * @param limit max chunk length
+   * @param markup markup text is escaped for
+   * @return chunks in original order
+   */
+  public static List<String> splitByLength(String text, int limit, Markup markup) {
+    List<String> chunks = new ArrayList<>();
+    int start = 0;
+    while (text.length() - start > limit) {
+      int end = text.lastIndexOf('\n', start + limit - 1);
+      if (end <= start) {
+        end = markup.splitIndex(text, start + limit);
+        if (end <= start) {
+          end = start + limit;
+        }
+      }
+      chunks.add(text.substring(start, end));
+      start = text.charAt(end) == '\n' ? end + 1 : end;
+    }
+    chunks.add(text.substring(start));
+    return chunks;
+  }
 }
@@ -0,0 +1,39 @@
+package algo.trading.tgalerter.util;
+
+import java.util.concurrent.ThreadFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/** Utility class for creating worker threads. */
+public class ThreadUtil {
+
+  /**
+   * Creates thread factory producing virtual threads when they are enabled by {@code
+   * spring.threads.virtual.enabled} and supported by JVM, platform threads otherwise.
+   *
+   * @param environment spring environment
+   * @param prefix thread name prefix
+   * @return thread factory
+   */
+  public static ThreadFactory threadFactory(Environment environment, String prefix) {
+    return threadFactory(Threading.VIRTUAL.isActive(environment), prefix);
+  }
+
+  /**
+   * Creates thread factory producing virtual threads when requested and supported by JVM, platform
+   * threads otherwise. Unlike the global Spring flag it affects only the pool it is used for.
+   *
+   * @param virtual whether virtual threads are requested
+   * @param prefix thread name prefix
+   * @return thread factory
+   */
+  public static ThreadFactory threadFactory(boolean virtual, String prefix) {
+    if (virtual && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+      return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+    }
+    return new CustomizableThreadFactory(prefix);
+  }
+}
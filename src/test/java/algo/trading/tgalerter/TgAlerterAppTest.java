@@ -0,0 +1,22 @@
+package algo.trading.tgalerter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TgAlerterAppTest {
+  private static final String EXPOSURE = "--management.endpoints.web.exposure.include=";
+
+  @Test
+  public void startupShouldBeBufferedOnlyWhenStartupEndpointIsExposed() {
+    // when
+    boolean listed = TgAlerterApp.isStartupExposed(EXPOSURE + "health, startup");
+    boolean all = TgAlerterApp.isStartupExposed(EXPOSURE + "*");
+    boolean notListed = TgAlerterApp.isStartupExposed(EXPOSURE + "health,prometheus");
+
+    // then
+    assertThat(listed).isTrue();
+    assertThat(all).isTrue();
+    assertThat(notListed).isFalse();
+  }
+}
@@ -0,0 +1,70 @@
+package algo.trading.tgalerter.bot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.chat.Chat;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+
+public class CommandRouterTest {
+
+  @Test
+  public void routeShouldPickLongestCommandAndParseArguments() {
+    // given
+    TelegramBotProperties properties = new TelegramBotProperties();
+    properties.setUsername("alerter_bot");
+    CommandRouter router = new CommandRouter(properties, new SimpleMeterRegistry());
+    List<CommandRouter.Command> routed = new ArrayList<>();
+    router.register("/mute", routed::add);
+    router.register("/mute_strategy", routed::add);
+
+    // when
+    CommandRouter.Outcome strategy =
+        router.route(message(1L, "/mute_strategy@alerter_bot 7 ORDER"));
+    CommandRouter.Outcome mute = router.route(message(1L, "/mute  BTC"));
+    CommandRouter.Outcome otherBot = router.route(message(1L, "/mute@other_bot BTC"));
+    CommandRouter.Outcome unknown = router.route(message(1L, "/muted"));
+
+    // then
+    assertThat(strategy).isEqualTo(CommandRouter.Outcome.HANDLED);
+    assertThat(mute).isEqualTo(CommandRouter.Outcome.HANDLED);
+    assertThat(otherBot).isEqualTo(CommandRouter.Outcome.IGNORED);
+    assertThat(unknown).isEqualTo(CommandRouter.Outcome.IGNORED);
+    assertThat(routed).hasSize(2);
+    assertThat(routed.get(0).name()).isEqualTo("/mute_strategy");
+    assertThat(routed.get(0).args()).containsExactly("7", "ORDER");
+    assertThat(routed.get(1).name()).isEqualTo("/mute");
+    assertThat(routed.get(1).args()).containsExactly("BTC");
+  }
+
+  @Test
+  public void routeShouldThrottleCommandsPerChat() {
+    // given
+    TelegramBotProperties properties = new TelegramBotProperties();
+    properties.getCommandRateLimit().setPerChatPerSecond(0.001);
+    properties.getCommandRateLimit().setPerChatBurst(2);
+    CommandRouter router = new CommandRouter(properties, new SimpleMeterRegistry());
+    router.register("/rules", command -> {});
+
+    // when
+    router.route(message(1L, "/rules"));
+    router.route(message(1L, "/rules"));
+    CommandRouter.Outcome throttled = router.route(message(1L, "/rules"));
+    CommandRouter.Outcome otherChat = router.route(message(2L, "/rules"));
+
+    // then
+    assertThat(throttled).isEqualTo(CommandRouter.Outcome.THROTTLED);
+    assertThat(otherChat).isEqualTo(CommandRouter.Outcome.HANDLED);
+  }
+
+  private static Message message(Long chatId, String text) {
+    Message message = new Message();
+    message.setChat(Chat.builder().id(chatId).type("private").build());
+    message.setText(text);
+    return message;
+  }
+}
@@ -0,0 +1,181 @@
+package algo.trading.tgalerter.bot;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import algo.trading.tgalerter.BaseIntegrationTest;
+import algo.trading.tgalerter.config.PriorityProperties;
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.time.Duration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+@ImportAutoConfiguration(exclude = TelegramBotStarterConfiguration.class)
+public class OutboundSchedulerTest extends BaseIntegrationTest {
+  private static final String SEND_MESSAGE_URL = "/botfake-token/sendmessage";
+  private static final String OK_RESPONSE =
+      """
+      {"ok":true,"result":{"message_id":1,"date":1700000000,"chat":{"id":666,"type":"private"}}}""";
+  private static final String TOO_MANY_REQUESTS_RESPONSE =
+      """
+      {"ok":false,"error_code":429,"description":"Too Many Requests: retry after 1",\
+      "parameters":{"retry_after":1}}""";
+
+  @Autowired private OutboundScheduler outboundScheduler;
+
+  @Test
+  @SneakyThrows
+  public void submitShouldHonorRetryAfterOnTooManyRequests() {
+    // given
+    stubFor(
+        WireMock.post(urlPathEqualTo(SEND_MESSAGE_URL))
+            .inScenario("rate-limit")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(
+                aResponse()
+                    .withStatus(429)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(TOO_MANY_REQUESTS_RESPONSE))
+            .willSetStateTo("limited"));
+    stubFor(
+        WireMock.post(urlPathEqualTo(SEND_MESSAGE_URL))
+            .inScenario("rate-limit")
+            .whenScenarioStateIs("limited")
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json").withBody(OK_RESPONSE)));
+
+    // when
+    long start = System.nanoTime();
+    outboundScheduler.submit(message("666", "alert")).join();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    // then
+    assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+    WireMock.verify(2, postRequestedFor(urlPathEqualTo(SEND_MESSAGE_URL)));
+  }
+
+  @Test
+  @SneakyThrows
+  public void submitShouldNotDelayOtherChatsBehindBusyChat() {
+    // given
+    stubFor(
+        WireMock.post(urlPathEqualTo(SEND_MESSAGE_URL))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json").withBody(OK_RESPONSE)));
+
+    // when
+    outboundScheduler.submit(message("111", "busy-1"));
+    outboundScheduler.submit(message("111", "busy-2"));
+    CompletableFuture<Void> busyLast = outboundScheduler.submit(message("111", "busy-3"));
+    CompletableFuture<Void> other = outboundScheduler.submit(message("222", "other"));
+    other.join();
+
+    // then
+    assertThat(busyLast).isNotDone();
+    busyLast.join();
+    WireMock.verify(
+        1,
+        postRequestedFor(urlPathEqualTo(SEND_MESSAGE_URL)).withRequestBody(containing("other")));
+  }
+
+  @Test
+  @SneakyThrows
+  public void submitShouldSendUrgentMessageAheadOfChatBacklog() {
+    // given
+    stubFor(
+        WireMock.post(urlPathEqualTo(SEND_MESSAGE_URL))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json").withBody(OK_RESPONSE)));
+
+    // when
+    outboundScheduler.submit(message("333", "routine-1"));
+    CompletableFuture<Void> routine = outboundScheduler.submit(message("333", "routine-2"));
+    CompletableFuture<Void> last = outboundScheduler.submit(message("333", "routine-3"));
+    CompletableFuture<Void> urgent = outboundScheduler.submit(message("333", "urgent"), true);
+    urgent.join();
+
+    // then
+    assertThat(routine).isNotDone();
+    last.join();
+  }
+
+  @Test
+  @SneakyThrows
+  public void submitShouldWaitForFreeSpaceWhenQueueIsFull() {
+    // given
+    CompletableFuture<Message> firstSent = new CompletableFuture<>();
+    TelegramClient client = mock(TelegramClient.class);
+    when(client.executeAsync(any(SendMessage.class)))
+        .thenReturn(firstSent)
+        .thenReturn(CompletableFuture.completedFuture(null));
+    OutboundScheduler scheduler = scheduler(client, Duration.ofSeconds(10));
+    scheduler.submit(message("444", "in-flight"));
+    scheduler.submit(message("444", "queued"));
+
+    // when
+    CompletableFuture<CompletableFuture<Void>> blocked =
+        CompletableFuture.supplyAsync(() -> scheduler.submit(message("444", "blocked")));
+
+    // then
+    try {
+      Thread.sleep(300);
+      assertThat(blocked).isNotDone();
+      firstSent.complete(null);
+      blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  public void submitShouldBeRejectedWhenQueueStaysFull() {
+    // given
+    TelegramClient client = mock(TelegramClient.class);
+    when(client.executeAsync(any(SendMessage.class))).thenReturn(new CompletableFuture<>());
+    OutboundScheduler scheduler = scheduler(client, Duration.ofMillis(100));
+    scheduler.submit(message("555", "in-flight"));
+    scheduler.submit(message("555", "queued"));
+
+    // when
+    CompletableFuture<Void> rejected = scheduler.submit(message("555", "rejected"));
+
+    // then
+    scheduler.shutdown();
+    assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+  }
+
+  private static OutboundScheduler scheduler(TelegramClient client, Duration queueTimeout) {
+    TelegramBotProperties properties = new TelegramBotProperties();
+    properties.getRateLimit().setQueueCapacity(1);
+    properties.getRateLimit().setQueueTimeout(queueTimeout);
+    PriorityProperties priorityProperties = new PriorityProperties();
+    priorityProperties.setOutboundReserve(0);
+    return new OutboundScheduler(
+        client, properties, priorityProperties, new SimpleMeterRegistry());
+  }
+
+  private static SendMessage message(String chatId, String text) {
+    return SendMessage.builder().chatId(chatId).text(text).build();
+  }
+}
@@ -0,0 +1,108 @@
+package algo.trading.tgalerter.bot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import algo.trading.tgalerter.BaseIntegrationTest;
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.exceptions.FailBotStartingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+@SpringBootTest(
+    properties = {
+      "telegram.bot.update-mode=webhook",
+      "telegram.bot.webhook.secret-token=test-secret"
+    })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ImportAutoConfiguration(exclude = TelegramBotStarterConfiguration.class)
+public class WebhookUpdateControllerTest extends BaseIntegrationTest {
+  private static final String UPDATE = "{\"update_id\": 42}";
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private TradingAlertBot tradingAlertBot;
+
+  @TestConfiguration
+  static class TestConfig {
+    @Bean
+    @Primary
+    public TradingAlertBot tradingAlertBot() {
+      return mock(TradingAlertBot.class);
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void postUpdateTwiceShouldProcessItOnce() {
+    for (int i = 0; i < 2; i++) {
+      mockMvc
+          .perform(
+              post("/telegram/webhook")
+                  .header(WebhookUpdateController.SECRET_TOKEN_HEADER, "test-secret")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(UPDATE))
+          .andExpect(status().isOk());
+    }
+
+    ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+    verify(tradingAlertBot, after(500)).processUpdate(captor.capture());
+    assertThat(captor.getValue().getUpdateId()).isEqualTo(42);
+  }
+
+  @Test
+  @SneakyThrows
+  void postUpdateWithWrongSecretShouldBeRejected() {
+    mockMvc
+        .perform(
+            post("/telegram/webhook")
+                .header(WebhookUpdateController.SECRET_TOKEN_HEADER, "wrong")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"update_id\": 43}"))
+        .andExpect(status().isUnauthorized());
+
+    verify(tradingAlertBot, after(200).never())
+        .processUpdate(argThat(update -> update.getUpdateId() == 43));
+  }
+
+  @Test
+  void webhookWithoutSecretShouldFailStartup() {
+    // given
+    TelegramBotProperties properties = new TelegramBotProperties();
+    properties.getWebhook().setSecretToken("");
+
+    // when
+    Runnable creation =
+        () ->
+            new WebhookUpdateController(
+                mock(UpdateExecutor.class),
+                mock(TelegramClient.class),
+                properties,
+                new SimpleMeterRegistry());
+
+    // then
+    assertThatThrownBy(creation::run).isInstanceOf(FailBotStartingException.class);
+  }
+}
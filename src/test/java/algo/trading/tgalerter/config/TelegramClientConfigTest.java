@@ -0,0 +1,56 @@
+package algo.trading.tgalerter.config;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+public class TelegramClientConfigTest {
+  private static final String GET_ME_RESPONSE =
+      """
+      {"ok":true,"result":{"id":1,"is_bot":true,"first_name":"alerter"}}""";
+
+  private final WireMockServer server = new WireMockServer(options().dynamicPort());
+
+  @BeforeEach
+  void setUp() {
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  @SneakyThrows
+  public void telegramClientShouldKeepBasePathOfApiUrl() {
+    // given
+    server.stubFor(
+        post(urlPathEqualTo("/proxy/telegram/botfake-token/getme"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(GET_ME_RESPONSE)));
+    TelegramBotProperties properties = new TelegramBotProperties();
+    properties.setToken("fake-token");
+    properties.setApiUrl(server.baseUrl() + "/proxy/telegram/");
+
+    // when
+    TelegramClient client = new TelegramClientConfig().telegramClient(properties);
+    User bot = client.execute(new GetMe());
+
+    // then
+    assertThat(bot.getFirstName()).isEqualTo("alerter");
+  }
+}
@@ -0,0 +1,27 @@
+package algo.trading.tgalerter.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.tgalerter.BaseIntegrationTest;
+import algo.trading.tgalerter.bot.OutboundScheduler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
+
+@SpringBootTest(properties = "telegram.bot.username=lazy-client-test")
+@ImportAutoConfiguration(exclude = TelegramBotStarterConfiguration.class)
+public class TelegramClientLazyInitTest extends BaseIntegrationTest {
+  @Autowired private ConfigurableApplicationContext context;
+
+  @Autowired private OutboundScheduler outboundScheduler;
+
+  @Test
+  public void telegramClientShouldNotBeCreatedOnStartup() {
+    // then
+    assertThat(outboundScheduler).isNotNull();
+    assertThat(context.getBeanFactory().containsSingleton("telegramClient")).isFalse();
+  }
+}
@@ -0,0 +1,139 @@
+package algo.trading.tgalerter.dispatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.DispatchProperties;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import algo.trading.tgalerter.config.PriorityProperties;
+import algo.trading.tgalerter.exceptions.IntegrationException;
+import algo.trading.tgalerter.exceptions.OrchestratorUnavailableException;
+import algo.trading.tgalerter.integration.OrchestratorCircuitBreaker;
+import algo.trading.tgalerter.service.EventService;
+import algo.trading.tgalerter.service.HandleErrorsService;
+import algo.trading.tgalerter.service.PriorityClassifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+
+public class EventDispatcherTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final EventService eventService = mock(EventService.class);
+  private EventDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void parkedEventsShouldBeReplayedAfterWaitDurationInOpenState() throws Exception {
+    // given
+    OrchestratorCircuitBreaker circuitBreaker = circuitBreaker();
+    dispatcher = dispatcher(circuitBreaker, 100);
+    when(eventService.processEvent(any(), any()))
+        .thenReturn(
+            CompletableFuture.failedFuture(new OrchestratorUnavailableException("circuit open")))
+        .thenReturn(
+            CompletableFuture.failedFuture(new OrchestratorUnavailableException("circuit open")))
+        .thenAnswer(
+            invocation -> {
+              circuitBreaker.call(() -> "ok");
+              return CompletableFuture.completedFuture(null);
+            });
+    openCircuit(circuitBreaker);
+
+    // when
+    List<CompletableFuture<Void>> results = new ArrayList<>();
+    results.add(dispatcher.dispatch(event(1L)));
+    results.add(dispatcher.dispatch(event(2L)));
+
+    // then
+    CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(2, TimeUnit.SECONDS);
+    verify(eventService, times(4)).processEvent(any(), any());
+    assertThat(circuitBreaker.getState()).isEqualTo(OrchestratorCircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  public void parkingCapacityShouldBeCappedBelowPrefetch() {
+    // given
+    OrchestratorCircuitBreaker circuitBreaker = circuitBreaker();
+    dispatcher = dispatcher(circuitBreaker, 2);
+    when(eventService.processEvent(any(), any()))
+        .thenReturn(
+            CompletableFuture.failedFuture(new OrchestratorUnavailableException("circuit open")));
+    openCircuit(circuitBreaker);
+
+    // when
+    CompletableFuture<Void> parked = dispatcher.dispatch(event(1L));
+    CompletableFuture<Void> rejected = dispatcher.dispatch(event(1L));
+
+    // then
+    assertThatThrownBy(() -> rejected.get(2, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(OrchestratorUnavailableException.class);
+    assertThat(parked).isNotDone();
+    assertThat(meterRegistry.get("alerter.dispatch.parked").gauge().value()).isEqualTo(1);
+  }
+
+  private OrchestratorCircuitBreaker circuitBreaker() {
+    IntegrationProperty integrationProperty = new IntegrationProperty();
+    integrationProperty.setOrchestrator(new IntegrationProperty.Orchestrator());
+    IntegrationProperty.CircuitBreaker properties =
+        integrationProperty.getOrchestrator().getCircuitBreaker();
+    properties.setSlidingWindowSize(2);
+    properties.setMinimumCalls(2);
+    properties.setPermittedCallsInHalfOpenState(1);
+    properties.setWaitDurationInOpenState(Duration.ofMillis(200));
+    return new OrchestratorCircuitBreaker(integrationProperty, meterRegistry);
+  }
+
+  private EventDispatcher dispatcher(OrchestratorCircuitBreaker circuitBreaker, int prefetch) {
+    DispatchProperties properties = new DispatchProperties();
+    properties.setPartitions(1);
+    RabbitProperties rabbitProperties = new RabbitProperties();
+    rabbitProperties.getListener().getSimple().setPrefetch(prefetch);
+    PriorityProperties priorityProperties = new PriorityProperties();
+    HandleErrorsService handleErrorsService = mock(HandleErrorsService.class);
+    when(handleErrorsService.handleError(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    return new EventDispatcher(
+        eventService,
+        handleErrorsService,
+        properties,
+        new PriorityClassifier(priorityProperties),
+        priorityProperties,
+        circuitBreaker,
+        rabbitProperties,
+        meterRegistry);
+  }
+
+  private static void openCircuit(OrchestratorCircuitBreaker circuitBreaker) {
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(
+              () ->
+                  circuitBreaker.call(
+                      () -> {
+                        throw new IntegrationException("Orchestrator is down", 500);
+                      }))
+          .isInstanceOf(IntegrationException.class);
+    }
+    assertThat(circuitBreaker.getState()).isEqualTo(OrchestratorCircuitBreaker.State.OPEN);
+  }
+
+  private static StrategyEvent event(Long strategyId) {
+    return StrategyEvent.builder().strategyId(strategyId).type(EventType.ACTION).build();
+  }
+}
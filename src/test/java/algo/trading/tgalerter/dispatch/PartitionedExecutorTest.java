@@ -0,0 +1,144 @@
+package algo.trading.tgalerter.dispatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+public class PartitionedExecutorTest {
+  private static final int KEYS = 16;
+  private static final int TASKS_PER_KEY = 1_000;
+
+  @Test
+  public void tasksOfOneKeyShouldRunInSubmissionOrder() {
+    // given
+    Map<Long, List<Integer>> executed = new ConcurrentHashMap<>();
+    PartitionedExecutor executor =
+        new PartitionedExecutor(4, 8, 8, Executors.defaultThreadFactory());
+
+    // when
+    for (int i = 0; i < TASKS_PER_KEY; i++) {
+      for (long key = 0; key < KEYS; key++) {
+        int seq = i;
+        long taskKey = key;
+        executor.execute(
+            key, () -> executed.computeIfAbsent(taskKey, k -> new ArrayList<>()).add(seq));
+      }
+    }
+    executor.close();
+
+    // then
+    assertThat(executed).hasSize(KEYS);
+    for (List<Integer> sequence : executed.values()) {
+      assertThat(sequence).hasSize(TASKS_PER_KEY).isSorted();
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  public void executeShouldBlockWhilePartitionQueueIsFull() {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    PartitionedExecutor executor =
+        new PartitionedExecutor(1, 1, 1, Executors.defaultThreadFactory());
+    executor.execute(
+        1L,
+        () -> {
+          started.countDown();
+          awaitQuietly(release);
+        });
+    started.await(5, TimeUnit.SECONDS);
+    executor.execute(2L, () -> {});
+
+    // when
+    CompletableFuture<Void> blocked =
+        CompletableFuture.runAsync(() -> executor.execute(3L, () -> {}));
+
+    // then
+    Thread.sleep(200);
+    assertThat(blocked).isNotDone();
+    assertThat(executor.queuedTasks()).isEqualTo(1);
+    release.countDown();
+    blocked.get(5, TimeUnit.SECONDS);
+    executor.close();
+    assertThat(executor.queuedTasks()).isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  public void priorityTasksShouldRunBeforeQueuedNormalTasks() {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    List<String> executed = new CopyOnWriteArrayList<>();
+    PartitionedExecutor executor =
+        new PartitionedExecutor(1, 8, 8, Executors.defaultThreadFactory());
+    executor.execute(
+        1L,
+        () -> {
+          started.countDown();
+          awaitQuietly(release);
+        });
+    started.await(5, TimeUnit.SECONDS);
+
+    // when
+    executor.execute(1L, false, () -> executed.add("normal-1"));
+    executor.execute(1L, true, () -> executed.add("high-1"));
+    executor.execute(1L, false, () -> executed.add("normal-2"));
+    executor.execute(1L, true, () -> executed.add("high-2"));
+    release.countDown();
+    executor.close();
+
+    // then
+    assertThat(executed).containsExactly("high-1", "high-2", "normal-1", "normal-2");
+  }
+
+  @Test
+  @SneakyThrows
+  public void tasksExecutedWhileClosingShouldRunOrBeRejected() {
+    // given
+    PartitionedExecutor executor =
+        new PartitionedExecutor(2, 4, 4, Executors.defaultThreadFactory());
+    AtomicInteger accepted = new AtomicInteger();
+    AtomicInteger executed = new AtomicInteger();
+    CountDownLatch submitting = new CountDownLatch(1);
+    CompletableFuture<Void> submitter =
+        CompletableFuture.runAsync(
+            () -> {
+              for (long key = 0; ; key++) {
+                try {
+                  executor.execute(key, executed::incrementAndGet);
+                } catch (RejectedExecutionException e) {
+                  return;
+                }
+                accepted.incrementAndGet();
+                submitting.countDown();
+              }
+            });
+    submitting.await(5, TimeUnit.SECONDS);
+
+    // when
+    executor.close();
+
+    // then
+    submitter.get(5, TimeUnit.SECONDS);
+    assertThat(executed.get()).isEqualTo(accepted.get());
+  }
+
+  @SneakyThrows
+  private static void awaitQuietly(CountDownLatch latch) {
+    latch.await(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,85 @@
+package algo.trading.tgalerter.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import algo.trading.tgalerter.config.IntegrationProperty;
+import algo.trading.tgalerter.exceptions.IntegrationException;
+import algo.trading.tgalerter.exceptions.OrchestratorUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OrchestratorCircuitBreakerTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<OrchestratorCircuitBreaker.State> transitions = new CopyOnWriteArrayList<>();
+  private OrchestratorCircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void setUp() {
+    IntegrationProperty integrationProperty = new IntegrationProperty();
+    integrationProperty.setOrchestrator(new IntegrationProperty.Orchestrator());
+    IntegrationProperty.CircuitBreaker properties =
+        integrationProperty.getOrchestrator().getCircuitBreaker();
+    properties.setSlidingWindowSize(4);
+    properties.setMinimumCalls(4);
+    properties.setPermittedCallsInHalfOpenState(2);
+    properties.setWaitDurationInOpenState(Duration.ofMillis(100));
+    circuitBreaker = new OrchestratorCircuitBreaker(integrationProperty, meterRegistry);
+    circuitBreaker.onStateChange(transitions::add);
+  }
+
+  @Test
+  @SneakyThrows
+  public void serverErrorsShouldOpenCircuitUntilTrialCallsSucceed() {
+    // given
+    callFailing(500);
+    callFailing(500);
+    circuitBreaker.call(() -> "ok");
+    callFailing(503);
+
+    // when
+    Runnable rejected = () -> circuitBreaker.call(() -> "ok");
+
+    // then
+    assertThatThrownBy(rejected::run).isInstanceOf(OrchestratorUnavailableException.class);
+    assertThat(meterRegistry.get("alerter.orchestrator.circuit.rejected").counter().count())
+        .isEqualTo(1);
+    Thread.sleep(150);
+    assertThat(circuitBreaker.getState()).isEqualTo(OrchestratorCircuitBreaker.State.HALF_OPEN);
+    circuitBreaker.call(() -> "ok");
+    circuitBreaker.call(() -> "ok");
+    assertThat(circuitBreaker.getState()).isEqualTo(OrchestratorCircuitBreaker.State.CLOSED);
+    assertThat(transitions)
+        .containsExactly(
+            OrchestratorCircuitBreaker.State.OPEN,
+            OrchestratorCircuitBreaker.State.HALF_OPEN,
+            OrchestratorCircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  public void clientErrorsShouldNotOpenCircuit() {
+    // when
+    for (int i = 0; i < 10; i++) {
+      callFailing(404);
+    }
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(OrchestratorCircuitBreaker.State.CLOSED);
+    assertThat(transitions).isEmpty();
+  }
+
+  private void callFailing(int status) {
+    assertThatThrownBy(
+            () ->
+                circuitBreaker.call(
+                    () -> {
+                      throw new IntegrationException("Orchestrator failed", status);
+                    }))
+        .isInstanceOf(IntegrationException.class);
+  }
+}
@@ -0,0 +1,133 @@
+package algo.trading.tgalerter.integration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.ChatDto;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.BaseIntegrationTest;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
+
+@SpringBootTest(properties = "integration.orchestrator.batch.window=200ms")
+@ImportAutoConfiguration(exclude = TelegramBotStarterConfiguration.class)
+public class StrategyInfoBatchLoaderTest extends BaseIntegrationTest {
+  private static final String BULK_URL = "/inner/strategy/info";
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private StrategyInfoBatchLoader strategyInfoBatchLoader;
+
+  @Autowired private IntegrationProperty integrationProperty;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(strategyInfoBatchLoader, "bulkDisabled", false);
+  }
+
+  @Test
+  @SneakyThrows
+  public void concurrentLoadsShouldBeResolvedWithOneBulkRequest() {
+    // given
+    stubFor(
+        WireMock.post(urlEqualTo(BULK_URL))
+            .withRequestBody(equalToJson("[1, 2, 3]", true, false))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        objectMapper.writeValueAsString(
+                            Map.of(1L, chat("101"), 2L, chat("102"), 3L, chat("103"))))));
+
+    // when
+    List<CompletableFuture<StrategyInfo>> results =
+        List.of(1L, 2L, 3L).stream()
+            .map(id -> CompletableFuture.supplyAsync(() -> strategyInfoBatchLoader.load(id)))
+            .toList();
+
+    // then
+    assertThat(results.stream().map(CompletableFuture::join).map(StrategyInfo::getChatId))
+        .containsExactly("101", "102", "103");
+    WireMock.verify(1, postRequestedFor(urlEqualTo(BULK_URL)));
+    WireMock.verify(0, getRequestedFor(urlPathMatching("/inner/strategy/.*/info")));
+  }
+
+  @Test
+  @SneakyThrows
+  public void loadAllShouldFallBackToSingleRequestsWhenBulkIsNotAvailable() {
+    // given
+    stubFor(WireMock.post(urlEqualTo(BULK_URL)).willReturn(aResponse().withStatus(404)));
+    for (long id = 1; id <= 2; id++) {
+      stubFor(
+          WireMock.get(urlEqualTo("/inner/strategy/" + id + "/info"))
+              .willReturn(
+                  aResponse()
+                      .withHeader("Content-Type", "application/json")
+                      .withBody(objectMapper.writeValueAsString(chat("10" + id)))));
+    }
+
+    // when
+    Map<Long, StrategyInfo> first = strategyInfoBatchLoader.loadAll(Set.of(1L, 2L));
+    Map<Long, StrategyInfo> second = strategyInfoBatchLoader.loadAll(Set.of(1L, 2L));
+
+    // then
+    assertThat(first.get(1L).getChatId()).isEqualTo("101");
+    assertThat(first.get(2L).getChatId()).isEqualTo("102");
+    assertThat(second).hasSize(2);
+    WireMock.verify(1, postRequestedFor(urlEqualTo(BULK_URL)));
+    WireMock.verify(4, getRequestedFor(urlPathMatching("/inner/strategy/.*/info")));
+  }
+
+  @Test
+  @SneakyThrows
+  public void loadAllShouldRequestStrategiesOneByOneWhenBatchingIsDisabled() {
+    // given
+    for (long id = 4; id <= 5; id++) {
+      stubFor(
+          WireMock.get(urlEqualTo("/inner/strategy/" + id + "/info"))
+              .willReturn(
+                  aResponse()
+                      .withHeader("Content-Type", "application/json")
+                      .withBody(objectMapper.writeValueAsString(chat("10" + id)))));
+    }
+    IntegrationProperty.Batch batch = integrationProperty.getOrchestrator().getBatch();
+    batch.setEnabled(false);
+
+    // when
+    Map<Long, StrategyInfo> result;
+    try {
+      result = strategyInfoBatchLoader.loadAll(Set.of(4L, 5L));
+    } finally {
+      batch.setEnabled(true);
+    }
+
+    // then
+    assertThat(result.get(4L).getChatId()).isEqualTo("104");
+    assertThat(result.get(5L).getChatId()).isEqualTo("105");
+    WireMock.verify(0, postRequestedFor(urlEqualTo(BULK_URL)));
+    WireMock.verify(2, getRequestedFor(urlPathMatching("/inner/strategy/.*/info")));
+  }
+
+  private static ChatDto chat(String chatId) {
+    return ChatDto.builder().chatId(chatId).build();
+  }
+}
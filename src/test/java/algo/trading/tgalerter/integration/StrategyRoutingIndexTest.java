@@ -0,0 +1,32 @@
+package algo.trading.tgalerter.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.IntegrationProperty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class StrategyRoutingIndexTest {
+
+  @Test
+  void routeOlderThanStrategyInfoLifetimeShouldOnlyServeAsFallback() throws Exception {
+    // given
+    IntegrationProperty integrationProperty = new IntegrationProperty();
+    integrationProperty.setOrchestrator(new IntegrationProperty.Orchestrator());
+    integrationProperty.getOrchestrator().getCache().setExpireAfterWrite(Duration.ofMillis(50));
+    StrategyRoutingIndex index =
+        new StrategyRoutingIndex(integrationProperty, new SimpleMeterRegistry());
+    StrategyInfo strategyInfo = StrategyInfo.builder().chatId("42").build();
+    index.put(1L, strategyInfo);
+    assertThat(index.getChatId(1L)).isEqualTo("42");
+
+    // when
+    Thread.sleep(100);
+
+    // then
+    assertThat(index.getChatId(1L)).isNull();
+    assertThat(index.getStrategyInfo(1L)).isSameAs(strategyInfo);
+  }
+}
@@ -0,0 +1,103 @@
+package algo.trading.tgalerter.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import algo.trading.common.dto.Order;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.EventFilterProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class EventMessageReaderTest {
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final EventMessageReader eventMessageReader =
+      new EventMessageReader(new EventFilterProperties(), objectMapper, new SimpleMeterRegistry());
+
+  @Test
+  @SneakyThrows
+  public void readShouldKeepOrderRawUntilAccessed() {
+    // given
+    byte[] body;
+    try (InputStream json = getClass().getResourceAsStream("/example/event.json")) {
+      body = json.readAllBytes();
+    }
+    StrategyEvent expected = objectMapper.readValue(body, StrategyEvent.class);
+
+    // when
+    StrategyEvent event = eventMessageReader.read(new Message(body, new MessageProperties()));
+
+    // then
+    assertThat(event).isInstanceOf(RawOrderEvent.class);
+    RawOrderEvent rawEvent = (RawOrderEvent) event;
+    assertThat(rawEvent.orderGuid()).isEqualTo(expected.getOrder().getGuid());
+    assertThat(new String(body, rawEvent.rawOrder().offset(), rawEvent.rawOrder().length()))
+        .startsWith("{")
+        .endsWith("}")
+        .contains("\"result\": -50.00");
+    assertThat(event.getStrategyId()).isEqualTo(expected.getStrategyId());
+    assertThat(event.getTime()).isEqualTo(expected.getTime());
+    assertThat(event.getState()).isEqualTo(expected.getState());
+    assertThat(event.getOrder()).isEqualTo(expected.getOrder());
+  }
+
+  @Test
+  @SneakyThrows
+  public void readShouldReturnPlainEventWithoutOrder() {
+    // given
+    byte[] body = "{\"strategyId\":777,\"type\":\"ACTION\",\"order\":null}".getBytes();
+
+    // when
+    StrategyEvent event = eventMessageReader.read(new Message(body, new MessageProperties()));
+
+    // then
+    assertThat(event).isNotInstanceOf(RawOrderEvent.class);
+    assertThat(event.getStrategyId()).isEqualTo(777L);
+    assertThat(event.getOrder()).isNull();
+  }
+
+  @Test
+  public void strategyIdShouldBeReadFromHeaderThenFromBody() {
+    // given
+    byte[] body =
+        "{\"type\":\"ACTION\",\"state\":{\"strategyId\":1},\"strategyId\":777}".getBytes();
+    MessageProperties withHeader = new MessageProperties();
+    withHeader.setHeader("strategyId", 888L);
+
+    // when
+    Long fromBody = eventMessageReader.strategyId(new Message(body, new MessageProperties()));
+    Long fromHeader = eventMessageReader.strategyId(new Message(body, withHeader));
+    Long missing = eventMessageReader.strategyId(new Message(new byte[0], new MessageProperties()));
+
+    // then
+    assertThat(fromBody).isEqualTo(777L);
+    assertThat(fromHeader).isEqualTo(888L);
+    assertThat(missing).isNull();
+  }
+
+  @Test
+  public void toStringShouldNotDeserializeOrder() {
+    // given
+    byte[] malformed = "{\"guid\": ".getBytes();
+    RawOrderEvent event =
+        new RawOrderEvent(
+            objectMapper.readerFor(Order.class),
+            new RawOrderEvent.RawOrder(malformed, 0, malformed.length),
+            "order-1");
+    event.setStrategyId(777L);
+
+    // when
+    String text = event.toString();
+
+    // then
+    assertThat(text).contains("strategyId=777").contains("orderGuid=order-1");
+    assertThatThrownBy(event::getOrder).isInstanceOf(UncheckedIOException.class);
+  }
+}
@@ -0,0 +1,231 @@
+package algo.trading.tgalerter.listener;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.common.dto.ChatDto;
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.BaseIntegrationTest;
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.BatchListenerProperties;
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.rabbitmq.client.Channel;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
+
+@SpringBootTest(properties = "listener.batch.enabled=true")
+@ImportAutoConfiguration(exclude = TelegramBotStarterConfiguration.class)
+public class StrategyBatchListenerTest extends BaseIntegrationTest {
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private StrategyBatchListener strategyBatchListener;
+
+  @Autowired private TradingAlertBot tradingAlertBot;
+
+  @Autowired private StrategyInfoCache strategyInfoCache;
+
+  @Autowired private BatchListenerProperties batchListenerProperties;
+
+  @TestConfiguration
+  static class TestConfig {
+    @Bean
+    @Primary
+    public TradingAlertBot tradingAlertBot() {
+      TradingAlertBot mock = mock(TradingAlertBot.class);
+      when(mock.getBotToken()).thenReturn("test-token");
+      return mock;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    Mockito.reset(tradingAlertBot);
+    when(tradingAlertBot.alertAsync(anyString(), anyString()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    strategyInfoCache.invalidateAll();
+  }
+
+  @Test
+  @SneakyThrows
+  public void processBatchShouldAckOnceAndSkipTicks() {
+    // given
+    stubStrategy(777L, "666");
+    Channel channel = mock(Channel.class);
+    List<Message> messages =
+        List.of(
+            message(1, StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).build()),
+            message(2, StrategyEvent.builder().type(EventType.TICK).strategyId(777L).build()),
+            message(3, StrategyEvent.builder().type(EventType.ORDER).strategyId(777L).build()));
+
+    // when
+    strategyBatchListener.processStrategyEvents(messages, channel);
+
+    // then
+    verify(tradingAlertBot, times(2)).alertAsync(anyString(), eq("666"));
+    WireMock.verify(1, getRequestedFor(urlEqualTo("/inner/strategy/777/info")));
+    verify(channel).basicAck(3, true);
+    verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+  }
+
+  @Test
+  @SneakyThrows
+  public void processBatchShouldNackFailedEvents() {
+    // given
+    stubStrategy(777L, "666");
+    stubFor(
+        WireMock.get(urlEqualTo("/inner/strategy/778/info"))
+            .willReturn(aResponse().withStatus(500)));
+    Channel channel = mock(Channel.class);
+    List<Message> messages =
+        List.of(
+            message(1, StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).build()),
+            message(2, StrategyEvent.builder().type(EventType.ACTION).strategyId(778L).build()),
+            new Message("not json".getBytes(), deliveryProperties(3)));
+
+    // when
+    strategyBatchListener.processStrategyEvents(messages, channel);
+
+    // then
+    verify(channel).basicAck(1, false);
+    verify(channel).basicNack(2, false, false);
+    verify(channel).basicNack(3, false, false);
+    verify(channel, never()).basicAck(anyLong(), eq(true));
+  }
+
+  @Test
+  @SneakyThrows
+  public void processBatchShouldRejectFailedEventAfterMaxRedeliveries() {
+    // given
+    stubFor(
+        WireMock.get(urlEqualTo("/inner/strategy/779/info"))
+            .willReturn(aResponse().withStatus(404)));
+    batchListenerProperties.setRequeueFailed(true);
+    Channel channel = mock(Channel.class);
+    StrategyEvent event = StrategyEvent.builder().type(EventType.ACTION).strategyId(779L).build();
+    Message first = message(1, event);
+    Message quorumRetry = message(2, event);
+    quorumRetry.getMessageProperties().setHeader("x-delivery-count", 1L);
+    Message quorumLast = message(3, event);
+    quorumLast.getMessageProperties().setHeader("x-delivery-count", 3L);
+
+    // when
+    try {
+      strategyBatchListener.processStrategyEvents(
+          List.of(first, quorumRetry, quorumLast), channel);
+    } finally {
+      batchListenerProperties.setRequeueFailed(false);
+    }
+
+    // then
+    verify(channel).basicNack(1, false, true);
+    verify(channel).basicNack(2, false, true);
+    verify(channel).basicNack(3, false, false);
+  }
+
+  @Test
+  @SneakyThrows
+  public void processBatchShouldCountRedeliveriesOfClassicQueue() {
+    // given
+    stubFor(
+        WireMock.get(urlEqualTo("/inner/strategy/780/info"))
+            .willReturn(aResponse().withStatus(404)));
+    batchListenerProperties.setRequeueFailed(true);
+    Channel channel = mock(Channel.class);
+    StrategyEvent event = StrategyEvent.builder().type(EventType.ACTION).strategyId(780L).build();
+
+    // when
+    try {
+      for (long deliveryTag = 1; deliveryTag <= 3; deliveryTag++) {
+        Message redelivered = message(deliveryTag, event);
+        redelivered.getMessageProperties().setMessageId("classic-1");
+        redelivered.getMessageProperties().setRedelivered(true);
+        strategyBatchListener.processStrategyEvents(List.of(redelivered), channel);
+      }
+    } finally {
+      batchListenerProperties.setRequeueFailed(false);
+    }
+
+    // then
+    verify(channel).basicNack(1, false, true);
+    verify(channel).basicNack(2, false, true);
+    verify(channel).basicNack(3, false, false);
+  }
+
+  @Test
+  @SneakyThrows
+  public void processBatchShouldWaitForRateLimitOfBusiestChat() {
+    // given
+    stubStrategy(777L, "666");
+    when(tradingAlertBot.alertAsync(anyString(), anyString()))
+        .thenReturn(
+            CompletableFuture.supplyAsync(
+                () -> null, CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS)));
+    Duration processingTimeout = batchListenerProperties.getProcessingTimeout();
+    batchListenerProperties.setProcessingTimeout(Duration.ZERO);
+    Channel channel = mock(Channel.class);
+    StrategyEvent event = StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).build();
+
+    // when
+    try {
+      strategyBatchListener.processStrategyEvents(List.of(message(1, event)), channel);
+    } finally {
+      batchListenerProperties.setProcessingTimeout(processingTimeout);
+    }
+
+    // then
+    verify(channel).basicAck(1, true);
+    verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+  }
+
+  @SneakyThrows
+  private void stubStrategy(long strategyId, String chatId) {
+    stubFor(
+        WireMock.get(urlEqualTo("/inner/strategy/" + strategyId + "/info"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        objectMapper.writeValueAsString(
+                            ChatDto.builder().chatId(chatId).build()))));
+  }
+
+  @SneakyThrows
+  private Message message(long deliveryTag, StrategyEvent event) {
+    return new Message(objectMapper.writeValueAsBytes(event), deliveryProperties(deliveryTag));
+  }
+
+  private static MessageProperties deliveryProperties(long deliveryTag) {
+    MessageProperties properties = new MessageProperties();
+    properties.setDeliveryTag(deliveryTag);
+    return properties;
+  }
+}
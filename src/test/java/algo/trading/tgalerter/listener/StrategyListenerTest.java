@@ -1,6 +1,7 @@
 package algo.trading.tgalerter.listener;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -15,19 +16,27 @@ import static org.mockito.Mockito.when;
 import algo.trading.common.dto.ChatDto;
 import algo.trading.common.dto.EventType;
 import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.common.dto.StrategyState;
 import algo.trading.tgalerter.BaseIntegrationTest;
 import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import algo.trading.tgalerter.integration.StrategyRoutingIndex;
 import algo.trading.tgalerter.service.EventSubscriptionManager;
 import algo.trading.tgalerter.service.MemoryEventSubscriptions;
+import algo.trading.tgalerter.service.SubscriptionIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
-import java.lang.reflect.Field;
-import java.util.concurrent.ConcurrentHashMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -49,6 +58,11 @@ public class StrategyListenerTest extends BaseIntegrationTest {
 
   @Autowired private EventSubscriptionManager eventSubscriptionManager;
 
+  @Autowired private StrategyInfoCache strategyInfoCache;
+
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private StrategyRoutingIndex strategyRoutingIndex;
+
   @TestConfiguration
   static class TestConfig {
     @Bean
@@ -70,13 +84,12 @@ public class StrategyListenerTest extends BaseIntegrationTest {
   @SneakyThrows
   void setUp() {
     Mockito.reset(tradingAlertBot);
-    // Очищаем подписки через reflection
-    if (eventSubscriptionManager instanceof MemoryEventSubscriptions) {
-      Field storageField = MemoryEventSubscriptions.class.getDeclaredField("unsubscriptions");
-      storageField.setAccessible(true);
-      ConcurrentHashMap<?, ?> storage =
-          (ConcurrentHashMap<?, ?>) storageField.get(eventSubscriptionManager);
-      storage.clear();
+    when(tradingAlertBot.alertAsync(anyString(), anyString()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    strategyInfoCache.invalidateAll();
+    // Очищаем подписки
+    if (eventSubscriptionManager instanceof MemoryEventSubscriptions memoryEventSubscriptions) {
+      memoryEventSubscriptions.restore(SubscriptionIndex.Snapshot.EMPTY);
     }
   }
 
@@ -95,17 +108,51 @@ public class StrategyListenerTest extends BaseIntegrationTest {
                     .withBody(objectMapper.writeValueAsString(chatDto))));
 
     // when
-    strategyListener.processStrategyEvent(strategyEvent);
+    strategyListener.processStrategyEvent(strategyEvent).join();
 
     // then
     ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
-    verify(tradingAlertBot, times(1)).alert(messageCaptor.capture(), eq(chatDto.getChatId()));
+    verify(tradingAlertBot, times(1)).alertAsync(messageCaptor.capture(), eq(chatDto.getChatId()));
 
     String sentMessage = messageCaptor.getValue();
     assertThat(sentMessage).isNotEmpty();
     assertThat(sentMessage).contains("777");
   }
 
+  @Test
+  @SneakyThrows
+  public void processStrategyEventShouldRecordStageMetrics() {
+    // given
+    StrategyEvent strategyEvent =
+        StrategyEvent.builder()
+            .type(EventType.ACTION)
+            .state(StrategyState.OPEN)
+            .time(Instant.now())
+            .strategyId(777L)
+            .build();
+    ChatDto chatDto = ChatDto.builder().chatId("666").build();
+    stubFor(
+        WireMock.get(urlEqualTo("/inner/strategy/777/info"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(objectMapper.writeValueAsString(chatDto))));
+    double processed = processedCount();
+    long lookups = timerCount("alerter.orchestrator.lookup", "outcome", "success");
+    long renders = meterRegistry.get("alerter.events.render").timer().count();
+    long lags = timerCount("alerter.events.lag", "type", "ACTION");
+
+    // when
+    strategyListener.processStrategyEvent(strategyEvent).join();
+
+    // then
+    assertThat(processedCount()).isEqualTo(processed + 1);
+    assertThat(timerCount("alerter.orchestrator.lookup", "outcome", "success"))
+        .isEqualTo(lookups + 1);
+    assertThat(meterRegistry.get("alerter.events.render").timer().count()).isEqualTo(renders + 1);
+    assertThat(timerCount("alerter.events.lag", "type", "ACTION")).isEqualTo(lags + 1);
+  }
+
   @Test
   @SneakyThrows
   public void processStrategyEventWhenUnsubscribedShouldNotSendAlert() {
@@ -125,9 +172,93 @@ public class StrategyListenerTest extends BaseIntegrationTest {
                     .withBody(objectMapper.writeValueAsString(chatDto))));
 
     // when
-    strategyListener.processStrategyEvent(strategyEvent);
+    strategyListener.processStrategyEvent(strategyEvent).join();
 
     // then
-    verify(tradingAlertBot, never()).alert(anyString(), eq(chatDto.getChatId()));
+    verify(tradingAlertBot, never()).alertAsync(anyString(), eq(chatDto.getChatId()));
+  }
+
+  @Test
+  @SneakyThrows
+  public void processStrategyEventTwiceShouldCallOrchestratorOnce() {
+    // given
+    StrategyEvent strategyEvent =
+        StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).build();
+    ChatDto chatDto = ChatDto.builder().chatId("666").build();
+    stubFor(
+        WireMock.get(urlEqualTo("/inner/strategy/777/info"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(objectMapper.writeValueAsString(chatDto))));
+
+    // when
+    strategyListener.processStrategyEvent(strategyEvent).join();
+    strategyListener.processStrategyEvent(strategyEvent).join();
+
+    // then
+    verify(tradingAlertBot, times(2)).alertAsync(anyString(), eq(chatDto.getChatId()));
+    WireMock.verify(1, getRequestedFor(urlEqualTo("/inner/strategy/777/info")));
+  }
+
+  @Test
+  @SneakyThrows
+  public void processStrategyEventWithKnownRouteWhenUnsubscribedShouldNotCallOrchestrator() {
+    // given
+    StrategyEvent strategyEvent =
+        StrategyEvent.builder().type(EventType.ACTION).strategyId(778L).build();
+    strategyRoutingIndex.put(
+        778L, objectMapper.readValue("{\"chatId\":\"666\"}", StrategyInfo.class));
+    eventSubscriptionManager.unsubscribe("666", EventType.ACTION);
+    double skipped = skippedCount("before_resolution");
+
+    // when
+    strategyListener.processStrategyEvent(strategyEvent).join();
+
+    // then
+    verify(tradingAlertBot, never()).alertAsync(anyString(), anyString());
+    WireMock.verify(0, getRequestedFor(urlEqualTo("/inner/strategy/778/info")));
+    assertThat(skippedCount("before_resolution")).isEqualTo(skipped + 1);
+  }
+
+  @Test
+  public void processStrategyMessageWithTickShouldDropWithoutDeserialization() {
+    // given
+    byte[] body =
+        "{\"strategyId\":777,\"type\":\"TICK\",\"order\":\"not an order\"}".getBytes();
+    MessageProperties withHeader = new MessageProperties();
+    withHeader.setHeader("eventType", EventType.TICK.name());
+    double droppedByBody = droppedCount("body");
+    double droppedByHeader = droppedCount("header");
+
+    // when
+    strategyListener.processStrategyMessage(new Message(body, new MessageProperties())).join();
+    strategyListener.processStrategyMessage(new Message(new byte[0], withHeader)).join();
+
+    // then
+    verify(tradingAlertBot, never()).alertAsync(anyString(), anyString());
+    assertThat(droppedCount("body")).isEqualTo(droppedByBody + 1);
+    assertThat(droppedCount("header")).isEqualTo(droppedByHeader + 1);
+  }
+
+  private long timerCount(String name, String tag, String value) {
+    return meterRegistry.get(name).tag(tag, value).timer().count();
+  }
+
+  private double processedCount() {
+    return meterRegistry
+        .get("alerter.events.processed")
+        .tag("type", "ACTION")
+        .tag("state", "OPEN")
+        .counter()
+        .count();
+  }
+
+  private double skippedCount(String stage) {
+    return meterRegistry.get("alerter.events.skipped").tag("stage", stage).counter().count();
+  }
+
+  private double droppedCount(String source) {
+    return meterRegistry.get("alerter.events.dropped").tag("source", source).counter().count();
   }
 }
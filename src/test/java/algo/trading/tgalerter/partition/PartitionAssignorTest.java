@@ -0,0 +1,53 @@
+package algo.trading.tgalerter.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class PartitionAssignorTest {
+  private static final int PARTITIONS = 64;
+
+  @Test
+  public void assignShouldGiveEveryPartitionToExactlyOneMember() {
+    // given
+    List<String> members = List.of("alerter-0", "alerter-1", "alerter-2");
+
+    // when
+    Set<Integer> all = new HashSet<>();
+    int total = 0;
+    for (String member : members) {
+      Set<Integer> owned = PartitionAssignor.assign(member, members, PARTITIONS);
+      assertThat(owned).hasSizeGreaterThan(PARTITIONS / 6);
+      all.addAll(owned);
+      total += owned.size();
+    }
+
+    // then
+    assertThat(all).hasSize(PARTITIONS);
+    assertThat(total).isEqualTo(PARTITIONS);
+  }
+
+  @Test
+  public void assignShouldMoveOnlyPartitionsOfLeftMember() {
+    // given
+    List<String> before = List.of("alerter-0", "alerter-1", "alerter-2");
+    List<String> after = List.of("alerter-0", "alerter-1");
+
+    // when
+    Set<Integer> ownedBefore = PartitionAssignor.assign("alerter-0", before, PARTITIONS);
+    Set<Integer> ownedAfter = PartitionAssignor.assign("alerter-0", after, PARTITIONS);
+    Set<Integer> leftBefore = PartitionAssignor.assign("alerter-2", before, PARTITIONS);
+
+    // then
+    assertThat(ownedAfter).containsAll(ownedBefore);
+    Set<Integer> gained = new HashSet<>(ownedAfter);
+    gained.removeAll(ownedBefore);
+    assertThat(leftBefore).containsAll(gained);
+    assertThat(PartitionAssignor.partition(42L, PARTITIONS))
+        .isEqualTo(PartitionAssignor.partition(42L, PARTITIONS))
+        .isBetween(0, PARTITIONS - 1);
+  }
+}
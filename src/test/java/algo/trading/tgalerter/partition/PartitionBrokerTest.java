@@ -0,0 +1,189 @@
+package algo.trading.tgalerter.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.config.EventFilterProperties;
+import algo.trading.tgalerter.config.PartitioningProperties;
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import algo.trading.tgalerter.listener.EventMessageReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+public class PartitionBrokerTest {
+  private static final String SINGLE_ACTIVE = "x-single-active-consumer";
+
+  @Container
+  private static final RabbitMQContainer RABBIT = new RabbitMQContainer("rabbitmq:3.13-management");
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final EventMessageReader eventMessageReader =
+      new EventMessageReader(new EventFilterProperties(), objectMapper, new SimpleMeterRegistry());
+  private final PartitioningProperties properties = new PartitioningProperties();
+  private final List<PartitionConsumer> consumers = new ArrayList<>();
+  private CachingConnectionFactory connectionFactory;
+  private RabbitTemplate rabbitTemplate;
+
+  @BeforeEach
+  void setUp() {
+    properties.setPartitions(2);
+    properties.setExchange("test_partition_x");
+    properties.setQueuePrefix("test_partition_q");
+    properties.setDrainTimeout(Duration.ofSeconds(10));
+    connectionFactory = new CachingConnectionFactory(RABBIT.getHost(), RABBIT.getAmqpPort());
+    connectionFactory.setUsername(RABBIT.getAdminUsername());
+    connectionFactory.setPassword(RABBIT.getAdminPassword());
+    rabbitTemplate = new RabbitTemplate(connectionFactory);
+    RabbitAdmin admin = new RabbitAdmin(connectionFactory);
+    DirectExchange exchange = new DirectExchange(properties.getExchange());
+    admin.declareExchange(exchange);
+    for (int i = 0; i < properties.getPartitions(); i++) {
+      Queue queue =
+          new Queue(properties.queueName(i), true, false, false, Map.of(SINGLE_ACTIVE, true));
+      admin.declareQueue(queue);
+      admin.purgeQueue(queue.getName(), false);
+      admin.declareBinding(BindingBuilder.bind(queue).to(exchange).with(Integer.toString(i)));
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    consumers.forEach(PartitionConsumer::shutdown);
+    connectionFactory.destroy();
+  }
+
+  @Test
+  public void forwarderShouldRouteEventsToPartitionOfStrategyAndDropTicks() {
+    // given
+    EventForwarder forwarder =
+        new EventForwarder(
+            eventMessageReader, properties, connectionFactory, new SimpleMeterRegistry());
+    int partition = PartitionAssignor.partition(777L, properties.getPartitions());
+    String queue = properties.queueName(partition);
+    String otherQueue = properties.queueName(1 - partition);
+
+    // when
+    forwarder.forward(List.of(message(777L, EventType.TICK), message(777L, EventType.ACTION)));
+
+    // then
+    Message forwarded = rabbitTemplate.receive(queue, 5000);
+    assertThat(forwarded).isNotNull();
+    assertThat(eventMessageReader.read(forwarded).getType()).isEqualTo(EventType.ACTION);
+    assertThat(rabbitTemplate.receive(queue, 500)).isNull();
+    assertThat(rabbitTemplate.receive(otherQueue, 500)).isNull();
+  }
+
+  @Test
+  public void releasedPartitionShouldStopDeliveriesAndAckEventsInFlight() {
+    // given
+    CompletableFuture<Void> inFlight = new CompletableFuture<>();
+    EventDispatcher oldDispatcher = dispatcher(inFlight);
+    EventDispatcher newDispatcher = dispatcher(CompletableFuture.completedFuture(null));
+    Consumer<Set<Integer>> oldOwner = consumer(oldDispatcher);
+    Consumer<Set<Integer>> newOwner = consumer(newDispatcher);
+    oldOwner.accept(Set.of(0));
+    newOwner.accept(Set.of(0));
+    publish(0, message(1L, EventType.ACTION));
+    verify(oldDispatcher, timeout(5000)).dispatch(argThat(e -> e.getStrategyId() == 1L));
+
+    // when
+    oldOwner.accept(Set.of());
+    publish(0, message(2L, EventType.ACTION));
+
+    // then
+    verify(newDispatcher, timeout(5000)).dispatch(argThat(e -> e.getStrategyId() == 2L));
+    inFlight.complete(null);
+    verify(oldDispatcher, after(1000).times(1)).dispatch(any());
+    verify(newDispatcher, times(1)).dispatch(any());
+  }
+
+  @Test
+  public void eventsNotAckedWithinDrainTimeoutShouldGoToNewOwner() {
+    // given
+    properties.setDrainTimeout(Duration.ofMillis(500));
+    EventDispatcher oldDispatcher = dispatcher(new CompletableFuture<>());
+    EventDispatcher newDispatcher = dispatcher(CompletableFuture.completedFuture(null));
+    Consumer<Set<Integer>> oldOwner = consumer(oldDispatcher);
+    Consumer<Set<Integer>> newOwner = consumer(newDispatcher);
+    oldOwner.accept(Set.of(0));
+    newOwner.accept(Set.of(0));
+    publish(0, message(1L, EventType.ACTION));
+    verify(oldDispatcher, timeout(5000)).dispatch(argThat(e -> e.getStrategyId() == 1L));
+
+    // when
+    oldOwner.accept(Set.of());
+
+    // then
+    verify(newDispatcher, timeout(5000)).dispatch(argThat(e -> e.getStrategyId() == 1L));
+    verify(oldDispatcher, times(1)).dispatch(any());
+  }
+
+  private static EventDispatcher dispatcher(CompletableFuture<Void> result) {
+    EventDispatcher dispatcher = mock(EventDispatcher.class);
+    when(dispatcher.dispatch(any())).thenReturn(result);
+    return dispatcher;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Consumer<Set<Integer>> consumer(EventDispatcher dispatcher) {
+    PartitionAssignor partitionAssignor = mock(PartitionAssignor.class);
+    RabbitProperties rabbitProperties = new RabbitProperties();
+    rabbitProperties.getListener().getSimple().setPrefetch(10);
+    consumers.add(
+        new PartitionConsumer(
+            dispatcher,
+            eventMessageReader,
+            properties,
+            connectionFactory,
+            rabbitProperties,
+            partitionAssignor));
+    ArgumentCaptor<Consumer<Set<Integer>>> listener = ArgumentCaptor.forClass(Consumer.class);
+    verify(partitionAssignor).onAssignment(listener.capture());
+    return listener.getValue();
+  }
+
+  private void publish(int partition, Message message) {
+    rabbitTemplate.send(properties.getExchange(), Integer.toString(partition), message);
+  }
+
+  @SneakyThrows
+  private Message message(Long strategyId, EventType type) {
+    StrategyEvent event = StrategyEvent.builder().strategyId(strategyId).type(type).build();
+    return new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+  }
+}
@@ -0,0 +1,148 @@
+package algo.trading.tgalerter.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.BaseIntegrationTest;
+import algo.trading.tgalerter.config.PartitioningProperties;
+import algo.trading.tgalerter.dispatch.EventDispatcher;
+import algo.trading.tgalerter.partition.ReplicatedSubscriptions.Change;
+import algo.trading.tgalerter.partition.ReplicatedSubscriptions.ChangeType;
+import algo.trading.tgalerter.service.EventSubscriptionManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.telegram.telegrambots.longpolling.starter.TelegramBotStarterConfiguration;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {"partitioning.enabled=true", "partitioning.partitions=2"})
+@ImportAutoConfiguration(exclude = TelegramBotStarterConfiguration.class)
+public class PartitionedModeTest extends BaseIntegrationTest {
+  @Container
+  private static final RabbitMQContainer RABBIT = new RabbitMQContainer("rabbitmq:3.13-management");
+
+  @Autowired private RabbitTemplate rabbitTemplate;
+
+  @Autowired private AmqpAdmin amqpAdmin;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private EventDispatcher eventDispatcher;
+
+  @Autowired private EventSubscriptionManager subscriptions;
+
+  @Autowired private PartitioningProperties properties;
+
+  @Autowired private PartitionAssignor partitionAssignor;
+
+  @Value("${stage}_alert_event_q")
+  private String eventQueue;
+
+  @DynamicPropertySource
+  static void rabbitProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.rabbitmq.host", RABBIT::getHost);
+    registry.add("spring.rabbitmq.port", RABBIT::getAmqpPort);
+    registry.add("spring.rabbitmq.username", RABBIT::getAdminUsername);
+    registry.add("spring.rabbitmq.password", RABBIT::getAdminPassword);
+  }
+
+  @TestConfiguration
+  static class TestConfig {
+    @Bean
+    @Primary
+    public EventDispatcher eventDispatcher() {
+      EventDispatcher dispatcher = mock(EventDispatcher.class);
+      when(dispatcher.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+      return dispatcher;
+    }
+
+    @Bean
+    public Queue eventQueue(@Value("${stage}_alert_event_q") String name) {
+      return new Queue(name);
+    }
+  }
+
+  @Test
+  public void eventsShouldBeForwardedToPartitionOwner() {
+    // when
+    rabbitTemplate.send(eventQueue, message(778L, EventType.TICK));
+    rabbitTemplate.send(eventQueue, message(777L, EventType.ACTION));
+
+    // then
+    verify(eventDispatcher, timeout(20_000)).dispatch(argThat(e -> e.getStrategyId() == 777L));
+    verify(eventDispatcher, never()).dispatch(argThat(e -> e.getStrategyId() == 778L));
+  }
+
+  @Test
+  public void subscriptionChangesShouldBeReplicated() {
+    // given
+    Queue replica = amqpAdmin.declareQueue();
+    amqpAdmin.declareBinding(
+        BindingBuilder.bind(replica)
+            .to(new FanoutExchange(properties.getSubscriptionsExchange())));
+    Change remote =
+        new Change("other", ChangeType.UNSUBSCRIBE, "42", EventType.ACTION, null, null, null, null);
+
+    // when
+    rabbitTemplate.convertAndSend(properties.getSubscriptionsExchange(), "", remote);
+    subscriptions.unsubscribe("43", EventType.ACTION);
+
+    // then
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .until(() -> !subscriptions.isSubscribed("42", EventType.ACTION));
+    Change local = receive(replica.getName(), "43");
+    assertThat(local.origin()).isEqualTo(partitionAssignor.getMemberId());
+    assertThat(local.type()).isEqualTo(ChangeType.UNSUBSCRIBE);
+    assertThat(local.eventType()).isEqualTo(EventType.ACTION);
+  }
+
+  private Change receive(String queue, String chatId) {
+    ParameterizedTypeReference<Change> type = new ParameterizedTypeReference<>() {};
+    for (Change change = rabbitTemplate.receiveAndConvert(queue, 10_000, type);
+        change != null;
+        change = rabbitTemplate.receiveAndConvert(queue, 10_000, type)) {
+      if (chatId.equals(change.chatId())) {
+        return change;
+      }
+    }
+    throw new AssertionError("Change of chat " + chatId + " was not replicated");
+  }
+
+  @SneakyThrows
+  private Message message(Long strategyId, EventType type) {
+    StrategyEvent event = StrategyEvent.builder().strategyId(strategyId).type(type).build();
+    return new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+  }
+}
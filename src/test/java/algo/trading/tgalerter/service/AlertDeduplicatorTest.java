@@ -0,0 +1,78 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.Order;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyState;
+import algo.trading.tgalerter.config.DeduplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+public class AlertDeduplicatorTest {
+  private final DeduplicationProperties properties = new DeduplicationProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  public void markIfNewShouldDropRedeliveredEventWithinWindow() {
+    // given
+    properties.setWindow(Duration.ofSeconds(10));
+    AlertDeduplicator deduplicator =
+        new AlertDeduplicator(properties, meterRegistry, clock::get);
+    Instant time = Instant.parse("2025-01-01T10:00:00.123Z");
+
+    // when
+    boolean first = deduplicator.markIfNew(event(777L, time, "guid-1"));
+    boolean redelivered = deduplicator.markIfNew(event(777L, time, "guid-1"));
+    boolean otherOrder = deduplicator.markIfNew(event(777L, time, "guid-2"));
+    boolean withoutTime = deduplicator.markIfNew(event(777L, null, "guid-1"));
+    clock.addAndGet(Duration.ofSeconds(11).toNanos());
+    boolean afterWindow = deduplicator.markIfNew(event(777L, time, "guid-1"));
+
+    // then
+    assertThat(first).isTrue();
+    assertThat(redelivered).isFalse();
+    assertThat(otherOrder).isTrue();
+    assertThat(withoutTime).isTrue();
+    assertThat(afterWindow).isTrue();
+    assertThat(meterRegistry.get("alerter.events.duplicates").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void unmarkShouldKeepOtherFingerprintsInFullTable() {
+    // given
+    properties.setSlices(1);
+    properties.setMemoryBudget(DataSize.ofBytes(1024));
+    AlertDeduplicator deduplicator =
+        new AlertDeduplicator(properties, meterRegistry, clock::get);
+    Instant time = Instant.parse("2025-01-01T10:00:00Z");
+    for (long id = 0; id < 60; id++) {
+      deduplicator.markIfNew(event(id, time, null));
+    }
+
+    // when
+    deduplicator.unmark(event(10L, time, null));
+
+    // then
+    assertThat(deduplicator.markIfNew(event(10L, time, null))).isTrue();
+    for (long id = 0; id < 60; id++) {
+      assertThat(deduplicator.markIfNew(event(id, time, null))).isFalse();
+    }
+  }
+
+  private static StrategyEvent event(Long strategyId, Instant time, String guid) {
+    return StrategyEvent.builder()
+        .strategyId(strategyId)
+        .type(EventType.ORDER)
+        .state(StrategyState.OPEN)
+        .time(time)
+        .order(Order.builder().guid(guid).build())
+        .build();
+  }
+}
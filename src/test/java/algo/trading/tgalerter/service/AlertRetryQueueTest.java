@@ -0,0 +1,85 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.RetryQueueProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+public class AlertRetryQueueTest {
+  private static final String CHAT_ID = "666";
+
+  private final TradingAlertBot tradingAlertBot = mock(TradingAlertBot.class);
+  private final RetryQueueProperties properties = new RetryQueueProperties();
+
+  @TempDir private Path dir;
+
+  @BeforeEach
+  void setUp() {
+    properties.setPath(dir.resolve("retry.log"));
+    properties.setDeadLetterPath(dir.resolve("dead-letter.log"));
+    properties.setInitialBackoff(Duration.ofMillis(10));
+    properties.setFlushInterval(Duration.ofMillis(10));
+    properties.setMaxAttempts(3);
+  }
+
+  @Test
+  @SneakyThrows
+  public void failedAlertShouldBeRetriedAndDeadLettered() {
+    // given
+    when(tradingAlertBot.alertAsync(anyString(), eq(CHAT_ID)))
+        .thenReturn(CompletableFuture.failedFuture(new TelegramApiException("Bot API is down")));
+    AlertRetryQueue queue =
+        new AlertRetryQueue(tradingAlertBot, properties, new SimpleMeterRegistry());
+
+    // when
+    queue.enqueue(CHAT_ID, "alert", new TelegramApiException("Bot API is down"));
+
+    // then
+    verify(tradingAlertBot, timeout(2000).times(2)).alertAsync("alert", CHAT_ID);
+    queue.shutdown();
+    assertThat(Files.readString(properties.getDeadLetterPath())).contains(CHAT_ID + " 3 ");
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AlertRetryQueue restarted = new AlertRetryQueue(tradingAlertBot, properties, meterRegistry);
+    restarted.shutdown();
+    assertThat(meterRegistry.get("alerter.retry.replayed").counter().count()).isZero();
+    verify(tradingAlertBot, times(2)).alertAsync("alert", CHAT_ID);
+  }
+
+  @Test
+  public void pendingRetryShouldBeReplayedAfterRestart() {
+    // given
+    properties.setInitialBackoff(Duration.ofHours(1));
+    AlertRetryQueue queue =
+        new AlertRetryQueue(tradingAlertBot, properties, new SimpleMeterRegistry());
+    queue.enqueue(CHAT_ID, "alert", new TelegramApiException("Bot API is down"));
+    queue.shutdown();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // when
+    AlertRetryQueue restarted = new AlertRetryQueue(tradingAlertBot, properties, meterRegistry);
+    restarted.shutdown();
+
+    // then
+    assertThat(meterRegistry.get("alerter.retry.replayed").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("alerter.retry.queue.size").gauge().value()).isEqualTo(1);
+    verify(tradingAlertBot, never()).alertAsync(anyString(), anyString());
+  }
+}
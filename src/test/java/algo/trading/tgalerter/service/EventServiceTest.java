@@ -0,0 +1,134 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.DeduplicationProperties;
+import algo.trading.tgalerter.config.PriorityProperties;
+import algo.trading.tgalerter.integration.StrategyInfoCache;
+import algo.trading.tgalerter.integration.StrategyRoutingIndex;
+import algo.trading.tgalerter.template.AlertTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+public class EventServiceTest {
+  private static final String CHAT_ID = "666";
+
+  private final StrategyInfoCache strategyInfoCache = mock(StrategyInfoCache.class);
+  private final TradingAlertBot tradingAlertBot = mock(TradingAlertBot.class);
+  private final AlertTemplates alertTemplates = mock(AlertTemplates.class);
+  private final EventSubscriptionManager subscriptions = mock(EventSubscriptionManager.class);
+  private final SubscriptionRules subscriptionRules = mock(SubscriptionRules.class);
+  private EventService eventService;
+
+  @BeforeEach
+  void setUp() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    when(strategyInfoCache.getStrategyInfo(777L))
+        .thenReturn(StrategyInfo.builder().chatId(CHAT_ID).build());
+    when(subscriptions.isSubscribed(anyString(), any(EventType.class))).thenReturn(true);
+    when(subscriptionRules.matches(anyString(), any(), any())).thenReturn(true);
+    eventService =
+        new EventService(
+            strategyInfoCache,
+            mock(StrategyRoutingIndex.class),
+            tradingAlertBot,
+            alertTemplates,
+            subscriptions,
+            mock(MessageCoalescer.class),
+            subscriptionRules,
+            mock(AlertRetryQueue.class),
+            new AlertDeduplicator(new DeduplicationProperties(), meterRegistry),
+            new PriorityClassifier(new PriorityProperties()),
+            meterRegistry);
+  }
+
+  @Test
+  public void eventShouldBeAlertedOnRedeliveryWhenRenderFailed() {
+    // given
+    StrategyEvent event = event();
+    when(alertTemplates.renderEvent(eq(event), any()))
+        .thenThrow(new IllegalStateException("Template failed"))
+        .thenReturn("alert");
+    when(tradingAlertBot.alertAsync("alert", CHAT_ID))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    assertThatThrownBy(() -> eventService.processEvent(event, Runnable::run))
+        .isInstanceOf(IllegalStateException.class);
+
+    // when
+    CompletableFuture<Void> redelivered = eventService.processEvent(event, Runnable::run);
+
+    // then
+    assertThat(redelivered).isCompleted();
+    verify(tradingAlertBot).alertAsync("alert", CHAT_ID);
+  }
+
+  @Test
+  public void redeliveryShouldWaitForOriginalAlertAndBeAlertedIfItFailed() {
+    // given
+    StrategyEvent event = event();
+    CompletableFuture<Void> originalSend = new CompletableFuture<>();
+    when(alertTemplates.renderEvent(eq(event), any())).thenReturn("alert");
+    when(tradingAlertBot.alertAsync("alert", CHAT_ID))
+        .thenReturn(originalSend)
+        .thenReturn(CompletableFuture.completedFuture(null));
+    List<Runnable> dispatched = new ArrayList<>();
+    CompletableFuture<Void> original = eventService.processEvent(event, dispatched::add);
+
+    // when
+    CompletableFuture<Void> redelivered = eventService.processEvent(event, dispatched::add);
+
+    // then
+    assertThat(redelivered).isNotDone();
+    originalSend.completeExceptionally(new TelegramApiException("Bot API is down"));
+    assertThat(original).isCompletedExceptionally();
+    verify(tradingAlertBot, times(1)).alertAsync("alert", CHAT_ID);
+    assertThat(dispatched).hasSize(1);
+    dispatched.get(0).run();
+    assertThat(redelivered).isCompleted();
+    verify(tradingAlertBot, times(2)).alertAsync("alert", CHAT_ID);
+  }
+
+  @Test
+  public void duplicateShouldBeDroppedWithoutStrategyLookup() {
+    // given
+    StrategyEvent event = event();
+    when(alertTemplates.renderEvent(eq(event), any())).thenReturn("alert");
+    when(tradingAlertBot.alertAsync("alert", CHAT_ID))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    eventService.processEvent(event, Runnable::run);
+
+    // when
+    CompletableFuture<Void> duplicate = eventService.processEvent(event, Runnable::run);
+
+    // then
+    assertThat(duplicate).isCompleted();
+    verify(strategyInfoCache, times(1)).getStrategyInfo(777L);
+    verify(tradingAlertBot, times(1)).alertAsync("alert", CHAT_ID);
+  }
+
+  private static StrategyEvent event() {
+    return StrategyEvent.builder()
+        .strategyId(777L)
+        .type(EventType.ACTION)
+        .time(Instant.parse("2025-01-01T10:00:00Z"))
+        .build();
+  }
+}
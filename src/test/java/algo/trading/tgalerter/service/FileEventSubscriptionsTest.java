@@ -0,0 +1,65 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.tgalerter.config.SubscriptionStoreProperties;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileEventSubscriptionsTest {
+  @TempDir private Path dir;
+
+  @Test
+  public void subscriptionsShouldSurviveRestart() {
+    // given
+    SubscriptionStoreProperties properties = properties(100);
+    FileEventSubscriptions store = new FileEventSubscriptions(properties);
+    store.unsubscribe("666", EventType.ACTION);
+    store.unsubscribe("777", EventType.ACTION);
+    store.subscribe("777", EventType.ACTION);
+
+    // when
+    store.shutdown();
+    FileEventSubscriptions restarted = new FileEventSubscriptions(properties);
+
+    // then
+    assertThat(restarted.isSubscribed("666", EventType.ACTION)).isFalse();
+    assertThat(restarted.isSubscribed("666", EventType.ORDER)).isTrue();
+    assertThat(restarted.isSubscribed("777", EventType.ACTION)).isTrue();
+    restarted.shutdown();
+  }
+
+  @Test
+  @SneakyThrows
+  public void journalShouldBeCompacted() {
+    // given
+    SubscriptionStoreProperties properties = properties(3);
+    FileEventSubscriptions store = new FileEventSubscriptions(properties);
+    for (int i = 0; i < 5; i++) {
+      store.unsubscribe("666", EventType.ACTION);
+      store.subscribe("666", EventType.ACTION);
+    }
+    store.unsubscribe("777", EventType.ORDER);
+
+    // when
+    store.shutdown();
+
+    // then
+    assertThat(Files.readAllLines(properties.getPath())).containsExactly("U 777 ORDER");
+    FileEventSubscriptions restarted = new FileEventSubscriptions(properties);
+    assertThat(restarted.isSubscribed("666", EventType.ACTION)).isTrue();
+    assertThat(restarted.isSubscribed("777", EventType.ORDER)).isFalse();
+    restarted.shutdown();
+  }
+
+  private SubscriptionStoreProperties properties(int compactAfter) {
+    SubscriptionStoreProperties properties = new SubscriptionStoreProperties();
+    properties.setPath(dir.resolve("subscriptions.log"));
+    properties.setCompactAfter(compactAfter);
+    return properties;
+  }
+}
@@ -0,0 +1,82 @@
+package algo.trading.tgalerter.service;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.config.TelegramBotProperties;
+import algo.trading.tgalerter.template.AlertTemplates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HandleErrorsServiceTest {
+  private static final String ERROR_CHAT_ID = "error";
+
+  private final TradingAlertBot tradingAlertBot = mock(TradingAlertBot.class);
+  private HandleErrorsService handleErrorsService;
+
+  @BeforeEach
+  void setUp() {
+    when(tradingAlertBot.alertAsync(anyString(), anyString()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    TelegramBotProperties properties = new TelegramBotProperties();
+    properties.setErrorChatId(ERROR_CHAT_ID);
+    properties.getErrorSuppression().setWindow(Duration.ofMillis(300));
+    handleErrorsService =
+        new HandleErrorsService(
+            tradingAlertBot,
+            properties,
+            new AlertTemplates(new AlertTemplateProperties(), new ObjectMapper()),
+            new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    handleErrorsService.shutdown();
+  }
+
+  @Test
+  public void similarErrorsShouldBeReportedOnceWithSummary() {
+    // given
+    StrategyEvent event = StrategyEvent.builder().strategyId(777L).build();
+
+    // when
+    for (int i = 0; i < 5; i++) {
+      handleErrorsService.handleError(failure(), event).join();
+    }
+
+    // then
+    verify(tradingAlertBot, times(1)).alertAsync(anyString(), eq(ERROR_CHAT_ID));
+    verify(tradingAlertBot, timeout(2000))
+        .alertAsync(contains("4 more similar errors"), eq(ERROR_CHAT_ID));
+  }
+
+  @Test
+  public void errorsOfDifferentStrategiesShouldBeReportedSeparately() {
+    // when
+    handleErrorsService.handleError(failure(), StrategyEvent.builder().strategyId(1L).build());
+    handleErrorsService.handleError(failure(), StrategyEvent.builder().strategyId(2L).build());
+
+    // then
+    verify(tradingAlertBot, times(2)).alertAsync(anyString(), eq(ERROR_CHAT_ID));
+    verify(tradingAlertBot, never()).alertAsync(contains("more similar errors"), anyString());
+  }
+
+  private static Exception failure() {
+    return new IllegalStateException("Orchestrator is down");
+  }
+}
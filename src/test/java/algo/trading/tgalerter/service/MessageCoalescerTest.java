@@ -0,0 +1,138 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import algo.trading.tgalerter.bot.TradingAlertBot;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.config.CoalescingProperties;
+import algo.trading.tgalerter.exceptions.CoalescedSendException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+public class MessageCoalescerTest {
+  private static final String CHAT_ID = "666";
+
+  private final TradingAlertBot tradingAlertBot = mock(TradingAlertBot.class);
+  private final CoalescingProperties properties = new CoalescingProperties();
+  private MessageCoalescer coalescer;
+
+  @BeforeEach
+  void setUp() {
+    properties.setEnabled(true);
+    coalescer = new MessageCoalescer(tradingAlertBot, properties, new AlertTemplateProperties());
+    when(tradingAlertBot.alertAsync(anyString(), eq(CHAT_ID)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+  }
+
+  @Test
+  @SneakyThrows
+  public void windowEndShouldSendBufferedAlertsAsOneDigest() {
+    // given
+    properties.setWindow(Duration.ofMillis(100));
+
+    // when
+    CompletableFuture<Void> first = coalescer.submit(CHAT_ID, "first");
+    CompletableFuture<Void> second = coalescer.submit(CHAT_ID, "second");
+
+    // then
+    verify(tradingAlertBot, never()).alertAsync(anyString(), eq(CHAT_ID));
+    CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+    verify(tradingAlertBot).alertAsync("=== 2 events ===\n\nfirst\n\nsecond", CHAT_ID);
+  }
+
+  @Test
+  @SneakyThrows
+  public void maxEventsShouldSendDigestBeforeWindowEnds() {
+    // given
+    properties.setWindow(Duration.ofHours(1));
+    properties.setMaxEvents(2);
+
+    // when
+    coalescer.submit(CHAT_ID, "first");
+    CompletableFuture<Void> second = coalescer.submit(CHAT_ID, "second");
+    CompletableFuture<Void> third = coalescer.submit(CHAT_ID, "third");
+
+    // then
+    second.get(5, TimeUnit.SECONDS);
+    verify(tradingAlertBot).alertAsync("=== 2 events ===\n\nfirst\n\nsecond", CHAT_ID);
+    assertThat(third).isNotDone();
+    coalescer.shutdown();
+    third.get(5, TimeUnit.SECONDS);
+    verify(tradingAlertBot).alertAsync("third", CHAT_ID);
+  }
+
+  @Test
+  public void failedDigestShouldFailFirstAlertWithCauseOnly() {
+    // given
+    properties.setWindow(Duration.ofMillis(50));
+    TelegramApiException cause = new TelegramApiException("Bot API is down");
+    when(tradingAlertBot.alertAsync(anyString(), eq(CHAT_ID)))
+        .thenReturn(CompletableFuture.failedFuture(cause));
+
+    // when
+    CompletableFuture<Void> first = coalescer.submit(CHAT_ID, "first");
+    CompletableFuture<Void> second = coalescer.submit(CHAT_ID, "second");
+
+    // then
+    assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasCause(cause);
+    assertThatThrownBy(second::join)
+        .isInstanceOf(CompletionException.class)
+        .cause()
+        .isInstanceOf(CoalescedSendException.class);
+    verify(tradingAlertBot, timeout(1000).times(1)).alertAsync(anyString(), eq(CHAT_ID));
+  }
+
+  @Test
+  @SneakyThrows
+  public void oversizedDigestShouldBeSplitAtMessageBoundary() {
+    // given
+    properties.setWindow(Duration.ofMillis(50));
+    String longMessage = "x".repeat(MessageCoalescer.MAX_MESSAGE_LENGTH - 20);
+
+    // when
+    CompletableFuture<Void> first = coalescer.submit(CHAT_ID, longMessage);
+    CompletableFuture<Void> second = coalescer.submit(CHAT_ID, "second");
+
+    // then
+    CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+    verify(tradingAlertBot).alertAsync("=== 2 events ===\n\n" + longMessage, CHAT_ID);
+    verify(tradingAlertBot).alertAsync("second", CHAT_ID);
+    verify(tradingAlertBot, times(2)).alertAsync(anyString(), eq(CHAT_ID));
+  }
+
+  @Test
+  @SneakyThrows
+  public void oversizedFirstAlertShouldStartDigestAfterHeader() {
+    // given
+    properties.setWindow(Duration.ofMillis(50));
+    String header = "=== 2 events ===\n\n";
+    int firstChunk = MessageCoalescer.MAX_MESSAGE_LENGTH - header.length();
+    String longMessage = "x".repeat(MessageCoalescer.MAX_MESSAGE_LENGTH + 100);
+
+    // when
+    CompletableFuture<Void> first = coalescer.submit(CHAT_ID, longMessage);
+    CompletableFuture<Void> second = coalescer.submit(CHAT_ID, "second");
+
+    // then
+    CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+    verify(tradingAlertBot).alertAsync(header + "x".repeat(firstChunk), CHAT_ID);
+    verify(tradingAlertBot)
+        .alertAsync("x".repeat(longMessage.length() - firstChunk) + "\n\nsecond", CHAT_ID);
+    verify(tradingAlertBot, times(2)).alertAsync(anyString(), eq(CHAT_ID));
+  }
+}
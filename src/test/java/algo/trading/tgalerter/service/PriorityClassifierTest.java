@@ -0,0 +1,56 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyState;
+import algo.trading.tgalerter.config.PriorityProperties;
+import java.util.EnumSet;
+import org.junit.jupiter.api.Test;
+
+public class PriorityClassifierTest {
+  private final PriorityProperties properties = new PriorityProperties();
+
+  @Test
+  public void eventShouldBeHighByConfiguredTypeOrState() {
+    // given
+    PriorityClassifier classifier = new PriorityClassifier(properties);
+
+    // when
+    boolean errorType = classifier.isHigh(event(EventType.ERROR, StrategyState.OPEN));
+    boolean errorState = classifier.isHigh(event(EventType.ACTION, StrategyState.ERROR));
+    boolean routine = classifier.isHigh(event(EventType.ACTION, StrategyState.OPEN));
+    boolean empty = classifier.isHigh(event(null, null));
+
+    // then
+    assertThat(errorType).isTrue();
+    assertThat(errorState).isTrue();
+    assertThat(routine).isFalse();
+    assertThat(empty).isFalse();
+  }
+
+  @Test
+  public void noEventShouldBeHighWhenDisabledOrNothingConfigured() {
+    // given
+    properties.setEnabled(false);
+    PriorityClassifier disabled = new PriorityClassifier(properties);
+    properties.setEnabled(true);
+    properties.setTypes(EnumSet.noneOf(EventType.class));
+    properties.setStates(EnumSet.noneOf(StrategyState.class));
+    PriorityClassifier empty = new PriorityClassifier(properties);
+    StrategyEvent event = event(EventType.ERROR, StrategyState.ERROR);
+
+    // when
+    boolean highWhenDisabled = disabled.isHigh(event);
+    boolean highWhenEmpty = empty.isHigh(event);
+
+    // then
+    assertThat(highWhenDisabled).isFalse();
+    assertThat(highWhenEmpty).isFalse();
+  }
+
+  private static StrategyEvent event(EventType type, StrategyState state) {
+    return StrategyEvent.builder().strategyId(777L).type(type).state(state).build();
+  }
+}
@@ -0,0 +1,69 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.EventType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+public class SubscriptionIndexTest {
+  private static final int THREADS = 4;
+  private static final int CHATS_PER_THREAD = 10_000;
+
+  @Test
+  public void concurrentUpdatesShouldNotBeLostOnResize() {
+    // given
+    SubscriptionIndex index = new SubscriptionIndex();
+    List<CompletableFuture<Void>> writers = new ArrayList<>();
+
+    // when
+    for (int t = 0; t < THREADS; t++) {
+      long first = -1_000_000_000_000L - (long) t * CHATS_PER_THREAD;
+      writers.add(
+          CompletableFuture.runAsync(
+              () -> {
+                for (long chatId = first; chatId > first - CHATS_PER_THREAD; chatId--) {
+                  index.unsubscribe(chatId, EventType.ACTION);
+                  index.unsubscribe(chatId, EventType.ORDER);
+                  index.subscribe(chatId, EventType.ORDER);
+                }
+              }));
+    }
+    writers.forEach(CompletableFuture::join);
+
+    // then
+    for (int t = 0; t < THREADS; t++) {
+      long first = -1_000_000_000_000L - (long) t * CHATS_PER_THREAD;
+      for (long chatId = first; chatId > first - CHATS_PER_THREAD; chatId--) {
+        assertThat(index.isSubscribed(chatId, EventType.ACTION)).isFalse();
+        assertThat(index.isSubscribed(chatId, EventType.ORDER)).isTrue();
+      }
+    }
+    assertThat(index.isSubscribed(42L, EventType.ACTION)).isTrue();
+  }
+
+  @Test
+  public void restoreShouldReplaceContentWithSnapshot() {
+    // given
+    SubscriptionIndex source = new SubscriptionIndex();
+    source.unsubscribe(1L, EventType.ACTION);
+    source.unsubscribe(2L, EventType.ERROR);
+    source.unsubscribe(3L, EventType.ACTION);
+    source.subscribe(3L, EventType.ACTION);
+    SubscriptionIndex target = new SubscriptionIndex();
+    target.unsubscribe(4L, EventType.ACTION);
+
+    // when
+    SubscriptionIndex.Snapshot snapshot = source.snapshot();
+    target.restore(snapshot);
+
+    // then
+    assertThat(snapshot.size()).isEqualTo(2);
+    assertThat(target.isSubscribed(1L, EventType.ACTION)).isFalse();
+    assertThat(target.isSubscribed(2L, EventType.ERROR)).isFalse();
+    assertThat(target.isSubscribed(3L, EventType.ACTION)).isTrue();
+    assertThat(target.isSubscribed(4L, EventType.ACTION)).isTrue();
+  }
+}
@@ -0,0 +1,92 @@
+package algo.trading.tgalerter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.Order;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.SubscriptionStoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SubscriptionRulesTest {
+  private static final String CHAT_ID = "666";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @TempDir private Path dir;
+
+  @Test
+  @SneakyThrows
+  public void rulesShouldMuteMatchingEventsOnly() {
+    // given
+    SubscriptionRules rules = new SubscriptionRules(new SubscriptionStoreProperties(), objectMapper);
+    StrategyInfo sber = objectMapper.readValue("{\"symbol\":\"SBER\"}", StrategyInfo.class);
+    StrategyInfo gazp = objectMapper.readValue("{\"symbol\":\"GAZP\"}", StrategyInfo.class);
+
+    // when
+    rules.add(CHAT_ID, SubscriptionRule.muteStrategy(1L, null));
+    rules.add(CHAT_ID, SubscriptionRule.muteSymbol("sber", EventType.ACTION));
+    rules.add(CHAT_ID, SubscriptionRule.minPnl(new BigDecimal("10"), EventType.ORDER));
+
+    // then
+    assertThat(rules.matches(CHAT_ID, event(1L, EventType.ERROR, null), gazp)).isFalse();
+    assertThat(rules.matches(CHAT_ID, event(2L, EventType.ACTION, null), sber)).isFalse();
+    assertThat(rules.matches(CHAT_ID, event(2L, EventType.ORDER, null), sber)).isTrue();
+    assertThat(rules.matches(CHAT_ID, event(2L, EventType.ORDER, "9.99"), gazp)).isFalse();
+    assertThat(rules.matches(CHAT_ID, event(2L, EventType.ORDER, "10"), gazp)).isTrue();
+    assertThat(rules.matches("777", event(1L, EventType.ERROR, null), gazp)).isTrue();
+  }
+
+  @Test
+  public void rulesShouldBeSavedWithFileStore() {
+    // given
+    SubscriptionStoreProperties properties = new SubscriptionStoreProperties();
+    properties.setStore(SubscriptionStoreProperties.Store.FILE);
+    properties.setRulesPath(dir.resolve("rules.json"));
+    SubscriptionRules rules = new SubscriptionRules(properties, objectMapper);
+    rules.add(CHAT_ID, SubscriptionRule.muteStrategy(1L, EventType.ACTION));
+    rules.add(CHAT_ID, SubscriptionRule.muteStrategy(2L, null));
+    rules.remove(CHAT_ID, SubscriptionRule.muteStrategy(2L, null));
+
+    // when
+    SubscriptionRules loaded = new SubscriptionRules(properties, objectMapper);
+
+    // then
+    assertThat(loaded.getRules(CHAT_ID))
+        .containsExactly(SubscriptionRule.muteStrategy(1L, EventType.ACTION));
+    assertThat(loaded.matches(CHAT_ID, event(1L, EventType.ACTION, null), null)).isFalse();
+  }
+
+  @Test
+  public void replaceAllShouldReplaceRulesOfKindAsOneChange() {
+    // given
+    SubscriptionRules rules = new SubscriptionRules(new SubscriptionStoreProperties(), objectMapper);
+    rules.add(CHAT_ID, SubscriptionRule.muteStrategy(1L, null));
+    rules.add(CHAT_ID, SubscriptionRule.minPnl(BigDecimal.ONE, EventType.ORDER));
+    List<String> changes = new ArrayList<>();
+    rules.onChange(changes::add);
+    SubscriptionRule minPnl = SubscriptionRule.minPnl(BigDecimal.TEN, EventType.ORDER);
+
+    // when
+    int removed = rules.replaceAll(CHAT_ID, SubscriptionRule.Kind.MIN_PNL, minPnl);
+
+    // then
+    assertThat(removed).isEqualTo(1);
+    assertThat(changes).containsExactly(CHAT_ID);
+    assertThat(rules.getRules(CHAT_ID))
+        .containsExactly(SubscriptionRule.muteStrategy(1L, null), minPnl);
+  }
+
+  private static StrategyEvent event(long strategyId, EventType type, String result) {
+    Order order = result == null ? null : Order.builder().result(new BigDecimal(result)).build();
+    return StrategyEvent.builder().strategyId(strategyId).type(type).order(order).build();
+  }
+}
@@ -0,0 +1,137 @@
+package algo.trading.tgalerter.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import algo.trading.common.dto.EventType;
+import algo.trading.common.dto.StrategyEvent;
+import algo.trading.common.dto.StrategyInfo;
+import algo.trading.tgalerter.config.AlertTemplateProperties;
+import algo.trading.tgalerter.config.EventFilterProperties;
+import algo.trading.tgalerter.listener.EventMessageReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class AlertTemplatesTest {
+  private static final String MARKDOWN_V2_RESERVED = "_*[]()~`>#+-=|{}.!";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  @SneakyThrows
+  public void renderEventWithDefaultTemplateShouldSkipMissingFields() {
+    // given
+    AlertTemplates alertTemplates =
+        new AlertTemplates(new AlertTemplateProperties(), objectMapper);
+    StrategyEvent event =
+        StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).message("hello").build();
+    StrategyInfo strategyInfo = objectMapper.readValue("{\"chatId\":\"666\"}", StrategyInfo.class);
+
+    // when
+    String message = alertTemplates.renderEvent(event, strategyInfo);
+
+    // then
+    assertThat(message)
+        .isEqualTo(
+            """
+            === Strategy Event ===
+            Type: ACTION
+            Strategy ID: 777
+            Time: null
+
+            Message:
+            hello
+            """);
+  }
+
+  @Test
+  @SneakyThrows
+  public void renderEventShouldEscapeValuesOnly() {
+    // given
+    AlertTemplateProperties properties = new AlertTemplateProperties();
+    properties.setMarkup(Markup.MARKDOWN_V2);
+    properties.getEventTemplates().put(EventType.ACTION, "*{type}* {message}");
+    AlertTemplates alertTemplates = new AlertTemplates(properties, objectMapper);
+    StrategyEvent event =
+        StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).message("1.5-x").build();
+
+    // when
+    String message = alertTemplates.renderEvent(event, null);
+
+    // then
+    assertThat(message).isEqualTo("*ACTION* 1\\.5\\-x");
+  }
+
+  @Test
+  @SneakyThrows
+  public void renderEventShouldIndentRawOrder() {
+    // given
+    ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    AlertTemplateProperties properties = new AlertTemplateProperties();
+    properties.getEventTemplates().put(EventType.ORDER, "{order}");
+    AlertTemplates alertTemplates = new AlertTemplates(properties, mapper);
+    String order = "{\"guid\":\"g-1\",\"result\":-50.00}";
+    byte[] body = ("{\"type\":\"ORDER\",\"order\":" + order + "}").getBytes();
+    StrategyEvent event =
+        new EventMessageReader(new EventFilterProperties(), mapper, new SimpleMeterRegistry())
+            .read(new Message(body, new MessageProperties()));
+
+    // when
+    String message = alertTemplates.renderEvent(event, null);
+
+    // then
+    assertThat(message)
+        .isEqualTo(
+            """
+            {
+              "guid" : "g-1",
+              "result" : -50.00
+            }""");
+  }
+
+  @Test
+  @SneakyThrows
+  public void defaultTemplatesShouldBeValidMarkdownV2() {
+    // given
+    AlertTemplateProperties properties = new AlertTemplateProperties();
+    properties.setMarkup(Markup.MARKDOWN_V2);
+    AlertTemplates alertTemplates = new AlertTemplates(properties, objectMapper);
+    StrategyEvent event =
+        StrategyEvent.builder().type(EventType.ACTION).strategyId(777L).message("1.5-x").build();
+    StrategyInfo strategyInfo = objectMapper.readValue("{\"chatId\":\"666\"}", StrategyInfo.class);
+
+    // when
+    String alert = alertTemplates.renderEvent(event, strategyInfo);
+    String error = alertTemplates.renderError(new IllegalStateException("failed (1.5)"), event);
+
+    // then
+    assertThat(alert).startsWith("\\=\\=\\= Strategy Event \\=\\=\\=\n");
+    assertThat(error).contains("Stacktrace \\(first 5 lines\\):");
+    assertEscaped(alert);
+    assertEscaped(error);
+  }
+
+  @Test
+  public void compileShouldRejectUnknownField() {
+    assertThatThrownBy(() -> MessageTemplate.compile("{unknown}"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static void assertEscaped(String message) {
+    for (int i = 0; i < message.length(); i++) {
+      char c = message.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else {
+        assertThat(MARKDOWN_V2_RESERVED.indexOf(c))
+            .as("unescaped '%s' at %d of %s", c, i, message)
+            .isNegative();
+      }
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package algo.trading.tgalerter.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import algo.trading.tgalerter.template.Markup;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class FormatUtilTest {
+
+  @Test
+  public void splitByLengthShouldCutAtLastLineBreakWithinLimit() {
+    // when
+    List<String> chunks = FormatUtil.splitByLength("aaa\nbbb\ncc", 8);
+
+    // then
+    assertThat(chunks).containsExactly("aaa\nbbb", "cc");
+  }
+
+  @Test
+  public void splitByLengthShouldCutAtLimitWithoutLineBreak() {
+    // when
+    List<String> chunks = FormatUtil.splitByLength("abcdefghij", 4);
+
+    // then
+    assertThat(chunks).containsExactly("abcd", "efgh", "ij");
+  }
+
+  @Test
+  public void splitByLengthShouldNotCutEscapeSequence() {
+    // when
+    List<String> markdown = FormatUtil.splitByLength("abc\\.de", 4, Markup.MARKDOWN_V2);
+    List<String> html = FormatUtil.splitByLength("ab&amp;cd", 6, Markup.HTML);
+
+    // then
+    assertThat(markdown).containsExactly("abc", "\\.de");
+    assertThat(html).containsExactly("ab", "&amp;c", "d");
+  }
+
+  @Test
+  public void splitByLengthShouldKeepTextOfExactLimitWhole() {
+    // when
+    List<String> chunks = FormatUtil.splitByLength("abcd\nefgh", 9);
+
+    // then
+    assertThat(chunks).containsExactly("abcd\nefgh");
+  }
+}